@@ -0,0 +1,23 @@
+package com.mentalhealth.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration for background work that should not hold up a request
+ * (WebSocket fan-out, calls to external APIs)
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * One virtual thread per task; cheap enough to fan out thousands of pushes
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
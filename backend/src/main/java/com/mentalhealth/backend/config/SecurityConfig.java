@@ -44,7 +44,9 @@ public class SecurityConfig {
                                 "/topic/**",
                                 "/queue/**",
                                 // Static resources
-                                "/uploads/**"
+                                "/uploads/**",
+                                // Local Zoom stub (zoom-stub profile only)
+                                "/zoom-stub/**"
                         ).permitAll()
 
                         // TEMPORARILY allow everything else
@@ -2,16 +2,56 @@ package com.mentalhealth.backend.config;
 
 
 
+import com.mentalhealth.backend.websocket.WebSocketTrafficStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private WebSocketTrafficStats trafficStats;
+
+    // Per-session outbound buffer: a client that cannot keep up is disconnected
+    // (it reconnects and reloads over REST) instead of growing server memory
+    @Value("${websocket.send.time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.send.buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.message.size-limit:65536}")
+    private int messageSizeLimit;
+
+    // Shared outbound channel: bounded queue. Beyond it, frames for the droppable
+    // destinations (superseded by the next frame anyway) are dropped and counted;
+    // everything else runs on the sending thread, which slows the sender down
+    @Value("${websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.outbound.droppable-destinations:/queue/typing}")
+    private List<String> droppableDestinations;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker for sending messages to clients
@@ -31,4 +71,67 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")  // Use setAllowedOriginPatterns to support wildcard with credentials
                 .withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                        trafficStats.sessionOpened();
+                        super.afterConnectionEstablished(session);
+                    }
+
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                        trafficStats.sessionClosed();
+                        // Used by the session decorator when the send time or buffer limit is exceeded
+                        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                            trafficStats.sessionEvicted();
+                        }
+                        super.afterConnectionClosed(session, closeStatus);
+                    }
+                });
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("ws-outbound-");
+        executor.setCorePoolSize(outboundPoolSize);
+        executor.setMaxPoolSize(outboundPoolSize);
+        executor.setQueueCapacity(outboundQueueCapacity);
+        ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            if (isDroppable(task)) {
+                trafficStats.frameDropped();
+            } else {
+                callerRuns.rejectedExecution(task, pool);
+            }
+        });
+        registration.taskExecutor(executor);
+    }
+
+    /**
+     * Typing indicators and the like; chat messages and notifications never are,
+     * because the outbox has already marked them delivered
+     */
+    private boolean isDroppable(Runnable task) {
+        if (!(task instanceof MessageHandlingRunnable sendTask)) {
+            return false;
+        }
+        // User destinations arrive resolved, e.g. /queue/typing-user{sessionId}
+        String destination = SimpMessageHeaderAccessor.getDestination(sendTask.getMessage().getHeaders());
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : droppableDestinations) {
+            if (destination.startsWith(prefix) || destination.startsWith("/user" + prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -61,6 +61,20 @@ public class ClientProgressController {
         return ResponseEntity.ok(assessments);
     }
 
+    /**
+     * GET /api/client-progress/{clientId}/stress-drivers
+     * Returns per-dimension stress breakdown for client (which dimension drives the score)
+     */
+    @GetMapping("/{clientId}/stress-drivers")
+    public ResponseEntity<Map<String, Object>> getStressDrivers(
+            @PathVariable Long clientId,
+            @RequestParam(required = false) Long instructorId,
+            @RequestParam(required = false, defaultValue = "90") Integer days) {
+
+        Map<String, Object> drivers = clientProgressService.getStressDrivers(clientId, instructorId, days);
+        return ResponseEntity.ok(drivers);
+    }
+
     /**
      * GET /api/client-progress/{clientId}/habits
      * Returns habit tracking data for client
@@ -4,6 +4,15 @@ import com.mentalhealth.backend.model.Instructor;
 import com.mentalhealth.backend.model.User;
 import com.mentalhealth.backend.repository.InstructorRepository;
 import com.mentalhealth.backend.repository.UserRepository;
+import com.mentalhealth.backend.service.CorrelationService;
+import com.mentalhealth.backend.service.DirectorySearchService;
+import com.mentalhealth.backend.service.IdentityCache;
+import com.mentalhealth.backend.service.MeetingProvisioningService;
+import com.mentalhealth.backend.service.MessageOutboxService;
+import com.mentalhealth.backend.service.ProgressDataCache;
+import com.mentalhealth.backend.service.SessionReminderService;
+import com.mentalhealth.backend.service.StressSeriesCache;
+import com.mentalhealth.backend.websocket.WebSocketTrafficStats;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,13 +26,40 @@ public class DebugController {
     private final UserRepository userRepository;
     private final InstructorRepository instructorRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IdentityCache identityCache;
+    private final MessageOutboxService messageOutboxService;
+    private final WebSocketTrafficStats webSocketTrafficStats;
+    private final MeetingProvisioningService meetingProvisioningService;
+    private final SessionReminderService sessionReminderService;
+    private final StressSeriesCache stressSeriesCache;
+    private final ProgressDataCache progressDataCache;
+    private final CorrelationService correlationService;
+    private final DirectorySearchService directorySearchService;
 
     public DebugController(UserRepository userRepository,
                           InstructorRepository instructorRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder,
+                          IdentityCache identityCache,
+                          MessageOutboxService messageOutboxService,
+                          WebSocketTrafficStats webSocketTrafficStats,
+                          MeetingProvisioningService meetingProvisioningService,
+                          SessionReminderService sessionReminderService,
+                          StressSeriesCache stressSeriesCache,
+                          ProgressDataCache progressDataCache,
+                          CorrelationService correlationService,
+                          DirectorySearchService directorySearchService) {
         this.userRepository = userRepository;
         this.instructorRepository = instructorRepository;
         this.passwordEncoder = passwordEncoder;
+        this.identityCache = identityCache;
+        this.messageOutboxService = messageOutboxService;
+        this.webSocketTrafficStats = webSocketTrafficStats;
+        this.meetingProvisioningService = meetingProvisioningService;
+        this.sessionReminderService = sessionReminderService;
+        this.stressSeriesCache = stressSeriesCache;
+        this.progressDataCache = progressDataCache;
+        this.correlationService = correlationService;
+        this.directorySearchService = directorySearchService;
     }
 
     @GetMapping("/test-password")
@@ -82,7 +118,72 @@ public class DebugController {
     public Map<String, String> clearAll() {
         userRepository.deleteAll();
         instructorRepository.deleteAll();
+        identityCache.clear();
+        directorySearchService.clear();
         return Map.of("message", "All users and instructors deleted");
     }
-}
 
+    /**
+     * Hit/miss/eviction counters for the id -> name cache
+     */
+    @GetMapping("/identity-cache")
+    public Map<String, Object> identityCacheStats() {
+        return identityCache.getStats();
+    }
+
+    /**
+     * Rows still waiting for delivery, and rows that gave up after max attempts
+     */
+    @GetMapping("/message-outbox")
+    public Map<String, Object> messageOutboxStats() {
+        return messageOutboxService.getStats();
+    }
+
+    /**
+     * Outbound STOMP queue depth, dropped frames, evicted slow sessions
+     */
+    @GetMapping("/websocket")
+    public Map<String, Object> webSocketStats() {
+        return webSocketTrafficStats.getStats();
+    }
+
+    /**
+     * Sessions still waiting for a Zoom meeting, failed ones, and the Zoom circuit state
+     */
+    @GetMapping("/meeting-provisioning")
+    public Map<String, Object> meetingProvisioningStats() {
+        return meetingProvisioningService.getStats();
+    }
+
+    /**
+     * Reminders waiting in the timing wheel and how far ahead sessions are loaded
+     */
+    @GetMapping("/session-reminders")
+    public Map<String, Object> sessionReminderStats() {
+        return sessionReminderService.getStats();
+    }
+
+    /**
+     * Users whose stress series are cached, their total size, hits and appends
+     */
+    @GetMapping("/stress-series")
+    public Map<String, Object> stressSeriesStats() {
+        return stressSeriesCache.getStats();
+    }
+
+    /**
+     * Cached progress results, hits and misses
+     */
+    @GetMapping("/progress-cache")
+    public Map<String, Object> progressCacheStats() {
+        return progressDataCache.getStats();
+    }
+
+    /**
+     * Cached correlation results, hits and misses
+     */
+    @GetMapping("/correlations")
+    public Map<String, Object> correlationCacheStats() {
+        return correlationService.getStats();
+    }
+}
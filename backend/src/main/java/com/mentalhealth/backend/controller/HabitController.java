@@ -189,6 +189,60 @@ public class HabitController {
         }
     }
 
+    /**
+     * Undo a habit completion
+     * DELETE /api/habits/{habitId}/completions/{date}
+     */
+    @DeleteMapping("/{habitId}/completions/{date}")
+    public ResponseEntity<?> removeCompletion(@PathVariable Long habitId, @PathVariable String date) {
+        try {
+            habitService.removeCompletion(habitId, LocalDate.parse(date));
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to remove completion: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get streaks and 7/30/90-day completion rates for a habit
+     * GET /api/habits/{habitId}/insights
+     */
+    @GetMapping("/{habitId}/insights")
+    public ResponseEntity<?> getHabitInsights(@PathVariable Long habitId) {
+        try {
+            return ResponseEntity.ok(habitService.getHabitInsights(habitId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to fetch habit insights: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get calendar heatmap data for a habit
+     * GET /api/habits/{habitId}/heatmap?days=365
+     */
+    @GetMapping("/{habitId}/heatmap")
+    public ResponseEntity<?> getHabitHeatmap(
+            @PathVariable Long habitId,
+            @RequestParam(defaultValue = "365") int days) {
+        try {
+            return ResponseEntity.ok(habitService.getHabitHeatmap(habitId, days));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to fetch habit heatmap: " + e.getMessage()));
+        }
+    }
+
     /**
      * Check if habit is completed today
      * GET /api/habits/{habitId}/completed-today
@@ -1,6 +1,8 @@
 package com.mentalhealth.backend.controller;
 
+import com.mentalhealth.backend.dto.ClientOverviewDTO;
 import com.mentalhealth.backend.model.Instructor;
+import com.mentalhealth.backend.service.CohortService;
 import com.mentalhealth.backend.service.InstructorService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +27,9 @@ public class InstructorController {
     @Autowired
     private InstructorService instructorService;
 
+    @Autowired
+    private CohortService cohortService;
+
     /**
      * Get all instructors (for session request dropdown)
      */
@@ -46,21 +51,52 @@ public class InstructorController {
 
     /**
      * Get all clients for instructor with their mental health overview
+     * Optional paging: ?page=0&size=25&sort=name|sessions|lastSession|mood|stress&direction=asc|desc
+     * When paged, the total number of clients is returned in the X-Total-Count header
      */
     @GetMapping("/{instructorId}/clients")
-    public ResponseEntity<List<Map<String, Object>>> getAllClients(@PathVariable Long instructorId) {
-        List<Map<String, Object>> clients = instructorService.getAllClients(instructorId);
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<ClientOverviewDTO>> getAllClients(
+            @PathVariable Long instructorId,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false, defaultValue = "25") Integer size,
+            @RequestParam(required = false, defaultValue = "name") String sort,
+            @RequestParam(required = false, defaultValue = "asc") String direction) {
+        boolean ascending = !"desc".equalsIgnoreCase(direction);
+
+        if (page == null) {
+            List<ClientOverviewDTO> clients = instructorService.getClients(instructorId, sort, ascending, -1, 0);
+            return ResponseEntity.ok(clients);
+        }
+
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<ClientOverviewDTO> clients = instructorService.getClients(instructorId, sort, ascending, size, page * size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(instructorService.countClients()))
+                .body(clients);
     }
 
     /**
      * Search clients by name
+     * Optional paging: ?page=0&size=25 (all matches when page is omitted)
      */
     @GetMapping("/{instructorId}/clients/search")
-    public ResponseEntity<List<Map<String, Object>>> searchClients(
+    public ResponseEntity<List<ClientOverviewDTO>> searchClients(
             @PathVariable Long instructorId,
-            @RequestParam String q) {
-        List<Map<String, Object>> clients = instructorService.searchClients(instructorId, q);
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false, defaultValue = "25") Integer size) {
+        if (page == null) {
+            return ResponseEntity.ok(instructorService.searchClients(instructorId, q, -1, 0));
+        }
+
+        if (page < 0 || size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<ClientOverviewDTO> clients = instructorService.searchClients(instructorId, q, size, page * size);
         return ResponseEntity.ok(clients);
     }
 
@@ -76,6 +112,21 @@ public class InstructorController {
         return ResponseEntity.ok(analytics);
     }
 
+    /**
+     * Mood, stress, sleep and habit distributions across the instructor's clients
+     */
+    @GetMapping("/{instructorId}/cohort")
+    public ResponseEntity<Map<String, Object>> getCohortSummary(
+            @PathVariable Long instructorId,
+            @RequestParam(defaultValue = "30") int days) {
+        try {
+            return ResponseEntity.ok(cohortService.getCohortSummary(instructorId, days));
+        } catch (Exception e) {
+            System.err.println("❌ Cohort summary failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get list of clients with whom instructor has message conversations
      */
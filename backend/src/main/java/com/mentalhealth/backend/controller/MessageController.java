@@ -19,6 +19,9 @@ import java.util.Map;
 // CORS handled globally in WebConfig.java
 public class MessageController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private MessageService messageService;
 
@@ -39,11 +42,22 @@ public class MessageController {
     /**
      * Get available users for messaging (for current user)
      * Returns all users except the current user
+     * Optional: ?q=name filter, ?page=0&size=25 paging
      */
     @GetMapping("/available-users/{userId}")
-    public ResponseEntity<List<Map<String, Object>>> getAvailableUsers(@PathVariable Long userId) {
+    public ResponseEntity<List<Map<String, Object>>> getAvailableUsers(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false, defaultValue = "25") Integer size) {
         try {
-            List<Map<String, Object>> users = messageService.getAvailableUsers(userId);
+            if (page != null && (page < 0 || size <= 0)) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            List<Map<String, Object>> users = page != null
+                    ? messageService.getAvailableUsers(userId, q, size, page * size)
+                    : messageService.getAvailableUsers(userId, q, -1, 0);
             return ResponseEntity.ok(users);
         } catch (Exception e) {
             System.err.println("❌ ERROR getting available users: " + e.getMessage());
@@ -52,13 +66,45 @@ public class MessageController {
         }
     }
 
+    /**
+     * Get conversation history (oldest first).
+     * Without before/after/limit the full history is returned, as before.
+     * With any of them a single page is returned and X-Has-More tells the
+     * client whether another page exists in that direction.
+     */
     @GetMapping("/conversation/{userId1}/{userId2}")
     public ResponseEntity<List<Message>> getConversation(
             @PathVariable Long userId1,
-            @PathVariable Long userId2) {
+            @PathVariable Long userId2,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
         try {
-            List<Message> messages = messageService.getConversation(userId1, userId2);
-            return ResponseEntity.ok(messages);
+            if (before == null && after == null && limit == null) {
+                List<Message> messages = messageService.getConversation(userId1, userId2);
+                return ResponseEntity.ok(messages);
+            }
+
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            // Fetch one extra row to know whether another page exists
+            List<Message> messages = messageService.getConversationPage(userId1, userId2, before, after, pageSize + 1);
+            boolean hasMore = messages.size() > pageSize;
+            if (hasMore) {
+                // Drop the extra row on the far side of the page from the cursor
+                messages = after != null
+                        ? messages.subList(0, pageSize)
+                        : messages.subList(1, messages.size());
+            }
+
+            return ResponseEntity.ok()
+                    .header("X-Has-More", String.valueOf(hasMore))
+                    .body(messages);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/mood")
@@ -61,4 +62,13 @@ public class MoodLogController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @GetMapping("/user/{userId}/stats")
+    public ResponseEntity<Map<String, Object>> getMoodStats(@PathVariable Long userId) {
+        try {
+            return new ResponseEntity<>(moodLogService.getMoodSummary(userId), HttpStatus.OK);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
\ No newline at end of file
@@ -90,11 +90,12 @@ public class NotificationController {
      * PUT /api/notifications/user/{userId}/read-all
      */
     @PutMapping("/user/{userId}/read-all")
-    public ResponseEntity<Map<String, String>> markAllAsRead(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Object>> markAllAsRead(@PathVariable Long userId) {
         try {
-            notificationService.markAllAsRead(userId);
-            Map<String, String> response = new HashMap<>();
+            int markedCount = notificationService.markAllAsRead(userId);
+            Map<String, Object> response = new HashMap<>();
             response.put("message", "All notifications marked as read");
+            response.put("markedCount", markedCount);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -203,5 +204,58 @@ public class NotificationController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
 
+    /**
+     * Send an announcement to every client
+     * POST /api/notifications/broadcast/clients
+     * Body: { "title": "...", "message": "...", "type": "ANNOUNCEMENT" (optional) }
+     */
+    @PostMapping("/broadcast/clients")
+    public ResponseEntity<Map<String, Object>> broadcastToAllClients(@RequestBody Map<String, String> body) {
+        try {
+            if (body.get("title") == null || body.get("message") == null) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            int sent = notificationService.broadcastToAllClients(
+                    body.getOrDefault("type", "ANNOUNCEMENT"), body.get("title"), body.get("message"));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("recipients", sent);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            System.err.println("❌ ERROR broadcasting to clients: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Send an announcement to every client of an instructor
+     * POST /api/notifications/broadcast/instructor/{instructorId}
+     * Body: { "title": "...", "message": "...", "type": "ANNOUNCEMENT" (optional) }
+     */
+    @PostMapping("/broadcast/instructor/{instructorId}")
+    public ResponseEntity<Map<String, Object>> broadcastToCaseload(
+            @PathVariable Long instructorId,
+            @RequestBody Map<String, String> body) {
+        try {
+            if (body.get("title") == null || body.get("message") == null) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            int sent = notificationService.broadcastToCaseload(
+                    instructorId, body.getOrDefault("type", "ANNOUNCEMENT"), body.get("title"), body.get("message"));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("recipients", sent);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            System.err.println("❌ ERROR broadcasting to caseload: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mentalhealth.backend.controller;
 
 import com.mentalhealth.backend.dto.ProgressData;
+import com.mentalhealth.backend.service.CorrelationService;
 import com.mentalhealth.backend.service.ProgressService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,6 +10,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/progress")
@@ -18,6 +20,9 @@ public class ProgressController {
     @Autowired
     private ProgressService progressService;
 
+    @Autowired
+    private CorrelationService correlationService;
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<ProgressData> getProgressData(
             @PathVariable Long userId,
@@ -30,4 +35,18 @@ public class ProgressController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Sleep / mood / stress / habit correlations over the last days days
+     */
+    @GetMapping("/user/{userId}/correlations")
+    public ResponseEntity<Map<String, Object>> getCorrelations(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "90") int days) {
+        try {
+            return ResponseEntity.ok(correlationService.getCorrelationReport(userId, days));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -142,6 +142,22 @@ public class SleepController {
         }
     }
 
+    /**
+     * Get per-week sleep averages
+     * GET /api/sleep/user/{userId}/weekly-summary?weeks=12
+     */
+    @GetMapping("/user/{userId}/weekly-summary")
+    public ResponseEntity<?> getWeeklySummary(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "12") int weeks) {
+        try {
+            return ResponseEntity.ok(sleepService.getWeeklySummary(userId, weeks));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Failed to fetch weekly sleep summary: " + e.getMessage()));
+        }
+    }
+
     /**
      * Helper method to create error response
      */
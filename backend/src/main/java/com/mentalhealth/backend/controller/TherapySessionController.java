@@ -114,6 +114,26 @@ public class TherapySessionController {
         }
     }
 
+    /**
+     * Set the Zoom link manually, e.g. when automatic creation failed
+     * Body: {"zoomLink": "https://..."}
+     */
+    @PutMapping("/{sessionId}/zoom-link")
+    public ResponseEntity<TherapySession> setZoomLink(
+            @PathVariable Long sessionId,
+            @RequestBody Map<String, String> body) {
+        String zoomLink = body.get("zoomLink");
+        if (zoomLink == null || zoomLink.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            TherapySession updated = therapySessionService.setManualZoomLink(sessionId, zoomLink);
+            return ResponseEntity.ok(updated);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
     @PutMapping("/{sessionId}/rate")
     public ResponseEntity<TherapySession> rateSession(
             @PathVariable Long sessionId,
@@ -0,0 +1,89 @@
+package com.mentalhealth.backend.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Zoom OAuth and meetings API, so session acceptance
+ * can be exercised and load-tested offline.
+ * Only active with the "zoom-stub" profile (see application-zoom-stub.properties).
+ */
+@RestController
+@RequestMapping("/zoom-stub")
+@Profile("zoom-stub")
+public class ZoomStubController {
+
+    @Value("${zoom.stub.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${zoom.stub.token-ttl-seconds:3600}")
+    private long tokenTtlSeconds;
+
+    private final AtomicLong meetingIds = new AtomicLong(90000000000L);
+    private final AtomicLong tokensIssued = new AtomicLong();
+    private final AtomicLong meetingsCreated = new AtomicLong();
+
+    @PostMapping("/oauth/token")
+    public Map<String, Object> token() {
+        simulateLatency();
+        tokensIssued.incrementAndGet();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("access_token", "stub-" + UUID.randomUUID());
+        response.put("token_type", "bearer");
+        response.put("expires_in", tokenTtlSeconds);
+        return response;
+    }
+
+    @PostMapping("/v2/users/me/meetings")
+    public ResponseEntity<Map<String, Object>> createMeeting(@RequestBody Map<String, Object> request) {
+        simulateLatency();
+        meetingsCreated.incrementAndGet();
+
+        long id = meetingIds.incrementAndGet();
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", id);
+        response.put("topic", request.get("topic"));
+        response.put("start_time", request.get("start_time"));
+        response.put("duration", request.get("duration"));
+        response.put("join_url", "https://zoom.example/j/" + id);
+        response.put("start_url", "https://zoom.example/s/" + id);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/v2/meetings/{meetingId}")
+    public ResponseEntity<Void> deleteMeeting(@PathVariable String meetingId) {
+        simulateLatency();
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * How many tokens and meetings the stub has handed out (token reuse check)
+     */
+    @GetMapping("/stats")
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new HashMap<>();
+        stats.put("tokensIssued", tokensIssued.get());
+        stats.put("meetingsCreated", meetingsCreated.get());
+        return stats;
+    }
+
+    private void simulateLatency() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -28,4 +29,7 @@ public class ProgressData {
     private List<String> achievedMilestones;
 
     private String sleepMoodCorrelation;
+
+    // One entry per tracker pair, see CorrelationEngine
+    private List<Map<String, Object>> correlations;
 }
\ No newline at end of file
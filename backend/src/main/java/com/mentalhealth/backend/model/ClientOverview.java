@@ -0,0 +1,47 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized per-client read model for the instructor dashboard.
+ * Maintained on every tracker write (see ClientOverviewService) so that
+ * dashboard reads are a single primary key lookup instead of aggregating
+ * mood_logs, stress_assessments, sleep_entries and habit_completions.
+ */
+@Entity
+@Table(name = "client_overview")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientOverview {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "average_mood_30d")
+    private Double averageMood30d;
+
+    @Column(name = "current_stress_level")
+    private String currentStressLevel;
+
+    @Column(name = "habit_completion_rate")
+    private Double habitCompletionRate;
+
+    @Column(name = "average_sleep_hours")
+    private Double averageSleepHours;
+
+    @Column(name = "total_sessions")
+    private Integer totalSessions;
+
+    @Column(name = "last_session_date")
+    private LocalDateTime lastSessionDate;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
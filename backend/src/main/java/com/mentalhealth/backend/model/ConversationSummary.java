@@ -0,0 +1,66 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per pair of users who have exchanged messages.
+ * The pair is stored ordered (participantLow < participantHigh) so both
+ * directions of a conversation map to the same row. Kept up to date by
+ * ConversationSummaryService whenever a message is sent or read, so inbox
+ * reads never touch the messages table.
+ */
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_participants",
+                columnNames = {"participant_low", "participant_high"}),
+        indexes = @Index(name = "idx_conversation_participant_high", columnList = "participant_high"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "participant_low", nullable = false)
+    private Long participantLow;
+
+    @Column(name = "participant_high", nullable = false)
+    private Long participantHigh;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = 255)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_time")
+    private LocalDateTime lastMessageTime;
+
+    @Column(name = "unread_for_low", nullable = false)
+    private Integer unreadForLow = 0;
+
+    @Column(name = "unread_for_high", nullable = false)
+    private Integer unreadForHigh = 0;
+
+    /**
+     * The other participant, seen from userId's side
+     */
+    public Long getPartnerId(Long userId) {
+        return participantLow.equals(userId) ? participantHigh : participantLow;
+    }
+
+    /**
+     * Messages addressed to userId that are still unread
+     */
+    public int getUnreadFor(Long userId) {
+        Integer unread = participantLow.equals(userId) ? unreadForLow : unreadForHigh;
+        return unread != null ? unread : 0;
+    }
+}
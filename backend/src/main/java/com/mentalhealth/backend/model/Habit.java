@@ -1,11 +1,13 @@
 package com.mentalhealth.backend.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -49,6 +51,16 @@ public class Habit {
     @Column(name = "last_completed_at")
     private LocalDateTime lastCompletedAt;
 
+    // One bit per completed day, newest at bit 0 (see HabitBitmap)
+    @JsonIgnore
+    @Column(name = "completion_bitmap")
+    private byte[] completionBitmap;
+
+    // The day bit 0 of completion_bitmap stands for
+    @JsonIgnore
+    @Column(name = "bitmap_anchor_date")
+    private LocalDate bitmapAnchorDate;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,49 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Per-instructor, per-day session counters for the analytics panel.
+ * One row per (instructor, session day); maintained incrementally by
+ * InstructorStatsService whenever a session is created, changes status
+ * or is rated.
+ */
+@Entity
+@Table(name = "instructor_daily_stats",
+        uniqueConstraints = @UniqueConstraint(name = "uk_instructor_daily_stats",
+                columnNames = {"instructor_id", "stat_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstructorDailyStats {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "instructor_id", nullable = false)
+    private Long instructorId;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "sessions_scheduled", nullable = false)
+    private Integer sessionsScheduled = 0;
+
+    @Column(name = "sessions_completed", nullable = false)
+    private Integer sessionsCompleted = 0;
+
+    @Column(name = "sessions_cancelled", nullable = false)
+    private Integer sessionsCancelled = 0;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount = 0;
+}
@@ -6,7 +6,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_sender_receiver_created_id", columnList = "sender_id, receiver_id, created_at, id")
+})
 public class Message {
 
     @Id
@@ -0,0 +1,54 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Side effects still owed for a sent message (notification row, WebSocket
+ * pushes). Written in the same transaction as the message and drained by
+ * MessageOutboxService; the row is deleted once everything was delivered.
+ */
+@Entity
+@Table(name = "message_outbox", indexes = {
+        @Index(name = "idx_message_outbox_next_attempt", columnList = "next_attempt_at"),
+        @Index(name = "idx_message_outbox_receiver", columnList = "receiver_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    // Set once the notification row exists, so a retry only repeats the pushes
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // A worker owns the row until this time; after that another worker may take it over
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,52 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running mood statistics per user, updated on every mood log
+ * (see MoodStatsService) so that trend, logging streak and averages are
+ * a primary key lookup instead of a scan of the user's mood_logs.
+ */
+@Entity
+@Table(name = "mood_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "log_count", nullable = false)
+    private Long logCount = 0L;
+
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_sum_squares", nullable = false)
+    private Long ratingSumSquares = 0L;
+
+    // Exponentially weighted moving averages of the rating, in log order
+    @Column(name = "ewma_fast")
+    private Double ewmaFast;
+
+    @Column(name = "ewma_slow")
+    private Double ewmaSlow;
+
+    @Column(name = "last_log_date")
+    private LocalDate lastLogDate;
+
+    // Consecutive days with a log, ending at last_log_date
+    @Column(name = "current_streak", nullable = false)
+    private Integer currentStreak = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -8,8 +8,10 @@ import java.time.LocalDateTime;
 @Table(name = "notifications")
 public class Notification {
 
+    // Sequence (not IDENTITY) so Hibernate can batch inserts; ids are handed out 50 at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,46 @@
+package com.mentalhealth.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Per-user, per-day sleep totals. One row per (user, sleep_date);
+ * maintained incrementally by SleepRollupService whenever a sleep entry
+ * is created, updated or deleted, so averages over any date range are a
+ * sum over at most one row per day.
+ */
+@Entity
+@Table(name = "sleep_daily_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sleep_daily_rollups",
+                columnNames = {"user_id", "sleep_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SleepDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "sleep_date", nullable = false)
+    private LocalDate sleepDate;
+
+    @Column(name = "entry_count", nullable = false)
+    private Integer entryCount = 0;
+
+    @Column(name = "total_minutes", nullable = false)
+    private Long totalMinutes = 0L;
+
+    @Column(name = "quality_sum", nullable = false)
+    private Long qualitySum = 0L;
+
+    @Column(name = "quality_count", nullable = false)
+    private Integer qualityCount = 0;
+}
@@ -6,10 +6,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sleep_entries")
+@Table(name = "sleep_entries", indexes = {
+        @Index(name = "idx_sleep_entries_user_sleep_date", columnList = "user_id, sleep_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,14 +40,41 @@ public class SleepEntry {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // Stored so queries can filter and average without computing per row
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
+    // The day the user woke up; the night is counted on this date
+    @Column(name = "sleep_date")
+    private LocalDate sleepDate;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        computeDerivedFields();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        computeDerivedFields();
+    }
+
+    /**
+     * Recalculate duration_minutes and sleep_date from the start and end times
+     */
+    public void computeDerivedFields() {
+        if (sleepStartTime != null && sleepEndTime != null) {
+            durationMinutes = (int) java.time.Duration.between(sleepStartTime, sleepEndTime).toMinutes();
+            sleepDate = sleepEndTime.toLocalDate();
+        }
     }
 
     // Calculated field - not stored in database
     @Transient
     public double getSleepDurationHours() {
+        if (durationMinutes != null) {
+            return durationMinutes / 60.0;
+        }
         if (sleepStartTime != null && sleepEndTime != null) {
             long minutes = java.time.Duration.between(sleepStartTime, sleepEndTime).toMinutes();
             return minutes / 60.0;
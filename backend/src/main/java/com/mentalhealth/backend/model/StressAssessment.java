@@ -70,12 +70,19 @@ public class StressAssessment {
                 moodLevel + physicalSymptomsLevel + concentrationLevel +
                 socialConnectionLevel;
 
+        this.stressLevel = levelFor(stressScore);
+    }
+
+    /**
+     * LOW / MODERATE / HIGH band for a stress score
+     */
+    public static String levelFor(int stressScore) {
         if (stressScore <= 14) {
-            this.stressLevel = "LOW";
+            return "LOW";
         } else if (stressScore <= 24) {
-            this.stressLevel = "MODERATE";
+            return "MODERATE";
         } else {
-            this.stressLevel = "HIGH";
+            return "HIGH";
         }
     }
 }
\ No newline at end of file
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "therapy_sessions")
+@Table(name = "therapy_sessions", indexes = {
+        @Index(name = "idx_therapy_sessions_meeting_due", columnList = "meeting_status, meeting_next_attempt_at"),
+        @Index(name = "idx_therapy_sessions_session_date", columnList = "session_date")
+})
 public class TherapySession {
 
     @Id
@@ -44,10 +47,33 @@ public class TherapySession {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Zoom meeting provisioning (see MeetingProvisioningService); null on older rows = link already set
+    @Column(name = "meeting_status")
+    @Enumerated(EnumType.STRING)
+    private MeetingStatus meetingStatus;
+
+    @Column(name = "meeting_attempts")
+    private Integer meetingAttempts = 0;
+
+    @Column(name = "meeting_next_attempt_at")
+    private LocalDateTime meetingNextAttemptAt;
+
+    // Session request this session was accepted from, if any (its zoom link is kept in sync)
+    @Column(name = "source_request_id")
+    private Long sourceRequestId;
+
+    // Set when the SESSION_REMINDER went out, so a restart never sends it twice
+    @Column(name = "reminder_sent_at")
+    private LocalDateTime reminderSentAt;
+
     public enum SessionStatus {
         SCHEDULED, COMPLETED, CANCELLED, NO_SHOW
     }
 
+    public enum MeetingStatus {
+        PROVISIONING, READY, FAILED
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -106,4 +132,19 @@ public class TherapySession {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
-}
\ No newline at end of file
+
+    public MeetingStatus getMeetingStatus() { return meetingStatus; }
+    public void setMeetingStatus(MeetingStatus meetingStatus) { this.meetingStatus = meetingStatus; }
+
+    public Integer getMeetingAttempts() { return meetingAttempts; }
+    public void setMeetingAttempts(Integer meetingAttempts) { this.meetingAttempts = meetingAttempts; }
+
+    public LocalDateTime getMeetingNextAttemptAt() { return meetingNextAttemptAt; }
+    public void setMeetingNextAttemptAt(LocalDateTime meetingNextAttemptAt) { this.meetingNextAttemptAt = meetingNextAttemptAt; }
+
+    public Long getSourceRequestId() { return sourceRequestId; }
+    public void setSourceRequestId(Long sourceRequestId) { this.sourceRequestId = sourceRequestId; }
+
+    public LocalDateTime getReminderSentAt() { return reminderSentAt; }
+    public void setReminderSentAt(LocalDateTime reminderSentAt) { this.reminderSentAt = reminderSentAt; }
+}
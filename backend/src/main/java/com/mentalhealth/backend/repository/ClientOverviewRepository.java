@@ -0,0 +1,107 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.ClientOverview;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Upserts only touch the columns owned by one tracker, so concurrent writes
+ * from different trackers for the same client never overwrite each other.
+ */
+@Repository
+public interface ClientOverviewRepository extends JpaRepository<ClientOverview, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, average_mood_30d, updated_at) " +
+            "VALUES (:clientId, :averageMood, :now) " +
+            "ON CONFLICT (client_id) DO UPDATE SET average_mood_30d = EXCLUDED.average_mood_30d, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void upsertAverageMood(@Param("clientId") Long clientId,
+                           @Param("averageMood") Double averageMood,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, current_stress_level, updated_at) " +
+            "VALUES (:clientId, :stressLevel, :now) " +
+            "ON CONFLICT (client_id) DO UPDATE SET current_stress_level = EXCLUDED.current_stress_level, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void upsertStressLevel(@Param("clientId") Long clientId,
+                           @Param("stressLevel") String stressLevel,
+                           @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, habit_completion_rate, updated_at) " +
+            "VALUES (:clientId, :completionRate, :now) " +
+            "ON CONFLICT (client_id) DO UPDATE SET habit_completion_rate = EXCLUDED.habit_completion_rate, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void upsertHabitCompletionRate(@Param("clientId") Long clientId,
+                                   @Param("completionRate") Double completionRate,
+                                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, average_sleep_hours, updated_at) " +
+            "VALUES (:clientId, :averageSleep, :now) " +
+            "ON CONFLICT (client_id) DO UPDATE SET average_sleep_hours = EXCLUDED.average_sleep_hours, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void upsertAverageSleep(@Param("clientId") Long clientId,
+                            @Param("averageSleep") Double averageSleep,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Count a newly created session and move the last session date forward if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, total_sessions, last_session_date, updated_at) " +
+            "VALUES (:clientId, 1, :sessionDate, :now) " +
+            "ON CONFLICT (client_id) DO UPDATE SET " +
+            "total_sessions = COALESCE(client_overview.total_sessions, 0) + 1, " +
+            "last_session_date = GREATEST(client_overview.last_session_date, EXCLUDED.last_session_date), " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    void recordSession(@Param("clientId") Long clientId,
+                       @Param("sessionDate") LocalDateTime sessionDate,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Regenerate the whole projection from the source tables in one statement.
+     * habit_completion_rate is reset to NULL; it comes from the habits'
+     * completion bitmaps and is filled in by ClientOverviewService.
+     *
+     * @param since first day of the rolling 30-day window
+     */
+    @Modifying
+    @Query(value = "INSERT INTO client_overview (client_id, average_mood_30d, current_stress_level, " +
+            "habit_completion_rate, average_sleep_hours, total_sessions, last_session_date, updated_at) " +
+            "SELECT u.id, ml.average_mood, sa.stress_level, NULL, " +
+            "       sl.average_sleep, COALESCE(ts.total_sessions, 0), ts.last_session_date, :now " +
+            "FROM users u " +
+            "LEFT JOIN (SELECT user_id, AVG(mood_rating) AS average_mood FROM mood_logs " +
+            "           WHERE log_date >= :since GROUP BY user_id) ml ON ml.user_id = u.id " +
+            "LEFT JOIN (SELECT DISTINCT ON (user_id) user_id, stress_level FROM stress_assessments " +
+            "           ORDER BY user_id, created_at DESC) sa ON sa.user_id = u.id " +
+            "LEFT JOIN (SELECT user_id, SUM(total_minutes) / 60.0 / NULLIF(SUM(entry_count), 0) AS average_sleep " +
+            "           FROM sleep_daily_rollups WHERE sleep_date >= :since GROUP BY user_id) sl ON sl.user_id = u.id " +
+            "LEFT JOIN (SELECT client_id, COUNT(*) AS total_sessions, MAX(session_date) AS last_session_date " +
+            "           FROM therapy_sessions GROUP BY client_id) ts ON ts.client_id = u.id " +
+            "WHERE u.role = 'USER' " +
+            "ON CONFLICT (client_id) DO UPDATE SET " +
+            "average_mood_30d = EXCLUDED.average_mood_30d, " +
+            "current_stress_level = EXCLUDED.current_stress_level, " +
+            "habit_completion_rate = EXCLUDED.habit_completion_rate, " +
+            "average_sleep_hours = EXCLUDED.average_sleep_hours, " +
+            "total_sessions = EXCLUDED.total_sessions, " +
+            "last_session_date = EXCLUDED.last_session_date, " +
+            "updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int rebuildAll(@Param("since") LocalDate since, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,125 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.dto.ClientOverviewDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based client roster for the instructor dashboard.
+ * Session count, last session, average mood and latest stress level come
+ * from the client_overview read model, so the roster costs a single
+ * SQL round-trip regardless of how many clients exist.
+ */
+@Repository
+public class ClientRosterRepository {
+
+    private static final DateTimeFormatter LAST_SESSION_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+    /**
+     * Allowed sort keys mapped to SQL expressions (never interpolate raw request input)
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "LOWER(u.username)",
+            "sessions", "total_sessions",
+            "lastSession", "co.last_session_date",
+            "mood", "co.average_mood_30d",
+            "stress", "CASE co.current_stress_level WHEN 'HIGH' THEN 3 WHEN 'MODERATE' THEN 2 WHEN 'LOW' THEN 1 ELSE 0 END"
+    );
+
+    private static final String ROSTER_SELECT =
+            "SELECT u.id AS client_id, u.username AS client_name, " +
+            "       COALESCE(co.total_sessions, 0) AS total_sessions, " +
+            "       co.last_session_date, ROUND(co.average_mood_30d::numeric, 1) AS average_mood, " +
+            "       co.current_stress_level AS stress_level " +
+            "FROM users u " +
+            "LEFT JOIN client_overview co ON co.client_id = u.id " +
+            "WHERE u.role = 'USER' ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClientRosterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Load one page of the roster
+     *
+     * @param sortKey    one of name, sessions, lastSession, mood, stress (defaults to name)
+     * @param ascending  sort direction
+     * @param limit      page size, or a negative value for all rows
+     * @param offset     rows to skip
+     */
+    public List<ClientOverviewDTO> findClients(String sortKey, boolean ascending, int limit, int offset) {
+        String orderBy = SORT_COLUMNS.getOrDefault(sortKey, SORT_COLUMNS.get("name"));
+        String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder sql = new StringBuilder(ROSTER_SELECT)
+                .append("ORDER BY ").append(orderBy).append(' ').append(direction).append(" NULLS LAST, u.id ASC");
+
+        if (limit >= 0) {
+            sql.append(" LIMIT ? OFFSET ?");
+            return jdbcTemplate.query(sql.toString(), ROW_MAPPER, limit, Math.max(offset, 0));
+        }
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER);
+    }
+
+    /**
+     * Load roster rows for specific clients, in the order the ids are given
+     */
+    public List<ClientOverviewDTO> findClientsByIds(List<Long> clientIds) {
+        if (clientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(clientIds.size(), "?"));
+        List<ClientOverviewDTO> rows = jdbcTemplate.query(
+                ROSTER_SELECT + "AND u.id IN (" + placeholders + ")", ROW_MAPPER, clientIds.toArray());
+
+        Map<Long, ClientOverviewDTO> byId = new HashMap<>();
+        for (ClientOverviewDTO row : rows) {
+            byId.put(row.getClientId(), row);
+        }
+
+        List<ClientOverviewDTO> ordered = new ArrayList<>();
+        for (Long clientId : clientIds) {
+            ClientOverviewDTO row = byId.get(clientId);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Count all clients (role = USER) for paging headers
+     */
+    public long countClients() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE role = 'USER'", Long.class);
+        return count != null ? count : 0L;
+    }
+
+    private static final RowMapper<ClientOverviewDTO> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp lastSession = rs.getTimestamp("last_session_date");
+        Number averageMood = (Number) rs.getObject("average_mood");
+        String stressLevel = rs.getString("stress_level");
+
+        return new ClientOverviewDTO(
+                rs.getLong("client_id"),
+                rs.getString("client_name"),
+                averageMood != null ? averageMood.doubleValue() : null,
+                stressLevel != null ? stressLevel : "N/A",
+                lastSession != null ? lastSession.toLocalDateTime().format(LAST_SESSION_FORMATTER) : null,
+                rs.getInt("total_sessions"),
+                true // No consent needed - removed consent system
+        );
+    };
+}
@@ -0,0 +1,133 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.Habit;
+import com.mentalhealth.backend.service.CohortSeries;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk loads of the tracker tables for an instructor's whole caseload
+ * (every client they have had a session with) at once. Each load is one
+ * query ordered by user_id, streamed straight into primitive arrays
+ * grouped by client (see CohortSeries), so a caseload of thousands of
+ * clients costs a handful of round trips and no entities.
+ */
+@Repository
+public class CohortRepository {
+
+    // The instructor's caseload, as in TherapySessionRepository.findClientIdsByInstructorId
+    private static final String CASELOAD =
+            "SELECT client_id FROM therapy_sessions WHERE instructor_id = ?";
+
+    private static final String MOOD_SELECT =
+            "SELECT user_id, mood_rating FROM mood_logs " +
+            "WHERE log_date >= ? AND user_id IN (" + CASELOAD + ") ORDER BY user_id";
+
+    private static final String STRESS_SELECT =
+            "SELECT user_id, stress_score FROM stress_assessments " +
+            "WHERE assessment_date >= ? AND user_id IN (" + CASELOAD + ") " +
+            "ORDER BY user_id, assessment_date, id";
+
+    private static final String SLEEP_SELECT =
+            "SELECT user_id, duration_minutes FROM sleep_entries " +
+            "WHERE sleep_date >= ? AND duration_minutes IS NOT NULL AND user_id IN (" + CASELOAD + ") " +
+            "ORDER BY user_id";
+
+    private static final String HABITS_SELECT =
+            "SELECT user_id, frequency, target_days, created_at, completion_bitmap, bitmap_anchor_date " +
+            "FROM habits WHERE user_id IN (" + CASELOAD + ") ORDER BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TherapySessionRepository therapySessionRepository;
+
+    public CohortRepository(JdbcTemplate jdbcTemplate, TherapySessionRepository therapySessionRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.therapySessionRepository = therapySessionRepository;
+    }
+
+    /**
+     * Ids of the instructor's clients, ascending
+     */
+    public long[] findClientIds(Long instructorId) {
+        return therapySessionRepository.findClientIdsByInstructorId(instructorId).stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Mood ratings logged since the given date
+     */
+    public CohortSeries loadMoodRatings(Long instructorId, long[] clientIds, LocalDate since) {
+        return load(MOOD_SELECT, instructorId, clientIds, since);
+    }
+
+    /**
+     * Stress scores assessed since the given date, oldest first per client
+     */
+    public CohortSeries loadStressScores(Long instructorId, long[] clientIds, LocalDate since) {
+        return load(STRESS_SELECT, instructorId, clientIds, since);
+    }
+
+    /**
+     * Minutes slept per entry, for nights ending since the given date
+     */
+    public CohortSeries loadSleepMinutes(Long instructorId, long[] clientIds, LocalDate since) {
+        return load(SLEEP_SELECT, instructorId, clientIds, since);
+    }
+
+    /**
+     * Every client's habits, with just the fields HabitBitmap reads.
+     * Indexed like clientIds; clients without habits get an empty array.
+     */
+    public Habit[][] loadHabits(Long instructorId, long[] clientIds) {
+        List<List<Habit>> grouped = new ArrayList<>(clientIds.length);
+        for (int c = 0; c < clientIds.length; c++) {
+            grouped.add(null);
+        }
+
+        jdbcTemplate.query(HABITS_SELECT, (RowCallbackHandler) rs -> {
+            int client = Arrays.binarySearch(clientIds, rs.getLong(1));
+            if (client < 0) {
+                return;
+            }
+            Habit habit = new Habit();
+            habit.setUserId(rs.getLong(1));
+            habit.setFrequency(rs.getString(2));
+            habit.setTargetDays(rs.getString(3));
+            Timestamp createdAt = rs.getTimestamp(4);
+            habit.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+            habit.setCompletionBitmap(rs.getBytes(5));
+            Date anchor = rs.getDate(6);
+            habit.setBitmapAnchorDate(anchor != null ? anchor.toLocalDate() : null);
+
+            if (grouped.get(client) == null) {
+                grouped.set(client, new ArrayList<>(4));
+            }
+            grouped.get(client).add(habit);
+        }, instructorId);
+
+        Habit[] none = new Habit[0];
+        Habit[][] habits = new Habit[clientIds.length][];
+        for (int c = 0; c < clientIds.length; c++) {
+            List<Habit> clientHabits = grouped.get(c);
+            habits[c] = clientHabits != null ? clientHabits.toArray(none) : none;
+        }
+        return habits;
+    }
+
+    private CohortSeries load(String sql, Long instructorId, long[] clientIds, LocalDate since) {
+        CohortSeries.Builder builder = new CohortSeries.Builder(clientIds);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> builder.add(rs.getLong(1), rs.getInt(2)),
+                Date.valueOf(since), instructorId);
+        return builder.build();
+    }
+}
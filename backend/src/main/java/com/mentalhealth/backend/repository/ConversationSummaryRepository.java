@@ -0,0 +1,79 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    @Query("SELECT c FROM ConversationSummary c WHERE c.participantLow = :userId OR c.participantHigh = :userId " +
+            "ORDER BY c.lastMessageTime DESC")
+    List<ConversationSummary> findByParticipant(@Param("userId") Long userId);
+
+    /**
+     * Record a new message: move the preview forward and bump the receiver's unread count.
+     * The row lock taken by ON CONFLICT serializes concurrent senders on the same pair.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries (participant_low, participant_high, last_message_id, " +
+            "last_message_preview, last_message_time, unread_for_low, unread_for_high) " +
+            "VALUES (:low, :high, :messageId, LEFT(:messageText, 255), :sentAt, :unreadLow, :unreadHigh) " +
+            "ON CONFLICT (participant_low, participant_high) DO UPDATE SET " +
+            "last_message_id = CASE WHEN EXCLUDED.last_message_id > COALESCE(conversation_summaries.last_message_id, 0) " +
+            "    THEN EXCLUDED.last_message_id ELSE conversation_summaries.last_message_id END, " +
+            "last_message_preview = CASE WHEN EXCLUDED.last_message_id > COALESCE(conversation_summaries.last_message_id, 0) " +
+            "    THEN EXCLUDED.last_message_preview ELSE conversation_summaries.last_message_preview END, " +
+            "last_message_time = CASE WHEN EXCLUDED.last_message_id > COALESCE(conversation_summaries.last_message_id, 0) " +
+            "    THEN EXCLUDED.last_message_time ELSE conversation_summaries.last_message_time END, " +
+            "unread_for_low = conversation_summaries.unread_for_low + EXCLUDED.unread_for_low, " +
+            "unread_for_high = conversation_summaries.unread_for_high + EXCLUDED.unread_for_high",
+            nativeQuery = true)
+    void recordMessage(@Param("low") Long low,
+                       @Param("high") Long high,
+                       @Param("messageId") Long messageId,
+                       @Param("messageText") String messageText,
+                       @Param("sentAt") LocalDateTime sentAt,
+                       @Param("unreadLow") int unreadLow,
+                       @Param("unreadHigh") int unreadHigh);
+
+    /**
+     * Reset one side's unread counter from the messages that are actually still unread,
+     * so a message that arrived while the reader was marking is not lost
+     */
+    @Modifying
+    @Query(value = "UPDATE conversation_summaries SET " +
+            "unread_for_low = CASE WHEN participant_low = :readerId THEN " +
+            "    (SELECT COUNT(*) FROM messages m WHERE m.receiver_id = :readerId AND m.sender_id = :partnerId AND m.read_at IS NULL) " +
+            "    ELSE unread_for_low END, " +
+            "unread_for_high = CASE WHEN participant_high = :readerId THEN " +
+            "    (SELECT COUNT(*) FROM messages m WHERE m.receiver_id = :readerId AND m.sender_id = :partnerId AND m.read_at IS NULL) " +
+            "    ELSE unread_for_high END " +
+            "WHERE participant_low = LEAST(:readerId, :partnerId) AND participant_high = GREATEST(:readerId, :partnerId)",
+            nativeQuery = true)
+    int refreshUnread(@Param("readerId") Long readerId, @Param("partnerId") Long partnerId);
+
+    /**
+     * Build every summary from the messages table in one pass (used once, when the table is empty)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries (participant_low, participant_high, last_message_id, " +
+            "last_message_preview, last_message_time, unread_for_low, unread_for_high) " +
+            "SELECT LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id), " +
+            "       (ARRAY_AGG(id ORDER BY id DESC))[1], " +
+            "       LEFT((ARRAY_AGG(message_text ORDER BY id DESC))[1], 255), " +
+            "       (ARRAY_AGG(COALESCE(sent_at, created_at) ORDER BY id DESC))[1], " +
+            "       COUNT(*) FILTER (WHERE receiver_id = LEAST(sender_id, receiver_id) AND read_at IS NULL), " +
+            "       COUNT(*) FILTER (WHERE receiver_id = GREATEST(sender_id, receiver_id) AND read_at IS NULL) " +
+            "FROM messages " +
+            "GROUP BY LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id) " +
+            "ON CONFLICT (participant_low, participant_high) DO NOTHING",
+            nativeQuery = true)
+    int rebuildAll();
+}
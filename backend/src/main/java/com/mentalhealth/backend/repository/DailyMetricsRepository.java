@@ -0,0 +1,57 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.service.CorrelationEngine;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Streams one value per (day, tracker) for a user, in day order, into a
+ * CorrelationEngine. Each tracker is aggregated per day in the database
+ * and the day-sorted streams are merged by the ORDER BY, so at most five
+ * rows per day cross the wire and no rows are kept once read.
+ */
+@Repository
+public class DailyMetricsRepository {
+
+    private static final String DAILY_METRICS_SELECT =
+            "SELECT day, metric, value FROM (" +
+            "  SELECT log_date AS day, " + CorrelationEngine.MOOD + " AS metric, AVG(mood_rating)::float8 AS value " +
+            "  FROM mood_logs WHERE user_id = ? AND log_date BETWEEN ? AND ? GROUP BY log_date " +
+            "  UNION ALL " +
+            "  SELECT sleep_date, " + CorrelationEngine.SLEEP_HOURS + ", (total_minutes / 60.0 / entry_count)::float8 " +
+            "  FROM sleep_daily_rollups WHERE user_id = ? AND sleep_date BETWEEN ? AND ? AND entry_count > 0 " +
+            "  UNION ALL " +
+            "  SELECT sleep_date, " + CorrelationEngine.SLEEP_QUALITY + ", quality_sum::float8 / quality_count " +
+            "  FROM sleep_daily_rollups WHERE user_id = ? AND sleep_date BETWEEN ? AND ? AND quality_count > 0 " +
+            "  UNION ALL " +
+            "  SELECT assessment_date, " + CorrelationEngine.STRESS + ", AVG(stress_score)::float8 " +
+            "  FROM stress_assessments WHERE user_id = ? AND assessment_date BETWEEN ? AND ? GROUP BY assessment_date " +
+            "  UNION ALL " +
+            "  SELECT completion_date, " + CorrelationEngine.HABITS + ", COUNT(*)::float8 " +
+            "  FROM habit_completions WHERE user_id = ? AND completion_date BETWEEN ? AND ? GROUP BY completion_date " +
+            ") metrics " +
+            "ORDER BY day ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DailyMetricsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void stream(Long userId, LocalDate fromDate, LocalDate toDate, CorrelationEngine engine) {
+        Date from = Date.valueOf(fromDate);
+        Date to = Date.valueOf(toDate);
+
+        jdbcTemplate.query(DAILY_METRICS_SELECT, (RowCallbackHandler) rs ->
+                        engine.accept(rs.getDate(1).toLocalDate(), rs.getInt(2), rs.getDouble(3)),
+                userId, from, to,
+                userId, from, to,
+                userId, from, to,
+                userId, from, to,
+                userId, from, to);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -75,5 +76,9 @@ public interface HabitCompletionRepository extends JpaRepository<HabitCompletion
      * Find completions by habit and after a date
      */
     List<HabitCompletion> findByHabitIdAndCompletionDateAfter(Long habitId, LocalDate completionDate);
-}
 
+    /**
+     * Find completions for several habits after a date (completion bitmap backfill)
+     */
+    List<HabitCompletion> findByHabitIdInAndCompletionDateAfter(Collection<Long> habitIds, LocalDate completionDate);
+}
@@ -3,7 +3,11 @@ package com.mentalhealth.backend.repository;
 
 
 import com.mentalhealth.backend.model.Habit;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -32,8 +36,26 @@ public interface HabitRepository extends JpaRepository<Habit, Long> {
      */
     long countByUserIdAndIsActiveTrue(Long userId);
 
+    /**
+     * Count all habits for a user (active and inactive)
+     */
+    long countByUserId(Long userId);
+
     /**
      * Find habits with active streaks
      */
     List<Habit> findByUserIdAndCurrentStreakGreaterThan(Long userId, Integer streak);
+
+    /**
+     * Load a habit and lock its row, so concurrent completions do not
+     * overwrite each other's completion bitmap
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM Habit h WHERE h.id = :id")
+    Optional<Habit> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Find habits whose completion bitmap has not been built yet
+     */
+    List<Habit> findByCompletionBitmapIsNull();
 }
@@ -0,0 +1,71 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.InstructorDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface InstructorDailyStatsRepository extends JpaRepository<InstructorDailyStats, Long> {
+
+    /**
+     * Add (or subtract) counters on one instructor's day, creating the row if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO instructor_daily_stats (instructor_id, stat_date, sessions_scheduled, " +
+            "sessions_completed, sessions_cancelled, rating_sum, rating_count) " +
+            "VALUES (:instructorId, :statDate, :scheduled, :completed, :cancelled, :ratingSum, :ratingCount) " +
+            "ON CONFLICT (instructor_id, stat_date) DO UPDATE SET " +
+            "sessions_scheduled = instructor_daily_stats.sessions_scheduled + EXCLUDED.sessions_scheduled, " +
+            "sessions_completed = instructor_daily_stats.sessions_completed + EXCLUDED.sessions_completed, " +
+            "sessions_cancelled = instructor_daily_stats.sessions_cancelled + EXCLUDED.sessions_cancelled, " +
+            "rating_sum = instructor_daily_stats.rating_sum + EXCLUDED.rating_sum, " +
+            "rating_count = instructor_daily_stats.rating_count + EXCLUDED.rating_count",
+            nativeQuery = true)
+    void applyDelta(@Param("instructorId") Long instructorId,
+                    @Param("statDate") LocalDate statDate,
+                    @Param("scheduled") int scheduled,
+                    @Param("completed") int completed,
+                    @Param("cancelled") int cancelled,
+                    @Param("ratingSum") long ratingSum,
+                    @Param("ratingCount") int ratingCount);
+
+    /**
+     * Sum an instructor's rollup rows from a given day onwards
+     */
+    @Query(value = "SELECT COALESCE(SUM(sessions_scheduled), 0) AS sessionsScheduled, " +
+            "COALESCE(SUM(sessions_completed), 0) AS sessionsCompleted, " +
+            "COALESCE(SUM(sessions_cancelled), 0) AS sessionsCancelled, " +
+            "COALESCE(SUM(rating_sum), 0) AS ratingSum, " +
+            "COALESCE(SUM(rating_count), 0) AS ratingCount " +
+            "FROM instructor_daily_stats WHERE instructor_id = :instructorId AND stat_date >= :fromDate",
+            nativeQuery = true)
+    StatsTotals sumSince(@Param("instructorId") Long instructorId, @Param("fromDate") LocalDate fromDate);
+
+    /**
+     * Build every rollup row from therapy_sessions (used once, when the table is empty)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO instructor_daily_stats (instructor_id, stat_date, sessions_scheduled, " +
+            "sessions_completed, sessions_cancelled, rating_sum, rating_count) " +
+            "SELECT instructor_id, CAST(session_date AS date), COUNT(*), " +
+            "       COUNT(*) FILTER (WHERE status = 'COMPLETED'), " +
+            "       COUNT(*) FILTER (WHERE status = 'CANCELLED'), " +
+            "       COALESCE(SUM(rating), 0), COUNT(rating) " +
+            "FROM therapy_sessions GROUP BY instructor_id, CAST(session_date AS date) " +
+            "ON CONFLICT (instructor_id, stat_date) DO NOTHING",
+            nativeQuery = true)
+    int rebuildAll();
+
+    interface StatsTotals {
+        long getSessionsScheduled();
+        long getSessionsCompleted();
+        long getSessionsCancelled();
+        long getRatingSum();
+        long getRatingCount();
+    }
+}
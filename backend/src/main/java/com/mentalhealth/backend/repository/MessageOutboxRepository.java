@@ -0,0 +1,56 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.MessageOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MessageOutboxRepository extends JpaRepository<MessageOutbox, Long> {
+
+    /**
+     * Due rows that nobody holds a lease on, oldest first.
+     * A row is held back while an older live row for the same receiver is
+     * backed off or leased, so a receiver's messages are delivered in order.
+     * SKIP LOCKED lets several workers (or instances) claim disjoint batches.
+     * Must run inside a transaction, followed by lease().
+     */
+    @Query(value = "SELECT * FROM message_outbox o " +
+            "WHERE o.next_attempt_at <= :now AND o.attempts < :maxAttempts " +
+            "AND (o.locked_until IS NULL OR o.locked_until < :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM message_outbox older " +
+            "  WHERE older.receiver_id = o.receiver_id AND older.id < o.id AND older.attempts < :maxAttempts " +
+            "  AND (older.next_attempt_at > :now OR older.locked_until >= :now)) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED",
+            nativeQuery = true)
+    List<MessageOutbox> findDueForUpdate(@Param("now") LocalDateTime now,
+                                         @Param("maxAttempts") int maxAttempts,
+                                         @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE MessageOutbox o SET o.lockedUntil = :lockedUntil, o.attempts = o.attempts + 1 WHERE o.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Query("UPDATE MessageOutbox o SET o.notificationId = :notificationId WHERE o.id = :id")
+    int setNotificationId(@Param("id") Long id, @Param("notificationId") Long notificationId);
+
+    /**
+     * Release the lease and schedule the next attempt
+     */
+    @Modifying
+    @Query("UPDATE MessageOutbox o SET o.lockedUntil = NULL, o.nextAttemptAt = :nextAttemptAt, " +
+            "o.lastError = :error WHERE o.id = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Query("SELECT COUNT(o) FROM MessageOutbox o WHERE o.attempts >= :maxAttempts")
+    long countDead(@Param("maxAttempts") int maxAttempts);
+}
@@ -6,8 +6,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,6 +16,62 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     @Query("SELECT m FROM Message m WHERE (m.senderId = :userId1 AND m.receiverId = :userId2) OR (m.senderId = :userId2 AND m.receiverId = :userId1) ORDER BY m.createdAt ASC")
     List<Message> findConversation(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
 
+    /*
+     * Keyset pages over a conversation, ordered by (created_at, id).
+     * Each direction is read separately so both halves are a bounded range
+     * scan on idx_messages_sender_receiver_created_id; the outer query merges
+     * them and trims to the page size.
+     */
+
+    /**
+     * Newest messages in a conversation (newest first)
+     */
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT * FROM messages WHERE sender_id = :userId1 AND receiver_id = :userId2 " +
+            " ORDER BY created_at DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM messages WHERE sender_id = :userId2 AND receiver_id = :userId1 " +
+            " ORDER BY created_at DESC, id DESC LIMIT :limit)" +
+            ") page ORDER BY created_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Message> findLatestInConversation(@Param("userId1") Long userId1,
+                                           @Param("userId2") Long userId2,
+                                           @Param("limit") int limit);
+
+    /**
+     * Messages older than the cursor (newest first)
+     */
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT * FROM messages WHERE sender_id = :userId1 AND receiver_id = :userId2 " +
+            " AND (created_at, id) < (:cursorTime, :cursorId) ORDER BY created_at DESC, id DESC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM messages WHERE sender_id = :userId2 AND receiver_id = :userId1 " +
+            " AND (created_at, id) < (:cursorTime, :cursorId) ORDER BY created_at DESC, id DESC LIMIT :limit)" +
+            ") page ORDER BY created_at DESC, id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<Message> findInConversationBefore(@Param("userId1") Long userId1,
+                                           @Param("userId2") Long userId2,
+                                           @Param("cursorTime") LocalDateTime cursorTime,
+                                           @Param("cursorId") Long cursorId,
+                                           @Param("limit") int limit);
+
+    /**
+     * Messages newer than the cursor (oldest first)
+     */
+    @Query(value = "SELECT * FROM (" +
+            "(SELECT * FROM messages WHERE sender_id = :userId1 AND receiver_id = :userId2 " +
+            " AND (created_at, id) > (:cursorTime, :cursorId) ORDER BY created_at ASC, id ASC LIMIT :limit) " +
+            "UNION ALL " +
+            "(SELECT * FROM messages WHERE sender_id = :userId2 AND receiver_id = :userId1 " +
+            " AND (created_at, id) > (:cursorTime, :cursorId) ORDER BY created_at ASC, id ASC LIMIT :limit)" +
+            ") page ORDER BY created_at ASC, id ASC LIMIT :limit",
+            nativeQuery = true)
+    List<Message> findInConversationAfter(@Param("userId1") Long userId1,
+                                          @Param("userId2") Long userId2,
+                                          @Param("cursorTime") LocalDateTime cursorTime,
+                                          @Param("cursorId") Long cursorId,
+                                          @Param("limit") int limit);
+
     @Query("SELECT DISTINCT CASE WHEN m.senderId = :userId THEN m.receiverId ELSE m.senderId END FROM Message m WHERE m.senderId = :userId OR m.receiverId = :userId")
     List<Long> findConversationPartners(@Param("userId") Long userId);
 
@@ -28,10 +84,22 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     List<Message> findBySenderIdOrReceiverId(Long instructorId, Long instructorId1);
 
+    /**
+     * Mark one message read; returns 0 if it was already read
+     */
+    @Modifying
+    @Query("UPDATE Message m SET m.read = true, m.readAt = :readAt WHERE m.id = :messageId AND m.readAt IS NULL")
+    int markReadIfUnread(@Param("messageId") Long messageId, @Param("readAt") LocalDateTime readAt);
+
+    /**
+     * Mark everything senderId sent to readerId as read in one statement
+     */
     @Modifying
-    @Transactional
-    @Query("UPDATE Message m SET m.read = true WHERE m.id = :messageId")
-    void markAsRead(@Param("messageId") Long messageId);
+    @Query("UPDATE Message m SET m.read = true, m.readAt = :readAt " +
+            "WHERE m.receiverId = :readerId AND m.senderId = :senderId AND m.readAt IS NULL")
+    int markConversationRead(@Param("readerId") Long readerId,
+                             @Param("senderId") Long senderId,
+                             @Param("readAt") LocalDateTime readAt);
 
     /**
      * Find messages between instructor and client, ordered by date
@@ -37,4 +37,10 @@ public interface MoodLogRepository extends JpaRepository<MoodLog, Long> {
 
     // New method for instructor dashboard
     List<MoodLog> findByUserIdAndCreatedAtAfterOrderByCreatedAtDesc(Long userId, LocalDateTime createdAt);
+
+    // Full history in log order (mood_stats rebuild)
+    List<MoodLog> findByUserIdOrderByLogDateAscIdAsc(Long userId);
+
+    @Query("SELECT DISTINCT m.userId FROM MoodLog m")
+    List<Long> findDistinctUserIds();
 }
@@ -0,0 +1,56 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.MoodStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MoodStatsRepository extends JpaRepository<MoodStats, Long> {
+
+    /**
+     * Fold one new mood log into the user's stats in a single statement.
+     * Returns 0 when the log is older than the last one recorded; EWMA and
+     * streak depend on order, so the caller rebuilds the stats instead.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO mood_stats (user_id, log_count, rating_sum, rating_sum_squares, " +
+            "ewma_fast, ewma_slow, last_log_date, current_streak, updated_at) " +
+            "VALUES (:userId, 1, :rating, :ratingSquared, :rating, :rating, :logDate, 1, :now) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "log_count = mood_stats.log_count + 1, " +
+            "rating_sum = mood_stats.rating_sum + EXCLUDED.rating_sum, " +
+            "rating_sum_squares = mood_stats.rating_sum_squares + EXCLUDED.rating_sum_squares, " +
+            "ewma_fast = mood_stats.ewma_fast + :fastAlpha * (EXCLUDED.ewma_fast - mood_stats.ewma_fast), " +
+            "ewma_slow = mood_stats.ewma_slow + :slowAlpha * (EXCLUDED.ewma_slow - mood_stats.ewma_slow), " +
+            "current_streak = CASE " +
+            "  WHEN mood_stats.last_log_date = EXCLUDED.last_log_date THEN mood_stats.current_streak " +
+            "  WHEN mood_stats.last_log_date = EXCLUDED.last_log_date - 1 THEN mood_stats.current_streak + 1 " +
+            "  ELSE 1 END, " +
+            "last_log_date = EXCLUDED.last_log_date, " +
+            "updated_at = EXCLUDED.updated_at " +
+            "WHERE mood_stats.last_log_date <= EXCLUDED.last_log_date",
+            nativeQuery = true)
+    int recordLog(@Param("userId") Long userId,
+                  @Param("rating") int rating,
+                  @Param("ratingSquared") int ratingSquared,
+                  @Param("logDate") LocalDate logDate,
+                  @Param("fastAlpha") double fastAlpha,
+                  @Param("slowAlpha") double slowAlpha,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Load and lock a user's stats for a rebuild; concurrent recordLog calls wait for it
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MoodStats s WHERE s.userId = :userId")
+    Optional<MoodStats> findByIdForUpdate(@Param("userId") Long userId);
+}
@@ -4,8 +4,12 @@ package com.mentalhealth.backend.repository;
 
 import com.mentalhealth.backend.model.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,4 +19,12 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserIdAndIsReadOrderByCreatedAtDesc(Long userId, Boolean isRead);
     long countByUserIdAndIsReadFalse(Long userId);
     void deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.id = :id AND n.isRead = false")
+    int markReadIfUnread(@Param("id") Long id, @Param("readAt") LocalDateTime readAt);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.readAt = :readAt WHERE n.userId = :userId AND n.isRead = false")
+    int markAllRead(@Param("userId") Long userId, @Param("readAt") LocalDateTime readAt);
 }
\ No newline at end of file
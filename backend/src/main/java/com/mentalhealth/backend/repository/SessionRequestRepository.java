@@ -4,6 +4,7 @@ package com.mentalhealth.backend.repository;
 import com.mentalhealth.backend.model.SessionRequest;
 import com.mentalhealth.backend.model.SessionRequest.RequestStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -32,4 +33,8 @@ public interface SessionRequestRepository extends JpaRepository<SessionRequest,
            "AND s.status = 'ACCEPTED' AND s.requestedDate >= :now ORDER BY s.requestedDate ASC")
     List<SessionRequest> findUpcomingSessionsByClientId(@Param("clientId") Long clientId,
                                                          @Param("now") LocalDateTime now);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("UPDATE SessionRequest s SET s.zoomLink = :zoomLink WHERE s.id = :id")
+    int updateZoomLink(@Param("id") Long id, @Param("zoomLink") String zoomLink);
+}
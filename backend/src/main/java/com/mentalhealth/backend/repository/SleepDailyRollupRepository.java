@@ -0,0 +1,83 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.model.SleepDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SleepDailyRollupRepository extends JpaRepository<SleepDailyRollup, Long> {
+
+    /**
+     * Add (or subtract) totals on one user's day, creating the row if needed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sleep_daily_rollups (user_id, sleep_date, entry_count, total_minutes, " +
+            "quality_sum, quality_count) " +
+            "VALUES (:userId, :sleepDate, :entries, :minutes, :qualitySum, :qualityCount) " +
+            "ON CONFLICT (user_id, sleep_date) DO UPDATE SET " +
+            "entry_count = sleep_daily_rollups.entry_count + EXCLUDED.entry_count, " +
+            "total_minutes = sleep_daily_rollups.total_minutes + EXCLUDED.total_minutes, " +
+            "quality_sum = sleep_daily_rollups.quality_sum + EXCLUDED.quality_sum, " +
+            "quality_count = sleep_daily_rollups.quality_count + EXCLUDED.quality_count",
+            nativeQuery = true)
+    void applyDelta(@Param("userId") Long userId,
+                    @Param("sleepDate") LocalDate sleepDate,
+                    @Param("entries") int entries,
+                    @Param("minutes") long minutes,
+                    @Param("qualitySum") long qualitySum,
+                    @Param("qualityCount") int qualityCount);
+
+    /**
+     * Sum a user's rollup rows for nights between two dates (inclusive)
+     */
+    @Query("SELECT COALESCE(SUM(r.entryCount), 0) AS entryCount, " +
+            "COALESCE(SUM(r.totalMinutes), 0) AS totalMinutes, " +
+            "COALESCE(SUM(r.qualitySum), 0) AS qualitySum, " +
+            "COALESCE(SUM(r.qualityCount), 0) AS qualityCount " +
+            "FROM SleepDailyRollup r WHERE r.userId = :userId " +
+            "AND r.sleepDate BETWEEN :fromDate AND :toDate")
+    SleepTotals sumBetween(@Param("userId") Long userId,
+                           @Param("fromDate") LocalDate fromDate,
+                           @Param("toDate") LocalDate toDate);
+
+    /**
+     * Sum all of a user's rollup rows
+     */
+    @Query("SELECT COALESCE(SUM(r.entryCount), 0) AS entryCount, " +
+            "COALESCE(SUM(r.totalMinutes), 0) AS totalMinutes, " +
+            "COALESCE(SUM(r.qualitySum), 0) AS qualitySum, " +
+            "COALESCE(SUM(r.qualityCount), 0) AS qualityCount " +
+            "FROM SleepDailyRollup r WHERE r.userId = :userId")
+    SleepTotals sumAll(@Param("userId") Long userId);
+
+    /**
+     * A user's daily rows between two dates, oldest first
+     */
+    List<SleepDailyRollup> findByUserIdAndSleepDateBetweenOrderBySleepDateAsc(Long userId, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Build every rollup row from sleep_entries (used once, when the table is empty)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sleep_daily_rollups (user_id, sleep_date, entry_count, total_minutes, " +
+            "quality_sum, quality_count) " +
+            "SELECT user_id, sleep_date, COUNT(*), COALESCE(SUM(duration_minutes), 0), " +
+            "       COALESCE(SUM(sleep_quality), 0), COUNT(sleep_quality) " +
+            "FROM sleep_entries WHERE sleep_date IS NOT NULL GROUP BY user_id, sleep_date " +
+            "ON CONFLICT (user_id, sleep_date) DO NOTHING",
+            nativeQuery = true)
+    int rebuildAll();
+
+    interface SleepTotals {
+        long getEntryCount();
+        long getTotalMinutes();
+        long getQualitySum();
+        long getQualityCount();
+    }
+}
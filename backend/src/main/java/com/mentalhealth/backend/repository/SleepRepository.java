@@ -3,7 +3,10 @@ package com.mentalhealth.backend.repository;
 
 
 import com.mentalhealth.backend.model.SleepEntry;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,10 +14,19 @@ import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SleepRepository extends JpaRepository<SleepEntry, Long> {
 
+    /**
+     * Load an entry and lock its row, so concurrent edits or deletes cannot
+     * both subtract the same old values from sleep_daily_rollups
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SleepEntry s WHERE s.id = :id")
+    Optional<SleepEntry> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Find all sleep entries for a specific user, ordered by most recent first
      */
@@ -48,17 +60,20 @@ public interface SleepRepository extends JpaRepository<SleepEntry, Long> {
     long countByUserId(Long userId);
 
     /**
-     * Calculate average sleep hours for a user within a date range
-     * Using native query because HQL doesn't support EXTRACT with duration calculations
+     * Find sleep entries for nights on or after a date (uses the user_id, sleep_date index)
+     */
+    List<SleepEntry> findByUserIdAndSleepDateGreaterThanEqualOrderBySleepStartTimeDesc(Long userId, LocalDate sleepDate);
+
+    /**
+     * Fill duration_minutes and sleep_date for entries saved before those columns existed
      */
-    @Query(value = "SELECT AVG(EXTRACT(EPOCH FROM (sleep_end_time - sleep_start_time))/3600.0) " +
-            "FROM sleep_entries WHERE user_id = :userId " +
-            "AND DATE(sleep_start_time) >= :startDate " +
-            "AND DATE(sleep_end_time) <= :endDate",
+    @Modifying
+    @Query(value = "UPDATE sleep_entries SET " +
+            "duration_minutes = FLOOR(EXTRACT(EPOCH FROM (sleep_end_time - sleep_start_time)) / 60), " +
+            "sleep_date = CAST(sleep_end_time AS date) " +
+            "WHERE duration_minutes IS NULL OR sleep_date IS NULL",
             nativeQuery = true)
-    Double getAverageSleepHours(@Param("userId") Long userId,
-                                @Param("startDate") LocalDate startDate,
-                                @Param("endDate") LocalDate endDate);
+    int fillDerivedColumns();
 
     /**
      * Find sleep entries for instructor dashboard
@@ -0,0 +1,42 @@
+package com.mentalhealth.backend.repository;
+
+import com.mentalhealth.backend.service.StressSeries;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Loads a user's stress assessments straight into a StressSeries.
+ * Only the id, the date and the seven dimension columns are read, and rows are
+ * streamed into primitive arrays without creating an entity per row.
+ */
+@Repository
+public class StressSeriesRepository {
+
+    private static final String SERIES_SELECT =
+            "SELECT id, assessment_date, workload_level, sleep_quality_level, anxiety_level, mood_level, " +
+            "       physical_symptoms_level, concentration_level, social_connection_level " +
+            "FROM stress_assessments " +
+            "WHERE user_id = ? " +
+            "ORDER BY assessment_date ASC, id ASC";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StressSeriesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public StressSeries load(Long userId) {
+        StressSeries.Builder builder = new StressSeries.Builder(64);
+
+        jdbcTemplate.query(SERIES_SELECT, (RowCallbackHandler) rs -> {
+            short[] values = new short[StressSeries.DIMENSIONS.size()];
+            for (int d = 0; d < values.length; d++) {
+                values[d] = rs.getShort(d + 3);
+            }
+            builder.add(rs.getLong(1), rs.getDate(2).toLocalDate(), values);
+        }, userId);
+
+        return builder.build();
+    }
+}
@@ -3,13 +3,18 @@ package com.mentalhealth.backend.repository;
 
 import com.mentalhealth.backend.model.TherapySession;
 import com.mentalhealth.backend.model.TherapySession.SessionStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TherapySessionRepository extends JpaRepository<TherapySession, Long> {
@@ -31,9 +36,32 @@ public interface TherapySessionRepository extends JpaRepository<TherapySession,
 
     long countByInstructorIdAndStatus(Long instructorId, SessionStatus status);
 
+    /**
+     * Dashboard counters for one instructor in a single round-trip
+     */
+    @Query(value = "SELECT " +
+            "(SELECT COUNT(*) FROM session_requests sr WHERE sr.instructor_id = :instructorId AND sr.status = 'PENDING') AS pendingRequests, " +
+            "(SELECT COUNT(*) FROM therapy_sessions ts WHERE ts.instructor_id = :instructorId " +
+            "   AND ts.session_date >= :startOfDay AND ts.session_date < :endOfDay) AS todaySessions, " +
+            "(SELECT COUNT(DISTINCT ts.client_id) FROM therapy_sessions ts WHERE ts.instructor_id = :instructorId) AS totalClients",
+            nativeQuery = true)
+    DashboardCounts getDashboardCounts(@Param("instructorId") Long instructorId,
+                                       @Param("startOfDay") LocalDateTime startOfDay,
+                                       @Param("endOfDay") LocalDateTime endOfDay);
+
+    interface DashboardCounts {
+        long getPendingRequests();
+        long getTodaySessions();
+        long getTotalClients();
+    }
+
     List<TherapySession> findByInstructorIdAndSessionDateBetween(Long instructorId, LocalDateTime startOfDay, LocalDateTime endOfDay);
 
     List<TherapySession> findByInstructorId(Long instructorId);
+
+    // Every client the instructor has had a session with
+    @Query("SELECT DISTINCT t.clientId FROM TherapySession t WHERE t.instructorId = :instructorId")
+    List<Long> findClientIdsByInstructorId(@Param("instructorId") Long instructorId);
     List<TherapySession> findByInstructorIdAndSessionDateAfter(Long instructorId, LocalDateTime startDate);
 
 
@@ -79,4 +107,69 @@ public interface TherapySessionRepository extends JpaRepository<TherapySession,
      * NEW: Find SCHEDULED sessions for instructor (with zoom links)
      */
     List<TherapySession> findByInstructorIdAndStatus(Long instructorId, SessionStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Load a session and lock its row, so a status change or rating is
+     * read, written and counted without racing another update or the
+     * meeting provisioning worker
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TherapySession t WHERE t.id = :id")
+    Optional<TherapySession> findByIdForUpdate(@Param("id") Long id);
+
+    /*
+     * Zoom meeting provisioning queue (meeting_status = 'PROVISIONING').
+     * A claimed row is leased by pushing meeting_next_attempt_at forward, so
+     * a worker that dies simply lets the row become due again.
+     */
+
+    @Query(value = "SELECT * FROM therapy_sessions " +
+            "WHERE meeting_status = 'PROVISIONING' AND status = 'SCHEDULED' AND meeting_next_attempt_at <= :now " +
+            "ORDER BY meeting_next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TherapySession> findMeetingsDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE TherapySession t SET t.meetingNextAttemptAt = :leaseUntil, " +
+            "t.meetingAttempts = COALESCE(t.meetingAttempts, 0) + 1 WHERE t.id IN :ids")
+    int leaseMeetings(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Attach the join URL, unless the session stopped waiting for one meanwhile (manual link, cancelled)
+     */
+    @Modifying
+    @Query("UPDATE TherapySession t SET t.zoomLink = :zoomLink, " +
+            "t.meetingStatus = com.mentalhealth.backend.model.TherapySession.MeetingStatus.READY, " +
+            "t.meetingNextAttemptAt = NULL, t.updatedAt = :now " +
+            "WHERE t.id = :id AND t.meetingStatus = com.mentalhealth.backend.model.TherapySession.MeetingStatus.PROVISIONING")
+    int completeMeeting(@Param("id") Long id, @Param("zoomLink") String zoomLink, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE TherapySession t SET t.meetingNextAttemptAt = :nextAttemptAt " +
+            "WHERE t.id = :id AND t.meetingStatus = com.mentalhealth.backend.model.TherapySession.MeetingStatus.PROVISIONING")
+    int rescheduleMeeting(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("UPDATE TherapySession t SET " +
+            "t.meetingStatus = com.mentalhealth.backend.model.TherapySession.MeetingStatus.FAILED, " +
+            "t.meetingNextAttemptAt = NULL, t.updatedAt = :now " +
+            "WHERE t.id = :id AND t.meetingStatus = com.mentalhealth.backend.model.TherapySession.MeetingStatus.PROVISIONING")
+    int failMeeting(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    long countByMeetingStatus(TherapySession.MeetingStatus meetingStatus);
+
+    /**
+     * Scheduled sessions in (from, to] whose reminder has not gone out yet
+     */
+    @Query("SELECT t FROM TherapySession t WHERE t.status = com.mentalhealth.backend.model.TherapySession.SessionStatus.SCHEDULED " +
+            "AND t.reminderSentAt IS NULL AND t.sessionDate > :from AND t.sessionDate <= :to")
+    List<TherapySession> findReminderCandidates(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Claim a reminder; returns 0 if it was already sent (by another instance) or the session is no longer scheduled
+     */
+    @Modifying
+    @Query("UPDATE TherapySession t SET t.reminderSentAt = :now WHERE t.id = :id AND t.reminderSentAt IS NULL " +
+            "AND t.status = com.mentalhealth.backend.model.TherapySession.SessionStatus.SCHEDULED")
+    int markReminderSent(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
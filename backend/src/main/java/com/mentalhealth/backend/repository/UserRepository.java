@@ -3,6 +3,8 @@ package com.mentalhealth.backend.repository;
 import com.mentalhealth.backend.model.User;
 import com.mentalhealth.backend.model.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,4 +16,8 @@ public interface UserRepository extends JpaRepository<User,Long> {
     // Find all users by role enum
     List<User> findByRole(UserRole role);
 
+    // Ids only, for fan-out without loading whole users
+    @Query("SELECT u.id FROM User u WHERE u.role = :role")
+    List<Long> findIdsByRole(@Param("role") UserRole role);
+
 }
@@ -0,0 +1,118 @@
+package com.mentalhealth.backend.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Least-recently-used map with a size limit and hit/miss/eviction counters,
+ * shared by the in-memory caches.
+ *
+ * Every method holds the cache's monitor. putIf() and locked() run their
+ * callback under it too, so a cache that loads outside the lock can make
+ * "store unless invalidated meanwhile" atomic with its own invalidation.
+ * The limit is read on every insert, so it can come from a @Value field
+ * that is injected after construction.
+ */
+class BoundedCache<K, V> {
+
+    private final IntSupplier maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maxSize.getAsInt()) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    BoundedCache(IntSupplier maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The cached value, or null; counts nothing (callers decide what a hit is)
+     */
+    synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Store the value only if stillValid holds, checked under the lock
+     */
+    synchronized boolean putIf(K key, V value, BooleanSupplier stillValid) {
+        if (!stillValid.getAsBoolean()) {
+            return false;
+        }
+        entries.put(key, value);
+        return true;
+    }
+
+    synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Run an action under the lock, e.g. an invalidation that must not interleave with putIf()
+     */
+    synchronized void locked(Runnable action) {
+        action.run();
+    }
+
+    synchronized void forEachValue(Consumer<V> action) {
+        entries.values().forEach(action);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    void misses(long count) {
+        misses.add(count);
+    }
+
+    /**
+     * size, maxSize, hits, misses, evictions and hitRate (percent)
+     */
+    Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size());
+        stats.put("maxSize", maxSize.getAsInt());
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRate", total > 0 ? Math.round(hitCount * 1000.0 / total) / 10.0 : 0.0);
+        return stats;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mentalhealth.backend.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Minimal circuit breaker for calls to an external API.
+ *
+ * After failureThreshold consecutive failures the circuit opens and calls
+ * fail fast with CircuitOpenException for openMillis. Then a single trial
+ * call is let through (half-open): success closes the circuit, failure
+ * opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String name) {
+            super(name + " circuit is open");
+        }
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAt = 0;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public <T> T call(Supplier<T> action) {
+        boolean trial = false;
+        State state = getState();
+        if (state == State.OPEN) {
+            throw new CircuitOpenException(name);
+        }
+        if (state == State.HALF_OPEN) {
+            if (!trialInFlight.compareAndSet(false, true)) {
+                throw new CircuitOpenException(name);
+            }
+            trial = true;
+        }
+
+        try {
+            T result = action.get();
+            consecutiveFailures.set(0);
+            openedAt = 0;
+            return result;
+        } catch (RuntimeException e) {
+            if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                if (openedAt == 0 || trial) {
+                    System.err.println("⚠️ " + name + " circuit opened: " + e.getMessage());
+                }
+                openedAt = System.currentTimeMillis();
+            }
+            throw e;
+        } finally {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
+    }
+
+    public State getState() {
+        long opened = openedAt;
+        if (opened == 0) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() - opened >= openMillis ? State.HALF_OPEN : State.OPEN;
+    }
+}
@@ -0,0 +1,175 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.ClientOverview;
+import com.mentalhealth.backend.model.Habit;
+import com.mentalhealth.backend.repository.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the client_overview read model.
+ * Each tracker write refreshes only the columns it owns, for that one client,
+ * using the same 30-day windows as ClientProgressService. A nightly rebuild
+ * rolls the windows forward for clients who have not written anything.
+ */
+@Service
+public class ClientOverviewService {
+
+    /**
+     * Rolling window (in days) for mood, habit and sleep averages
+     */
+    public static final int WINDOW_DAYS = 30;
+
+    @Autowired
+    private ClientOverviewRepository clientOverviewRepository;
+
+    @Autowired
+    private MoodLogRepository moodLogRepository;
+
+    @Autowired
+    private HabitRepository habitRepository;
+
+    @Autowired
+    private SleepRollupService sleepRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Read the overview for a client, building it from source tables on first access
+     */
+    @Transactional
+    public ClientOverview getOverview(Long clientId) {
+        Optional<ClientOverview> overview = clientOverviewRepository.findById(clientId);
+        if (overview.isPresent()) {
+            return overview.get();
+        }
+
+        refreshMood(clientId);
+        refreshHabits(clientId);
+        refreshSleep(clientId);
+        return clientOverviewRepository.findById(clientId).orElse(null);
+    }
+
+    /**
+     * Recalculate the rolling 30-day mood average after a mood log is saved
+     */
+    @Transactional
+    public void refreshMood(Long clientId) {
+        LocalDate today = LocalDate.now();
+        Double average = moodLogRepository.getAverageMoodRating(clientId, today.minusDays(WINDOW_DAYS), today);
+        clientOverviewRepository.upsertAverageMood(clientId, average, LocalDateTime.now());
+    }
+
+    /**
+     * Store the level of the assessment that was just saved (it is always the latest)
+     */
+    @Transactional
+    public void updateStressLevel(Long clientId, String stressLevel) {
+        clientOverviewRepository.upsertStressLevel(clientId, stressLevel, LocalDateTime.now());
+    }
+
+    /**
+     * Recalculate habit completion rate (last 30 days) after a habit or completion changes
+     */
+    @Transactional
+    public void refreshHabits(Long clientId) {
+        Double rate = habitCompletionRate(habitRepository.findByUserId(clientId), LocalDate.now());
+        clientOverviewRepository.upsertHabitCompletionRate(clientId, rate, LocalDateTime.now());
+    }
+
+    /**
+     * Recalculate the 30-day average sleep after a sleep entry changes
+     */
+    @Transactional
+    public void refreshSleep(Long clientId) {
+        LocalDate today = LocalDate.now();
+        Double average = sleepRollupService.getAverageSleepHours(clientId, today.minusDays(WINDOW_DAYS), today);
+        clientOverviewRepository.upsertAverageSleep(clientId, average, LocalDateTime.now());
+    }
+
+    /**
+     * Count a newly created therapy session for the client
+     */
+    @Transactional
+    public void recordSession(Long clientId, LocalDateTime sessionDate) {
+        clientOverviewRepository.recordSession(clientId, sessionDate, LocalDateTime.now());
+    }
+
+    /**
+     * Regenerate the projection for every client from the source tables
+     *
+     * @return number of client rows written
+     */
+    public int rebuild() {
+        System.out.println("🔄 Rebuilding client_overview projection...");
+        Integer rows = transactionTemplate.execute(status -> {
+            LocalDate today = LocalDate.now();
+            LocalDateTime now = LocalDateTime.now();
+            int written = clientOverviewRepository.rebuildAll(today.minusDays(WINDOW_DAYS), now);
+
+            // Habit rates are read from the completion bitmaps, which SQL cannot do
+            Map<Long, List<Habit>> habitsByClient = habitRepository.findAll().stream()
+                    .collect(Collectors.groupingBy(Habit::getUserId));
+            habitsByClient.forEach((clientId, habits) -> clientOverviewRepository
+                    .upsertHabitCompletionRate(clientId, habitCompletionRate(habits, today), now));
+            return written;
+        });
+        System.out.println("✅ client_overview rebuilt for " + rows + " clients");
+        return rows != null ? rows : 0;
+    }
+
+    /**
+     * Roll the 30-day windows forward every night
+     */
+    @Scheduled(cron = "${client-overview.rebuild.cron:0 5 0 * * *}")
+    public void nightlyRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            System.err.println("❌ ERROR rebuilding client_overview: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Populate the projection on first start so existing data shows up immediately
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (clientOverviewRepository.count() == 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not initialize client_overview: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Average of the per-habit 30-day rates, each against the days that habit expected
+     */
+    static Double habitCompletionRate(List<Habit> habits, LocalDate today) {
+        double total = 0;
+        int rated = 0;
+        for (Habit habit : habits) {
+            Double habitRate = HabitBitmap.of(habit, today).completionRate(WINDOW_DAYS);
+            if (habitRate != null) {
+                total += habitRate;
+                rated++;
+            }
+        }
+        return rated > 0 ? total / rated : null;
+    }
+}
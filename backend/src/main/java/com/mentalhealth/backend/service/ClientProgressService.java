@@ -26,15 +26,18 @@ public class ClientProgressService {
     @Autowired
     private HabitRepository habitRepository;
 
-    @Autowired
-    private HabitCompletionRepository habitCompletionRepository;
-
     @Autowired
     private SleepRepository sleepRepository;
 
     @Autowired(required = false)
     private UserRepository userRepository;
 
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private StressAssessmentService stressAssessmentService;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
 
@@ -47,20 +50,19 @@ public class ClientProgressService {
         Map<String, Object> summary = new HashMap<>();
 
         try {
-            // Calculate average mood (last 30 days)
-            Double avgMood = calculateAverageMood(clientId, 30);
+            // Pre-aggregated on every tracker write (see ClientOverviewService)
+            ClientOverview overview = clientOverviewService.getOverview(clientId);
+
+            Double avgMood = overview != null ? overview.getAverageMood30d() : null;
             summary.put("averageMood", avgMood != null ? Math.round(avgMood * 10.0) / 10.0 : null);
 
-            // Get current stress level
-            String stressLevel = getCurrentStressLevel(clientId);
-            summary.put("currentStressLevel", stressLevel);
+            String stressLevel = overview != null ? overview.getCurrentStressLevel() : null;
+            summary.put("currentStressLevel", stressLevel != null ? stressLevel : "N/A");
 
-            // Calculate habit completion rate
-            Double habitRate = calculateHabitCompletionRate(clientId);
+            Double habitRate = overview != null ? overview.getHabitCompletionRate() : null;
             summary.put("habitCompletionRate", habitRate != null ? Math.round(habitRate * 10.0) / 10.0 : null);
 
-            // Calculate average sleep hours (last 30 days)
-            Double avgSleep = calculateAverageSleep(clientId, 30);
+            Double avgSleep = overview != null ? overview.getAverageSleepHours() : null;
             summary.put("averageSleepHours", avgSleep != null ? Math.round(avgSleep * 10.0) / 10.0 : null);
 
         } catch (Exception e) {
@@ -130,6 +132,21 @@ public class ClientProgressService {
         return assessments;
     }
 
+    /**
+     * Get which stress dimensions drive the client's stress score
+     * NO CONSENT CHECKING - Instructors can access all client data
+     */
+    public Map<String, Object> getStressDrivers(Long clientId, Long instructorId, Integer days) {
+        try {
+            Map<String, Object> drivers = stressAssessmentService.analyzeStressDimensions(clientId, days != null ? days : 90);
+            drivers.put("trend", stressAssessmentService.determineStressTrend(clientId));
+            return drivers;
+        } catch (Exception e) {
+            System.err.println("❌ ERROR analyzing stress dimensions for client " + clientId + ": " + e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
     /**
      * Get habits tracking data
      * NO CONSENT CHECKING - Instructors can access all client data
@@ -139,14 +156,18 @@ public class ClientProgressService {
 
         try {
             List<Habit> habits = habitRepository.findByUserId(clientId);
+            LocalDate today = LocalDate.now();
 
             for (Habit habit : habits) {
+                // Streak and rate come from the habit's completion bitmap, no query per habit
+                HabitBitmap bitmap = HabitBitmap.of(habit, today);
+
                 Map<String, Object> data = new HashMap<>();
                 data.put("habitName", habit.getName());
-                data.put("currentStreak", habit.getCurrentStreak());
+                data.put("currentStreak", bitmap.streaks().current());
 
-                // Calculate completion rate
-                Double completionRate = calculateHabitCompletionRateForHabit(habit.getId());
+                // Completion rate over the last 30 days, against the days the habit expected
+                Double completionRate = bitmap.completionRate(ClientOverviewService.WINDOW_DAYS);
                 data.put("completionRate", completionRate != null ? Math.round(completionRate * 10.0) / 10.0 : 0.0);
 
                 data.put("frequency", habit.getFrequency());
@@ -168,18 +189,16 @@ public class ClientProgressService {
         List<Map<String, Object>> sleepData = new ArrayList<>();
 
         try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days != null ? days : 30);
-            List<SleepEntry> entries = sleepRepository.findByUserIdAndSleepStartTimeAfterOrderBySleepStartTimeDesc(clientId, startDate);
+            LocalDate startDate = LocalDate.now().minusDays(days != null ? days : 30);
+            List<SleepEntry> entries = sleepRepository.findByUserIdAndSleepDateGreaterThanEqualOrderBySleepStartTimeDesc(clientId, startDate);
 
             for (SleepEntry entry : entries) {
                 Map<String, Object> data = new HashMap<>();
                 data.put("sleepDate", entry.getSleepStartTime().format(DATE_FORMATTER));
 
-                // Calculate duration in hours
+                // Duration is stored on the entry (duration_minutes)
                 if (entry.getSleepEndTime() != null) {
-                    long minutes = java.time.Duration.between(entry.getSleepStartTime(), entry.getSleepEndTime()).toMinutes();
-                    double hours = minutes / 60.0;
-                    data.put("durationHours", Math.round(hours * 10.0) / 10.0);
+                    data.put("durationHours", Math.round(entry.getSleepDurationHours() * 10.0) / 10.0);
                 } else {
                     data.put("durationHours", null);
                 }
@@ -194,119 +213,4 @@ public class ClientProgressService {
 
         return sleepData;
     }
-
-    // ========== Helper Methods ==========
-
-
-    /**
-     * Calculate average mood over specified days
-     */
-    private Double calculateAverageMood(Long clientId, int days) {
-        try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-            List<MoodLog> logs = moodLogRepository.findByUserIdAndCreatedAtAfterOrderByCreatedAtDesc(clientId, startDate);
-
-            if (logs.isEmpty()) {
-                return null;
-            }
-
-            return logs.stream()
-                    .mapToDouble(MoodLog::getMoodRating)
-                    .average()
-                    .orElse(0.0);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Get current (most recent) stress level
-     */
-    private String getCurrentStressLevel(Long clientId) {
-        try {
-            List<StressAssessment> assessments = stressAssessmentRepository
-                    .findTop1ByUserIdOrderByCreatedAtDesc(clientId);
-
-            if (assessments.isEmpty()) {
-                return "N/A";
-            }
-
-            return assessments.get(0).getStressLevel();
-        } catch (Exception e) {
-            return "N/A";
-        }
-    }
-
-    /**
-     * Calculate overall habit completion rate
-     */
-    private Double calculateHabitCompletionRate(Long clientId) {
-        try {
-            List<Habit> habits = habitRepository.findByUserId(clientId);
-
-            if (habits.isEmpty()) {
-                return null;
-            }
-
-            // Get completion rate for last 30 days
-            LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-            List<HabitCompletion> completions = habitCompletionRepository
-                    .findByUserIdAndCompletionDateAfter(clientId, thirtyDaysAgo);
-
-            // Calculate expected completions (30 days * number of habits)
-            int expectedCompletions = habits.size() * 30;
-            int actualCompletions = completions.size();
-
-            if (expectedCompletions == 0) {
-                return null;
-            }
-
-            return (actualCompletions * 100.0) / expectedCompletions;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
-    /**
-     * Calculate completion rate for specific habit
-     */
-    private Double calculateHabitCompletionRateForHabit(Long habitId) {
-        try {
-            LocalDate thirtyDaysAgo = LocalDate.now().minusDays(30);
-            List<HabitCompletion> completions = habitCompletionRepository
-                    .findByHabitIdAndCompletionDateAfter(habitId, thirtyDaysAgo);
-
-            // Expected: 30 days
-            int actualCompletions = completions.size();
-            return (actualCompletions * 100.0) / 30.0;
-        } catch (Exception e) {
-            return 0.0;
-        }
-    }
-
-    /**
-     * Calculate average sleep hours over specified days
-     */
-    private Double calculateAverageSleep(Long clientId, int days) {
-        try {
-            LocalDateTime startDate = LocalDateTime.now().minusDays(days);
-            List<SleepEntry> entries = sleepRepository.findByUserIdAndSleepStartTimeAfterOrderBySleepStartTimeDesc(clientId, startDate);
-
-            if (entries.isEmpty()) {
-                return null;
-            }
-
-            return entries.stream()
-                    .filter(e -> e.getSleepEndTime() != null)
-                    .mapToDouble(e -> {
-                        long minutes = java.time.Duration.between(e.getSleepStartTime(), e.getSleepEndTime()).toMinutes();
-                        return minutes / 60.0;
-                    })
-                    .average()
-                    .orElse(0.0);
-        } catch (Exception e) {
-            return null;
-        }
-    }
 }
-
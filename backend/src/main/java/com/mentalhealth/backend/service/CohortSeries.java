@@ -0,0 +1,96 @@
+package com.mentalhealth.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * One int column for a whole cohort, grouped by client: the values of
+ * client c are values[offsets[c]] .. values[offsets[c + 1] - 1], in the
+ * order they were loaded. Clients are indexes into the cohort's sorted id
+ * array, so per-client work can be split across threads by index range.
+ */
+public class CohortSeries {
+
+    private final int[] offsets;
+    private final int[] values;
+
+    private CohortSeries(int[] offsets, int[] values) {
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    public int clients() {
+        return offsets.length - 1;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int count(int client) {
+        return offsets[client + 1] - offsets[client];
+    }
+
+    public int value(int client, int k) {
+        return values[offsets[client] + k];
+    }
+
+    /**
+     * Last value loaded for a client; only valid when count(client) > 0
+     */
+    public int last(int client) {
+        return values[offsets[client + 1] - 1];
+    }
+
+    /**
+     * Mean of a client's values, or NaN if there are none
+     */
+    public double mean(int client) {
+        int from = offsets[client];
+        int to = offsets[client + 1];
+        if (from == to) {
+            return Double.NaN;
+        }
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return (double) sum / (to - from);
+    }
+
+    /**
+     * Collects (client id, value) rows ordered by client id; rows for ids
+     * outside the cohort are skipped
+     */
+    public static class Builder {
+
+        private final long[] clientIds;
+        private final int[] counts;
+        private int[] values = new int[1024];
+        private int size = 0;
+
+        public Builder(long[] clientIds) {
+            this.clientIds = clientIds;
+            this.counts = new int[clientIds.length];
+        }
+
+        public void add(long clientId, int value) {
+            int client = Arrays.binarySearch(clientIds, clientId);
+            if (client < 0) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+            counts[client]++;
+        }
+
+        public CohortSeries build() {
+            int[] offsets = new int[counts.length + 1];
+            for (int c = 0; c < counts.length; c++) {
+                offsets[c + 1] = offsets[c] + counts[c];
+            }
+            return new CohortSeries(offsets, Arrays.copyOf(values, size));
+        }
+    }
+}
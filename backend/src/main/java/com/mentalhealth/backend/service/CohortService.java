@@ -0,0 +1,260 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Habit;
+import com.mentalhealth.backend.model.StressAssessment;
+import com.mentalhealth.backend.repository.CohortRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Distributions across an instructor's whole caseload at once, for the
+ * instructor dashboard.
+ *
+ * The four tracker tables are bulk-loaded concurrently into arrays grouped
+ * by client (one query each), then one parallel pass over the client
+ * indexes (fork/join, common pool) reduces each client to a mood average,
+ * latest stress score, average sleep and habit adherence. The distributions
+ * are computed from those per-client arrays.
+ */
+@Service
+public class CohortService {
+
+    private static final List<String> STRESS_LEVELS = List.of("LOW", "MODERATE", "HIGH");
+
+    @Autowired
+    private CohortRepository cohortRepository;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Value("${cohort.load.timeout-ms:10000}")
+    private long loadTimeoutMs;
+
+    @Value("${cohort.load.parallelism:3}")
+    private int loadParallelism;
+
+    /**
+     * Mood, stress, sleep and habit distributions over the last days days
+     * (habit adherence always uses the 30-day window of the client overview)
+     */
+    public Map<String, Object> getCohortSummary(Long instructorId, int days) {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate since = today.minusDays(Math.max(days, 1) - 1L);
+
+        long[] clientIds = cohortRepository.findClientIds(instructorId);
+        CohortSeries moodRatings;
+        CohortSeries stressScores;
+        CohortSeries sleepMinutes;
+        Habit[][] habits;
+
+        try (FanOut fanOut = new FanOut(virtualThreadExecutor, loadTimeoutMs, loadParallelism)) {
+            Future<CohortSeries> mood = fanOut.fork(() -> cohortRepository.loadMoodRatings(instructorId, clientIds, since));
+            Future<CohortSeries> stress = fanOut.fork(() -> cohortRepository.loadStressScores(instructorId, clientIds, since));
+            Future<CohortSeries> sleep = fanOut.fork(() -> cohortRepository.loadSleepMinutes(instructorId, clientIds, since));
+            Future<Habit[][]> habitRows = fanOut.fork(() -> cohortRepository.loadHabits(instructorId, clientIds));
+            fanOut.join();
+
+            moodRatings = mood.resultNow();
+            stressScores = stress.resultNow();
+            sleepMinutes = sleep.resultNow();
+            habits = habitRows.resultNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading cohort data", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not load cohort data", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Loading cohort data took longer than " + loadTimeoutMs + " ms", e);
+        }
+        long loaded = System.nanoTime();
+
+        Map<String, Object> summary = summarize(moodRatings, stressScores, sleepMinutes, habits, today);
+        summary.put("fromDate", since);
+        summary.put("toDate", today);
+
+        long finished = System.nanoTime();
+        summary.put("loadMs", (loaded - started) / 1_000_000);
+        summary.put("computeMs", (finished - loaded) / 1_000_000);
+        System.out.println("📊 Cohort summary for " + clientIds.length + " clients in " + (finished - started) / 1_000_000 + " ms");
+        return summary;
+    }
+
+    /**
+     * The in-memory part of the summary: reduce each client, then build the
+     * distributions. Parallel streams run in the calling fork/join pool (the
+     * common pool from a request thread), which is how the benchmark varies
+     * the parallelism.
+     */
+    static Map<String, Object> summarize(CohortSeries moodRatings, CohortSeries stressScores,
+                                         CohortSeries sleepMinutes, Habit[][] habits, LocalDate today) {
+        // One slot per client, each written by exactly one task
+        int n = habits.length;
+        double[] averageMood = new double[n];
+        double[] averageSleepHours = new double[n];
+        double[] habitAdherence = new double[n];
+        int[] latestStress = new int[n];
+
+        IntStream.range(0, n).parallel().forEach(c -> {
+            averageMood[c] = moodRatings.mean(c);
+            averageSleepHours[c] = sleepMinutes.mean(c) / 60.0;
+            latestStress[c] = stressScores.count(c) > 0 ? stressScores.last(c) : -1;
+            Double rate = ClientOverviewService.habitCompletionRate(Arrays.asList(habits[c]), today);
+            habitAdherence[c] = rate != null ? rate : Double.NaN;
+        });
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("clients", n);
+        summary.put("mood", moodSummary(moodRatings, averageMood));
+        summary.put("stress", stressSummary(latestStress));
+        summary.put("sleep", sleepSummary(averageSleepHours));
+        summary.put("habits", habitSummary(habitAdherence));
+        return summary;
+    }
+
+    private static Map<String, Object> moodSummary(CohortSeries ratings, double[] averageMood) {
+        // Every rating logged in the window, 1-5
+        long[] counts = IntStream.range(0, ratings.clients()).parallel().collect(
+                () -> new long[5],
+                (histogram, c) -> {
+                    for (int k = 0; k < ratings.count(c); k++) {
+                        histogram[Math.max(1, Math.min(5, ratings.value(c, k))) - 1]++;
+                    }
+                },
+                CohortService::addInto);
+
+        Map<String, Long> ratingHistogram = new LinkedHashMap<>();
+        for (int rating = 1; rating <= 5; rating++) {
+            ratingHistogram.put(String.valueOf(rating), counts[rating - 1]);
+        }
+
+        Map<String, Object> mood = new HashMap<>();
+        mood.put("logs", ratings.size());
+        mood.put("ratingHistogram", ratingHistogram);
+        mood.put("clientAverages", bands(averageMood, new double[]{1, 2, 3, 4, 5}));
+        mood.put("distribution", quartiles(averageMood));
+        return mood;
+    }
+
+    private static Map<String, Object> stressSummary(int[] latestStress) {
+        long[] counts = Arrays.stream(latestStress).parallel().collect(
+                () -> new long[STRESS_LEVELS.size()],
+                (levels, score) -> {
+                    if (score >= 0) {
+                        levels[STRESS_LEVELS.indexOf(StressAssessment.levelFor(score))]++;
+                    }
+                },
+                CohortService::addInto);
+
+        long assessed = Arrays.stream(counts).sum();
+        Map<String, Long> byLevel = new LinkedHashMap<>();
+        for (int level = 0; level < STRESS_LEVELS.size(); level++) {
+            byLevel.put(STRESS_LEVELS.get(level), counts[level]);
+        }
+
+        Map<String, Object> stress = new HashMap<>();
+        stress.put("assessedClients", assessed);
+        stress.put("latestLevel", byLevel);
+        stress.put("highStressShare", assessed > 0 ? round(counts[2] * 100.0 / assessed) : null);
+        return stress;
+    }
+
+    private static Map<String, Object> sleepSummary(double[] averageSleepHours) {
+        Map<String, Object> sleep = new HashMap<>();
+        sleep.put("distribution", quartiles(averageSleepHours));
+        sleep.put("clientAverages", bands(averageSleepHours, new double[]{0, 5, 6, 7, 8, 9, 24}));
+        return sleep;
+    }
+
+    private static Map<String, Object> habitSummary(double[] habitAdherence) {
+        Map<String, Object> habits = new HashMap<>();
+        habits.put("distribution", quartiles(habitAdherence));
+        habits.put("clientsByQuartile", bands(habitAdherence, new double[]{0, 25, 50, 75, 100}));
+        return habits;
+    }
+
+    /**
+     * Count, min, quartiles and max of the per-client values that are known
+     */
+    private static Map<String, Object> quartiles(double[] perClient) {
+        double[] known = DoubleStream.of(perClient).parallel().filter(v -> !Double.isNaN(v)).toArray();
+        Arrays.parallelSort(known);
+
+        Map<String, Object> distribution = new HashMap<>();
+        distribution.put("clients", known.length);
+        if (known.length == 0) {
+            return distribution;
+        }
+        distribution.put("min", round(known[0]));
+        distribution.put("p25", round(percentile(known, 0.25)));
+        distribution.put("median", round(percentile(known, 0.5)));
+        distribution.put("p75", round(percentile(known, 0.75)));
+        distribution.put("max", round(known[known.length - 1]));
+        return distribution;
+    }
+
+    /**
+     * Clients per band [edges[i], edges[i + 1]); the last band includes its upper edge
+     */
+    private static Map<String, Long> bands(double[] perClient, double[] edges) {
+        int bandCount = edges.length - 1;
+        long[] counts = IntStream.range(0, perClient.length).parallel().collect(
+                () -> new long[bandCount],
+                (histogram, c) -> {
+                    double value = perClient[c];
+                    if (Double.isNaN(value)) {
+                        return;
+                    }
+                    int band = 0;
+                    while (band < bandCount - 1 && value >= edges[band + 1]) {
+                        band++;
+                    }
+                    histogram[band]++;
+                },
+                CohortService::addInto);
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int band = 0; band < bandCount; band++) {
+            result.put(label(edges[band]) + "-" + label(edges[band + 1]), counts[band]);
+        }
+        return result;
+    }
+
+    /**
+     * Linear interpolation between the closest ranks of a sorted array
+     */
+    private static double percentile(double[] sorted, double p) {
+        double position = p * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private static String label(double edge) {
+        return edge == Math.rint(edge) ? String.valueOf((long) edge) : String.valueOf(edge);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.ConversationSummary;
+import com.mentalhealth.backend.model.Message;
+import com.mentalhealth.backend.repository.ConversationSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Maintains conversation_summaries alongside the messages table.
+ * Both updates run inside the caller's transaction, so a summary never
+ * points at a message that was rolled back.
+ */
+@Service
+public class ConversationSummaryService {
+
+    @Autowired
+    private ConversationSummaryRepository conversationSummaryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Update the pair's summary for a message that was just saved
+     */
+    @Transactional
+    public void recordMessage(Message message) {
+        Long low = Math.min(message.getSenderId(), message.getReceiverId());
+        Long high = Math.max(message.getSenderId(), message.getReceiverId());
+
+        conversationSummaryRepository.recordMessage(
+                low,
+                high,
+                message.getId(),
+                message.getMessageText(),
+                message.getSentAt(),
+                message.getReceiverId().equals(low) ? 1 : 0,
+                message.getReceiverId().equals(high) ? 1 : 0
+        );
+    }
+
+    /**
+     * Recalculate the reader's unread count after messages from partnerId were marked read
+     */
+    @Transactional
+    public void markRead(Long readerId, Long partnerId) {
+        conversationSummaryRepository.refreshUnread(readerId, partnerId);
+    }
+
+    /**
+     * All conversations a user takes part in, newest first
+     */
+    public List<ConversationSummary> getConversations(Long userId) {
+        return conversationSummaryRepository.findByParticipant(userId);
+    }
+
+    /**
+     * Backfill summaries for messages sent before this table existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (conversationSummaryRepository.count() == 0) {
+                Integer rows = transactionTemplate.execute(status -> conversationSummaryRepository.rebuildAll());
+                System.out.println("✅ conversation_summaries built for " + rows + " conversations");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not initialize conversation_summaries: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.mentalhealth.backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day-aligned correlations between a user's trackers, computed in one pass.
+ *
+ * Feed it one value per (day, metric) in day order, e.g. from a date-sorted
+ * merge of the tracker tables, then call finish(). Each day is paired with
+ * itself and with the day before, so lagged effects (today's mood against
+ * tonight's sleep) come out of the same pass. Every pair keeps running sums
+ * for Pearson and a joint histogram of quantized values for Spearman, so
+ * memory per pair is fixed no matter how many days are streamed.
+ *
+ * Sleep is keyed by the date the user woke up, so sleep on day d is the
+ * night before d.
+ */
+public class CorrelationEngine {
+
+    public static final int MOOD = 0;
+    public static final int SLEEP_HOURS = 1;
+    public static final int SLEEP_QUALITY = 2;
+    public static final int STRESS = 3;
+    public static final int HABITS = 4;
+
+    private static final List<String> METRICS = List.of("mood", "sleepHours", "sleepQuality", "stress", "habitsCompleted");
+
+    // Quantization for Spearman ranks: lowest value, bucket width, bucket count
+    private static final double[][] BUCKETS = {
+            {1, 0.25, 17},  // mood 1-5
+            {0, 0.25, 65},  // sleep hours 0-16
+            {1, 0.25, 17},  // sleep quality 1-5
+            {0, 1, 71},     // stress score
+            {0, 1, 31},     // habit completions per day
+    };
+
+    /**
+     * Fewer paired days than this and no coefficient is reported
+     */
+    public static final int MIN_DAYS = 7;
+
+    private record PairSpec(int x, int y, int lagDays, String description) {
+    }
+
+    private static final List<PairSpec> PAIRS = List.of(
+            new PairSpec(SLEEP_HOURS, MOOD, 0, "Last night's sleep vs today's mood"),
+            new PairSpec(SLEEP_QUALITY, MOOD, 0, "Last night's sleep quality vs today's mood"),
+            new PairSpec(SLEEP_HOURS, STRESS, 0, "Last night's sleep vs today's stress"),
+            new PairSpec(STRESS, MOOD, 0, "Stress vs mood on the same day"),
+            new PairSpec(HABITS, MOOD, 0, "Habits completed vs mood on the same day"),
+            new PairSpec(HABITS, STRESS, 0, "Habits completed vs stress on the same day"),
+            new PairSpec(MOOD, SLEEP_HOURS, 1, "Today's mood vs tonight's sleep"),
+            new PairSpec(STRESS, SLEEP_HOURS, 1, "Today's stress vs tonight's sleep"),
+            new PairSpec(HABITS, SLEEP_HOURS, 1, "Habits completed today vs tonight's sleep")
+    );
+
+    private final Pair[] pairs = new Pair[PAIRS.size()];
+
+    private LocalDate day;
+    private double[] today = emptyDay();
+    private LocalDate previousDay;
+    private double[] previous = emptyDay();
+
+    // Habits are only counted as 0 on days after the first completion
+    private boolean habitsStarted = false;
+
+    public CorrelationEngine() {
+        for (int p = 0; p < pairs.length; p++) {
+            PairSpec spec = PAIRS.get(p);
+            pairs[p] = new Pair(spec.x(), spec.y());
+        }
+    }
+
+    /**
+     * One metric's value for a day; days must arrive in order
+     */
+    public void accept(LocalDate date, int metric, double value) {
+        if (!date.equals(day)) {
+            closeDay();
+            day = date;
+        }
+        today[metric] = value;
+    }
+
+    /**
+     * Close the last day and report every pair
+     */
+    public List<Map<String, Object>> finish() {
+        closeDay();
+
+        List<Map<String, Object>> results = new ArrayList<>(pairs.length);
+        for (int p = 0; p < pairs.length; p++) {
+            PairSpec spec = PAIRS.get(p);
+            Pair pair = pairs[p];
+            Double pearson = pair.n >= MIN_DAYS ? pair.pearson() : null;
+            Double spearman = pair.n >= MIN_DAYS ? pair.spearman() : null;
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("x", METRICS.get(spec.x()));
+            result.put("y", METRICS.get(spec.y()));
+            result.put("lagDays", spec.lagDays());
+            result.put("description", spec.description());
+            result.put("days", pair.n);
+            result.put("pearson", pearson != null ? round(pearson) : null);
+            result.put("spearman", spearman != null ? round(spearman) : null);
+            result.put("strength", pair.n < MIN_DAYS ? "INSUFFICIENT_DATA" : strength(spearman != null ? spearman : pearson));
+            results.add(Collections.unmodifiableMap(result));
+        }
+        return results;
+    }
+
+    private void closeDay() {
+        if (day == null) {
+            return;
+        }
+        if (!Double.isNaN(today[HABITS])) {
+            habitsStarted = true;
+        } else if (habitsStarted) {
+            today[HABITS] = 0;
+        }
+
+        boolean yesterdayKnown = previousDay != null && previousDay.plusDays(1).equals(day);
+        for (int p = 0; p < pairs.length; p++) {
+            PairSpec spec = PAIRS.get(p);
+            double[] xDay = spec.lagDays() == 0 ? today : yesterdayKnown ? previous : null;
+            if (xDay != null && !Double.isNaN(xDay[spec.x()]) && !Double.isNaN(today[spec.y()])) {
+                pairs[p].add(xDay[spec.x()], today[spec.y()]);
+            }
+        }
+
+        // Today becomes yesterday; yesterday's array is cleared and reused
+        previousDay = day;
+        double[] recycled = previous;
+        previous = today;
+        Arrays.fill(recycled, Double.NaN);
+        today = recycled;
+        day = null;
+    }
+
+    private static double[] emptyDay() {
+        double[] values = new double[METRICS.size()];
+        Arrays.fill(values, Double.NaN);
+        return values;
+    }
+
+    private static String strength(Double r) {
+        if (r == null) return "NO_VARIATION";
+        double magnitude = Math.abs(r);
+        if (magnitude < 0.1) return "NONE";
+        if (magnitude < 0.3) return r > 0 ? "WEAK_POSITIVE" : "WEAK_NEGATIVE";
+        if (magnitude < 0.5) return r > 0 ? "MODERATE_POSITIVE" : "MODERATE_NEGATIVE";
+        return r > 0 ? "STRONG_POSITIVE" : "STRONG_NEGATIVE";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Running sums for Pearson plus a joint histogram of bucket indexes for
+     * Spearman (mid-ranks for ties, read off the histogram's marginals)
+     */
+    private static class Pair {
+
+        private final double[] xBuckets;
+        private final double[] yBuckets;
+        private final int[] joint;   // [xBucket * yCount + yBucket]
+
+        private int n;
+        private double sumX, sumY, sumXX, sumYY, sumXY;
+
+        Pair(int x, int y) {
+            xBuckets = BUCKETS[x];
+            yBuckets = BUCKETS[y];
+            joint = new int[(int) xBuckets[2] * (int) yBuckets[2]];
+        }
+
+        void add(double x, double y) {
+            n++;
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumYY += y * y;
+            sumXY += x * y;
+            joint[bucket(x, xBuckets) * (int) yBuckets[2] + bucket(y, yBuckets)]++;
+        }
+
+        Double pearson() {
+            return Correlations.pearson(n, sumX, sumY, sumXX, sumYY, sumXY);
+        }
+
+        Double spearman() {
+            int xCount = (int) xBuckets[2];
+            int yCount = (int) yBuckets[2];
+            long[] xMarginal = new long[xCount];
+            long[] yMarginal = new long[yCount];
+            for (int i = 0; i < xCount; i++) {
+                for (int j = 0; j < yCount; j++) {
+                    int count = joint[i * yCount + j];
+                    xMarginal[i] += count;
+                    yMarginal[j] += count;
+                }
+            }
+            double[] xRanks = midRanks(xMarginal);
+            double[] yRanks = midRanks(yMarginal);
+
+            double sx = 0, sy = 0, sxx = 0, syy = 0, sxy = 0;
+            for (int i = 0; i < xCount; i++) {
+                if (xMarginal[i] == 0) continue;
+                sx += xMarginal[i] * xRanks[i];
+                sxx += xMarginal[i] * xRanks[i] * xRanks[i];
+                for (int j = 0; j < yCount; j++) {
+                    int count = joint[i * yCount + j];
+                    if (count > 0) {
+                        sxy += count * xRanks[i] * yRanks[j];
+                    }
+                }
+            }
+            for (int j = 0; j < yCount; j++) {
+                sy += yMarginal[j] * yRanks[j];
+                syy += yMarginal[j] * yRanks[j] * yRanks[j];
+            }
+            return Correlations.pearson(n, sx, sy, sxx, syy, sxy);
+        }
+
+        private static int bucket(double value, double[] buckets) {
+            int index = (int) Math.round((value - buckets[0]) / buckets[1]);
+            return Math.max(0, Math.min(index, (int) buckets[2] - 1));
+        }
+
+        private static double[] midRanks(long[] counts) {
+            double[] ranks = new double[counts.length];
+            long below = 0;
+            for (int i = 0; i < counts.length; i++) {
+                ranks[i] = below + (counts[i] + 1) / 2.0;
+                below += counts[i];
+            }
+            return ranks;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.repository.DailyMetricsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Correlations between a user's sleep, mood, stress and habits.
+ *
+ * Results are cached per (user, fromDate, toDate) and tagged with the
+ * user's ProgressDataCache version, which every tracker write bumps, so a
+ * cached result is served until the user records something new. The least
+ * recently used result is evicted once correlation.cache.max-size are cached.
+ */
+@Service
+public class CorrelationService {
+
+    private record Key(Long userId, LocalDate fromDate, LocalDate toDate) {
+    }
+
+    private record Entry(long version, List<Map<String, Object>> pairs) {
+    }
+
+    @Autowired
+    private DailyMetricsRepository dailyMetricsRepository;
+
+    @Autowired
+    private ProgressDataCache progressDataCache;
+
+    @Value("${correlation.cache.max-size:2000}")
+    private int maxSize;
+
+    private final BoundedCache<Key, Entry> entries = new BoundedCache<>(() -> maxSize);
+
+    /**
+     * Every tracked pair for days between two dates (inclusive)
+     */
+    public List<Map<String, Object>> getCorrelations(Long userId, LocalDate fromDate, LocalDate toDate) {
+        Key key = new Key(userId, fromDate, toDate);
+        long version = progressDataCache.version(userId);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            entries.hit();
+            return entry.pairs();
+        }
+
+        entries.miss();
+        CorrelationEngine engine = new CorrelationEngine();
+        dailyMetricsRepository.stream(userId, fromDate, toDate, engine);
+        List<Map<String, Object>> pairs = List.copyOf(engine.finish());
+
+        // Not cached if the user wrote to a tracker while this was computed
+        entries.putIf(key, new Entry(version, pairs), () -> progressDataCache.version(userId) == version);
+        return pairs;
+    }
+
+    /**
+     * Correlations over the last days days, with the window they cover
+     */
+    public Map<String, Object> getCorrelationReport(Long userId, int days) {
+        LocalDate toDate = LocalDate.now();
+        LocalDate fromDate = toDate.minusDays(Math.max(days, 1) - 1L);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("userId", userId);
+        report.put("fromDate", fromDate);
+        report.put("toDate", toDate);
+        report.put("minimumDays", CorrelationEngine.MIN_DAYS);
+        report.put("pairs", getCorrelations(userId, fromDate, toDate));
+        return report;
+    }
+
+    public Map<String, Object> getStats() {
+        return entries.getStats();
+    }
+}
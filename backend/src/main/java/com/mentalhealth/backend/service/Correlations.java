@@ -0,0 +1,24 @@
+package com.mentalhealth.backend.service;
+
+/**
+ * Correlation maths shared by StressSeries and CorrelationEngine.
+ */
+final class Correlations {
+
+    private Correlations() {
+    }
+
+    /**
+     * Pearson correlation from running sums, or null when either side is constant
+     */
+    static Double pearson(long n, double sumX, double sumY, double sumXX, double sumYY, double sumXY) {
+        double varianceX = n * sumXX - sumX * sumX;
+        double varianceY = n * sumYY - sumY * sumY;
+        // Relative tolerance: a constant side can leave rounding noise
+        if (n < 2 || varianceX <= 1e-9 * n * sumXX || varianceY <= 1e-9 * n * sumYY) {
+            return null;
+        }
+        double r = (n * sumXY - sumX * sumY) / Math.sqrt(varianceX * varianceY);
+        return Math.max(-1.0, Math.min(1.0, r));
+    }
+}
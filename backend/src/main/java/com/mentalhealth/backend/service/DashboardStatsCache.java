@@ -0,0 +1,67 @@
+package com.mentalhealth.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-instructor cache of dashboard stats.
+ * Every instructor has a version that is bumped after commit whenever a
+ * session request or session changes for them. Stats are stored with the
+ * version read before they were computed and only served while it is still
+ * current, so stats computed while a change committed are never served.
+ * An entry from a previous day is never served either, because "today's
+ * sessions" would be wrong.
+ */
+@Component
+public class DashboardStatsCache {
+
+    private record Entry(long version, LocalDate day, Map<String, Integer> stats) {
+    }
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * The instructor's current version; read it before computing stats to put()
+     */
+    public long version(Long instructorId) {
+        return versions.computeIfAbsent(instructorId, id -> new AtomicLong()).get();
+    }
+
+    /**
+     * Cached stats for today, or null on a miss
+     */
+    public Map<String, Integer> get(Long instructorId) {
+        Entry entry = entries.get(instructorId);
+        if (entry == null || entry.version() != version(instructorId) || !entry.day().equals(LocalDate.now())) {
+            return null;
+        }
+        return entry.stats();
+    }
+
+    /**
+     * Store stats computed at the given version, unless a change committed since
+     */
+    public void put(Long instructorId, long version, Map<String, Integer> stats) {
+        if (version(instructorId) == version) {
+            entries.put(instructorId, new Entry(version, LocalDate.now(), Map.copyOf(stats)));
+        }
+    }
+
+    /**
+     * Retire an instructor's stats once the current transaction commits
+     */
+    public void invalidate(Long instructorId) {
+        if (instructorId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> {
+            versions.computeIfAbsent(instructorId, id -> new AtomicLong()).incrementAndGet();
+            entries.remove(instructorId);
+        });
+    }
+}
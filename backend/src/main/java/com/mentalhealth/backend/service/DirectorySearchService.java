@@ -0,0 +1,240 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Instructor;
+import com.mentalhealth.backend.model.User;
+import com.mentalhealth.backend.repository.InstructorRepository;
+import com.mentalhealth.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory username directory for users and instructors.
+ *
+ * Two indexes are kept over lower-cased usernames:
+ * - a sorted map (name, key) for prefix scans and ordered listing
+ * - n-gram posting sets (every 1-, 2- and 3-character substring) for
+ *   substring queries; 1-2 character queries read their own posting set
+ *
+ * Loaded once on startup and updated when someone registers, so typeahead
+ * and recipient lookups never query the database.
+ */
+@Service
+public class DirectorySearchService {
+
+    /** Which table an entry came from (ids are only unique per table) */
+    public enum Source { USER, INSTRUCTOR }
+
+    public record DirectoryEntry(Source source, Long id, String username, String role) {
+    }
+
+    private record Key(Source source, Long id) {
+    }
+
+    private static final int GRAM = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private InstructorRepository instructorRepository;
+
+    private final Map<Key, DirectoryEntry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, DirectoryEntry> byName = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<Key>> ngrams = new ConcurrentHashMap<>();
+
+    /**
+     * Load every user and instructor into the index
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        try {
+            for (User user : userRepository.findAll()) {
+                indexUser(user);
+            }
+            if (instructorRepository != null) {
+                for (Instructor instructor : instructorRepository.findAll()) {
+                    indexInstructor(instructor);
+                }
+            }
+            System.out.println("✅ Directory index loaded: " + entries.size() + " entries");
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not load directory index: " + e.getMessage());
+        }
+    }
+
+    public void indexUser(User user) {
+        String role = user.getRole() != null ? user.getRole().toString() : null;
+        put(new DirectoryEntry(Source.USER, user.getId(), user.getUsername(), role));
+    }
+
+    public void indexInstructor(Instructor instructor) {
+        String role = instructor.getRole() != null ? instructor.getRole().toString() : "INSTRUCTOR";
+        put(new DirectoryEntry(Source.INSTRUCTOR, instructor.getId(), instructor.getUsername(), role));
+    }
+
+    /**
+     * Find entries whose username contains the query (case-insensitive), ordered by name
+     *
+     * @param query  text to match, or null/blank for everyone
+     * @param source restrict to one table, or null for both
+     * @param role   restrict to one role (e.g. "USER"), or null for any
+     * @param offset entries to skip
+     * @param limit  page size, or a negative value for all matches
+     */
+    public List<DirectoryEntry> search(String query, Source source, String role, int offset, int limit) {
+        String needle = query != null ? query.trim().toLowerCase(Locale.ROOT) : "";
+
+        Iterable<DirectoryEntry> candidates;
+        if (needle.length() >= GRAM) {
+            candidates = trigramCandidates(needle);
+        } else if (!needle.isEmpty()) {
+            candidates = prefixFirst(needle);
+        } else {
+            candidates = byName.values();
+        }
+
+        List<DirectoryEntry> page = new ArrayList<>();
+        int skipped = 0;
+        for (DirectoryEntry entry : candidates) {
+            if (source != null && entry.source() != source) continue;
+            if (role != null && !role.equals(entry.role())) continue;
+            if (!needle.isEmpty() && !lower(entry.username()).contains(needle)) continue;
+
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            page.add(entry);
+            if (limit >= 0 && page.size() >= limit) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop every entry (e.g. after all users were deleted)
+     */
+    public synchronized void clear() {
+        entries.clear();
+        byName.clear();
+        ngrams.clear();
+    }
+
+    // ========== Index maintenance ==========
+
+    private synchronized void put(DirectoryEntry entry) {
+        if (entry.id() == null || entry.username() == null) {
+            return;
+        }
+
+        Key key = new Key(entry.source(), entry.id());
+        DirectoryEntry previous = entries.put(key, entry);
+        if (previous != null) {
+            byName.remove(sortKey(previous));
+            for (String gram : grams(lower(previous.username()))) {
+                Set<Key> keys = ngrams.get(gram);
+                if (keys != null) keys.remove(key);
+            }
+        }
+
+        byName.put(sortKey(entry), entry);
+        for (String gram : grams(lower(entry.username()))) {
+            ngrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    /**
+     * Intersect the posting sets of every trigram in the needle, smallest first,
+     * and return the survivors in name order
+     */
+    private List<DirectoryEntry> trigramCandidates(String needle) {
+        List<Set<Key>> postings = new ArrayList<>();
+        for (String gram : trigrams(needle)) {
+            Set<Key> keys = ngrams.get(gram);
+            if (keys == null || keys.isEmpty()) {
+                return Collections.emptyList();
+            }
+            postings.add(keys);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        List<DirectoryEntry> matches = new ArrayList<>();
+        for (Key key : postings.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(key);
+            }
+            DirectoryEntry entry = entries.get(key);
+            if (inAll && entry != null) {
+                matches.add(entry);
+            }
+        }
+        matches.sort(Comparator.comparing((DirectoryEntry e) -> lower(e.username())).thenComparing(DirectoryEntry::id));
+        return matches;
+    }
+
+    /**
+     * Every substring of 1 to GRAM characters, i.e. all the keys a name is posted under
+     */
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM; length++) {
+            for (int i = 0; i + length <= text.length(); i++) {
+                grams.add(text.substring(i, i + length));
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Short (typeahead) queries: names starting with the needle come first,
+     * straight from the sorted map, then the rest of the needle's posting set
+     * in name order
+     */
+    private List<DirectoryEntry> prefixFirst(String needle) {
+        List<DirectoryEntry> ordered = new ArrayList<>(
+                byName.subMap(needle, true, needle + Character.MAX_VALUE, true).values());
+
+        Set<Key> keys = ngrams.get(needle);
+        if (keys == null || keys.isEmpty()) {
+            return ordered;
+        }
+        List<DirectoryEntry> contained = new ArrayList<>();
+        for (Key key : keys) {
+            DirectoryEntry entry = entries.get(key);
+            if (entry != null && !lower(entry.username()).startsWith(needle)) {
+                contained.add(entry);
+            }
+        }
+        contained.sort(Comparator.comparing((DirectoryEntry e) -> lower(e.username())).thenComparing(DirectoryEntry::id));
+        ordered.addAll(contained);
+        return ordered;
+    }
+
+    private static String sortKey(DirectoryEntry entry) {
+        return lower(entry.username()) + '\0' + entry.source() + ':' + entry.id();
+    }
+
+    private static String lower(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+}
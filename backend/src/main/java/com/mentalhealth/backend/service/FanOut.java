@@ -0,0 +1,69 @@
+package com.mentalhealth.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs independent calls concurrently and waits for all of them within one
+ * time budget. Used with try-with-resources: fork() each call, join(), then
+ * read the results with Future.resultNow(). Whatever has not finished when
+ * the scope closes (budget spent, or another call failed) is cancelled, so
+ * no forked call outlives the request that started it.
+ *
+ * At most maxConcurrent calls run at once; the rest wait for a permit on
+ * their own virtual thread. Forked calls usually borrow a pooled JDBC
+ * connection, so the limit keeps one request from draining the pool.
+ */
+public class FanOut implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final long deadline;
+    private final Semaphore permits;
+    private final List<Future<?>> forked = new ArrayList<>();
+
+    public FanOut(ExecutorService executor, long budgetMillis, int maxConcurrent) {
+        this.executor = executor;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.permits = new Semaphore(Math.max(maxConcurrent, 1));
+    }
+
+    public <T> Future<T> fork(Callable<T> call) {
+        Future<T> future = executor.submit(() -> {
+            permits.acquire();
+            try {
+                return call.call();
+            } finally {
+                permits.release();
+            }
+        });
+        forked.add(future);
+        return future;
+    }
+
+    /**
+     * Wait for every forked call; throws if one of them failed or the budget runs out
+     */
+    public void join() throws InterruptedException, ExecutionException, TimeoutException {
+        for (Future<?> future : forked) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 && !future.isDone()) {
+                throw new TimeoutException("Fan-out budget spent");
+            }
+            future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Future<?> future : forked) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Habit;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rolling completion bitmap for a habit: one bit per day for the last DAYS
+ * days, stored on habits.completion_bitmap. Bit i is the day i days before
+ * habits.bitmap_anchor_date, so completions can be recorded in any order,
+ * including back-dated ones.
+ *
+ * Streaks, completion rates and heatmaps are BitSet operations against a
+ * mask of the occurrences the habit expects:
+ * - DAILY: every day whose weekday is in targetDays ("MON,WED,FRI", or "ALL")
+ * - WEEKLY: one completion per calendar week (Monday to Sunday)
+ * Expected occurrences start on the day the habit was created, or at its
+ * earliest completion if that was back-dated. The current occurrence (today,
+ * or this week) counts once it is done but is never a miss while still open.
+ */
+public class HabitBitmap {
+
+    /**
+     * Two years of days, including a leap day
+     */
+    public static final int DAYS = 731;
+
+    public record Streaks(int current, int longest) {
+    }
+
+    private final boolean weekly;
+    private final int weekOffset;
+    private final BitSet days;      // completed days, bit 0 = today
+    private final BitSet done;      // completed occurrences, bit 0 = today (or this week)
+    private final BitSet expected;  // occurrences the habit asked for
+    private final BitSet missed;    // expected, not done and no longer open
+    private final int length;       // occurrences tracked so far
+    private final int open;         // 1 while the current occurrence can still be done
+
+    private HabitBitmap(Habit habit, LocalDate today) {
+        this.weekly = "WEEKLY".equals(habit.getFrequency());
+        this.weekOffset = 7 - today.getDayOfWeek().getValue();
+        this.days = aligned(habit, today);
+
+        int trackedDays = days.length();
+        if (habit.getCreatedAt() != null) {
+            long sinceCreated = ChronoUnit.DAYS.between(habit.getCreatedAt().toLocalDate(), today) + 1;
+            trackedDays = (int) Math.max(trackedDays, Math.min(sinceCreated, DAYS));
+        }
+
+        if (weekly) {
+            done = new BitSet();
+            for (int i = days.nextSetBit(0); i >= 0; i = days.nextSetBit(i + 1)) {
+                done.set(weekOf(i));
+            }
+            length = trackedDays > 0 ? weekOf(trackedDays - 1) + 1 : 0;
+            expected = new BitSet(length);
+            expected.set(0, length);
+        } else {
+            length = trackedDays;
+            expected = weekdayMask(targetDays(habit.getTargetDays()), today, length);
+            done = (BitSet) days.clone();
+            done.and(expected);
+        }
+
+        open = expected.get(0) && !done.get(0) ? 1 : 0;
+        missed = (BitSet) expected.clone();
+        missed.andNot(done);
+        missed.clear(0, open);
+    }
+
+    /**
+     * Read a habit's bitmap as of today
+     */
+    public static HabitBitmap of(Habit habit, LocalDate today) {
+        return new HabitBitmap(habit, today);
+    }
+
+    /**
+     * Set or clear the bit for one day.
+     * Returns false when the day is older than the window (nothing to record).
+     */
+    public static boolean record(Habit habit, LocalDate day, boolean completed, LocalDate today) {
+        LocalDate anchor = today;
+        if (habit.getBitmapAnchorDate() != null && habit.getBitmapAnchorDate().isAfter(anchor)) {
+            anchor = habit.getBitmapAnchorDate();
+        }
+        if (day.isAfter(anchor)) {
+            anchor = day;
+        }
+
+        long index = ChronoUnit.DAYS.between(day, anchor);
+        if (index >= DAYS) {
+            return false;
+        }
+
+        BitSet bits = aligned(habit, anchor);
+        bits.set((int) index, completed);
+        store(habit, bits, anchor);
+        return true;
+    }
+
+    /**
+     * Rebuild a habit's bitmap from its completion dates
+     */
+    public static void rebuild(Habit habit, Collection<LocalDate> completionDates, LocalDate today) {
+        LocalDate anchor = today;
+        for (LocalDate date : completionDates) {
+            if (date.isAfter(anchor)) {
+                anchor = date;
+            }
+        }
+
+        BitSet bits = new BitSet(DAYS);
+        for (LocalDate date : completionDates) {
+            long index = ChronoUnit.DAYS.between(date, anchor);
+            if (index < DAYS) {
+                bits.set((int) index);
+            }
+        }
+        store(habit, bits, anchor);
+    }
+
+    /**
+     * Current and longest run of completed occurrences (days, or weeks for WEEKLY)
+     */
+    public Streaks streaks() {
+        int firstMiss = missed.nextSetBit(0);
+        int current = done.get(0, firstMiss >= 0 ? firstMiss : length).cardinality();
+
+        int longest = current;
+        int from = 0;
+        for (int miss = firstMiss; miss >= 0; miss = missed.nextSetBit(miss + 1)) {
+            longest = Math.max(longest, done.get(from, miss).cardinality());
+            from = miss + 1;
+        }
+        longest = Math.max(longest, done.get(from, Math.max(from, length)).cardinality());
+
+        return new Streaks(current, longest);
+    }
+
+    /**
+     * Percentage of expected occurrences completed over the last lastDays days
+     * (whole weeks for WEEKLY habits), or null if nothing was expected yet
+     */
+    public Double completionRate(int lastDays) {
+        int n = Math.min(weekly ? (lastDays + 6) / 7 : lastDays, length);
+        if (n <= open) {
+            return null;
+        }
+
+        int due = expected.get(open, n).cardinality();
+        if (due == 0) {
+            return null;
+        }
+        return done.get(0, n).cardinality() * 100.0 / due;
+    }
+
+    /**
+     * One value per day for the last lastDays days, oldest first:
+     * 2 = completed, 1 = expected but missed, 0 = not expected or still open
+     */
+    public List<Integer> heatmap(int lastDays) {
+        int n = Math.min(lastDays, DAYS);
+        List<Integer> cells = new ArrayList<>(n);
+        for (int i = n - 1; i >= 0; i--) {
+            if (days.get(i)) {
+                cells.add(2);
+            } else {
+                cells.add(missed.get(weekly ? weekOf(i) : i) ? 1 : 0);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Days with a completion in the window (including days the habit did not expect)
+     */
+    public int completedDays() {
+        return days.cardinality();
+    }
+
+    /**
+     * Weekdays a DAILY habit is expected on; "ALL", blank or unrecognised means every day
+     */
+    static Set<DayOfWeek> targetDays(String targetDays) {
+        Set<DayOfWeek> result = EnumSet.noneOf(DayOfWeek.class);
+        if (targetDays != null) {
+            for (String token : targetDays.toUpperCase().split(",")) {
+                String day = token.trim();
+                if (day.length() < 3) {
+                    continue;
+                }
+                for (DayOfWeek candidate : DayOfWeek.values()) {
+                    if (candidate.name().startsWith(day)) {
+                        result.add(candidate);
+                    }
+                }
+            }
+        }
+        return result.isEmpty() ? EnumSet.allOf(DayOfWeek.class) : result;
+    }
+
+    private int weekOf(int daysAgo) {
+        return (daysAgo + weekOffset) / 7;
+    }
+
+    private static BitSet weekdayMask(Set<DayOfWeek> weekdays, LocalDate today, int length) {
+        BitSet mask = new BitSet(length);
+        if (weekdays.size() == 7) {
+            mask.set(0, length);
+            return mask;
+        }
+
+        int todayValue = today.getDayOfWeek().getValue();
+        for (DayOfWeek weekday : weekdays) {
+            for (int i = Math.floorMod(todayValue - weekday.getValue(), 7); i < length; i += 7) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * The stored bits re-based so that bit 0 is the given day
+     */
+    private static BitSet aligned(Habit habit, LocalDate day) {
+        LocalDate anchor = habit.getBitmapAnchorDate();
+        if (habit.getCompletionBitmap() == null || anchor == null) {
+            return new BitSet(DAYS);
+        }
+
+        BitSet bits = BitSet.valueOf(habit.getCompletionBitmap());
+        long shift = ChronoUnit.DAYS.between(anchor, day);
+        if (shift < 0) {
+            // Day is before the anchor: drop the newer bits
+            int drop = (int) Math.min(-shift, DAYS);
+            return bits.get(drop, Math.max(drop, DAYS));
+        }
+
+        BitSet shifted = new BitSet(DAYS);
+        for (int i = bits.nextSetBit(0); i >= 0 && i + shift < DAYS; i = bits.nextSetBit(i + 1)) {
+            shifted.set((int) (i + shift));
+        }
+        return shifted;
+    }
+
+    private static void store(Habit habit, BitSet bits, LocalDate anchor) {
+        habit.setCompletionBitmap(bits.toByteArray());
+        habit.setBitmapAnchorDate(anchor);
+    }
+}
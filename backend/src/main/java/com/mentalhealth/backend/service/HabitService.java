@@ -7,11 +7,18 @@ import com.mentalhealth.backend.model.HabitCompletion;
 import com.mentalhealth.backend.repository.HabitCompletionRepository;
 import com.mentalhealth.backend.repository.HabitRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +26,9 @@ public class HabitService {
 
     private final HabitRepository habitRepository;
     private final HabitCompletionRepository habitCompletionRepository;
+    private final ClientOverviewService clientOverviewService;
+    private final ProgressDataCache progressDataCache;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Create a new habit
@@ -43,6 +53,8 @@ public class HabitService {
             System.out.println("  - Generated ID: " + saved.getId());
             System.out.println("  - Created at: " + saved.getCreatedAt());
 
+            clientOverviewService.refreshHabits(saved.getUserId());
+            progressDataCache.invalidate(saved.getUserId());
             return saved;
         } catch (Exception e) {
             System.err.println("SERVICE: ❌ ERROR saving habit: " + e.getMessage());
@@ -55,7 +67,7 @@ public class HabitService {
      * Get all habits for a user
      */
     public List<Habit> getAllHabits(Long userId) {
-        return habitRepository.findByUserId(userId);
+        return withCurrentStreaks(habitRepository.findByUserId(userId));
     }
 
     /**
@@ -63,7 +75,7 @@ public class HabitService {
      */
     public List<Habit> getActiveHabits(Long userId) {
         System.out.println("SERVICE: Fetching active habits for user: " + userId);
-        List<Habit> habits = habitRepository.findByUserIdAndIsActiveTrue(userId);
+        List<Habit> habits = withCurrentStreaks(habitRepository.findByUserIdAndIsActiveTrue(userId));
         System.out.println("SERVICE: Found " + habits.size() + " active habits");
         return habits;
     }
@@ -103,7 +115,9 @@ public class HabitService {
             existingHabit.setIsActive(updatedHabit.getIsActive());
         }
 
-        return habitRepository.save(existingHabit);
+        Habit saved = habitRepository.save(existingHabit);
+        progressDataCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     /**
@@ -111,24 +125,26 @@ public class HabitService {
      */
     @Transactional
     public void deleteHabit(Long id) {
-        if (!habitRepository.existsById(id)) {
-            throw new RuntimeException("Habit not found with id: " + id);
-        }
+        Habit habit = getHabitById(id);
 
         // Delete all completions first
         habitCompletionRepository.deleteByHabitId(id);
 
         // Delete the habit
-        habitRepository.deleteById(id);
+        habitRepository.delete(habit);
+
+        clientOverviewService.refreshHabits(habit.getUserId());
+        progressDataCache.invalidate(habit.getUserId());
     }
 
     /**
-     * Mark habit as complete for a specific date
+     * Mark habit as complete for a specific date (back-dated completions are fine)
      */
     @Transactional
     public HabitCompletion completeHabit(Long habitId, Long userId, LocalDate completionDate, String notes) {
-        // Check if habit exists
-        Habit habit = getHabitById(habitId);
+        // Lock the habit so concurrent completions don't lose each other's bitmap update
+        Habit habit = habitRepository.findByIdForUpdate(habitId)
+                .orElseThrow(() -> new RuntimeException("Habit not found with id: " + habitId));
 
         // Check if already completed for this date
         if (habitCompletionRepository.existsByHabitIdAndCompletionDate(habitId, completionDate)) {
@@ -144,42 +160,147 @@ public class HabitService {
 
         HabitCompletion savedCompletion = habitCompletionRepository.save(completion);
 
-        // Update streak
+        HabitBitmap.record(habit, completionDate, true, LocalDate.now());
         updateStreak(habit);
+        habit.setLastCompletedAt(LocalDateTime.now());
+        habitRepository.save(habit);
+
+        clientOverviewService.refreshHabits(userId);
+        progressDataCache.invalidate(userId);
 
         return savedCompletion;
     }
 
     /**
-     * Update habit streak after completion
+     * Undo the completion of a habit on a specific date
      */
     @Transactional
-    public void updateStreak(Habit habit) {
+    public void removeCompletion(Long habitId, LocalDate completionDate) {
+        Habit habit = habitRepository.findByIdForUpdate(habitId)
+                .orElseThrow(() -> new RuntimeException("Habit not found with id: " + habitId));
+
+        HabitCompletion completion = habitCompletionRepository.findByHabitIdAndCompletionDate(habitId, completionDate)
+                .orElseThrow(() -> new RuntimeException("No completion on " + completionDate + " for habit " + habitId));
+        habitCompletionRepository.delete(completion);
+
         LocalDate today = LocalDate.now();
-        LocalDate yesterday = today.minusDays(1);
+        int windowLongest = HabitBitmap.of(habit, today).streaks().longest();
+        boolean inWindow = HabitBitmap.record(habit, completionDate, false, today);
+        // The removed day may have been part of the longest streak. That is only
+        // recomputed when the bitmap can see the streak; a longer stored one
+        // dates from before the window and is kept.
+        int storedLongest = habit.getLongestStreak() != null ? habit.getLongestStreak() : 0;
+        if (inWindow && storedLongest <= windowLongest) {
+            habit.setLongestStreak(HabitBitmap.of(habit, today).streaks().longest());
+        }
+        updateStreak(habit);
+        habitRepository.save(habit);
 
-        // Check if completed today
-        boolean completedToday = habitCompletionRepository.existsByHabitIdAndCompletionDate(habit.getId(), today);
+        clientOverviewService.refreshHabits(habit.getUserId());
+        progressDataCache.invalidate(habit.getUserId());
+    }
 
-        // Check if completed yesterday
-        boolean completedYesterday = habitCompletionRepository.existsByHabitIdAndCompletionDate(habit.getId(), yesterday);
+    /**
+     * Recalculate current and longest streak from the completion bitmap.
+     * The longest streak never drops below the stored one, which may date
+     * from before the bitmap window.
+     */
+    public void updateStreak(Habit habit) {
+        HabitBitmap.Streaks streaks = HabitBitmap.of(habit, LocalDate.now()).streaks();
+        habit.setCurrentStreak(streaks.current());
+        habit.setLongestStreak(Math.max(streaks.longest(),
+                habit.getLongestStreak() != null ? habit.getLongestStreak() : 0));
+    }
 
-        if (completedToday) {
-            if (completedYesterday || habit.getCurrentStreak() == 0) {
-                // Continue or start streak
-                habit.setCurrentStreak(habit.getCurrentStreak() + 1);
-            } else {
-                // Check if streak was broken (no completion yesterday)
-                habit.setCurrentStreak(1);
-            }
+    /**
+     * Copies of the habits with streaks recalculated as of today. Read paths
+     * use these so loaded entities are never modified (and never flushed).
+     */
+    private List<Habit> withCurrentStreaks(List<Habit> habits) {
+        LocalDate today = LocalDate.now();
+        List<Habit> views = new ArrayList<>(habits.size());
+        for (Habit habit : habits) {
+            HabitBitmap.Streaks streaks = HabitBitmap.of(habit, today).streaks();
+            views.add(new Habit(habit.getId(), habit.getUserId(), habit.getName(), habit.getDescription(),
+                    habit.getFrequency(), habit.getTargetDays(), streaks.current(),
+                    Math.max(streaks.longest(), habit.getLongestStreak() != null ? habit.getLongestStreak() : 0),
+                    habit.getIsActive(), habit.getCreatedAt(), habit.getLastCompletedAt(),
+                    habit.getCompletionBitmap(), habit.getBitmapAnchorDate()));
+        }
+        return views;
+    }
 
-            // Update longest streak if current is higher
-            if (habit.getCurrentStreak() > habit.getLongestStreak()) {
-                habit.setLongestStreak(habit.getCurrentStreak());
-            }
+    /**
+     * Streaks and 7/30/90-day completion rates for one habit
+     */
+    public Map<String, Object> getHabitInsights(Long habitId) {
+        Habit habit = getHabitById(habitId);
+        HabitBitmap bitmap = HabitBitmap.of(habit, LocalDate.now());
+        HabitBitmap.Streaks streaks = bitmap.streaks();
+
+        Map<String, Object> insights = new HashMap<>();
+        insights.put("habitId", habit.getId());
+        insights.put("frequency", habit.getFrequency());
+        insights.put("targetDays", habit.getTargetDays());
+        insights.put("currentStreak", streaks.current());
+        insights.put("longestStreak", Math.max(streaks.longest(),
+                habit.getLongestStreak() != null ? habit.getLongestStreak() : 0));
+        insights.put("completionRate7Days", roundRate(bitmap.completionRate(7)));
+        insights.put("completionRate30Days", roundRate(bitmap.completionRate(30)));
+        insights.put("completionRate90Days", roundRate(bitmap.completionRate(90)));
+        insights.put("completedDays", bitmap.completedDays());
+        return insights;
+    }
 
-            habit.setLastCompletedAt(java.time.LocalDateTime.now());
-            habitRepository.save(habit);
+    /**
+     * Calendar heatmap for one habit: one value per day, oldest first
+     * (2 = completed, 1 = missed, 0 = not expected or still open)
+     */
+    public Map<String, Object> getHabitHeatmap(Long habitId, int days) {
+        Habit habit = getHabitById(habitId);
+        LocalDate today = LocalDate.now();
+        int span = Math.max(1, Math.min(days, HabitBitmap.DAYS));
+
+        Map<String, Object> heatmap = new HashMap<>();
+        heatmap.put("habitId", habit.getId());
+        heatmap.put("startDate", today.minusDays(span - 1));
+        heatmap.put("endDate", today);
+        heatmap.put("days", HabitBitmap.of(habit, today).heatmap(span));
+        return heatmap;
+    }
+
+    /**
+     * Build completion bitmaps for habits created before the bitmap existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCompletionBitmaps() {
+        try {
+            Integer rebuilt = transactionTemplate.execute(status -> {
+                List<Habit> habits = habitRepository.findByCompletionBitmapIsNull();
+                if (habits.isEmpty()) {
+                    return 0;
+                }
+
+                LocalDate today = LocalDate.now();
+                Map<Long, List<LocalDate>> datesByHabit = new HashMap<>();
+                for (HabitCompletion completion : habitCompletionRepository.findByHabitIdInAndCompletionDateAfter(
+                        habits.stream().map(Habit::getId).toList(), today.minusDays(HabitBitmap.DAYS))) {
+                    datesByHabit.computeIfAbsent(completion.getHabitId(), id -> new ArrayList<>())
+                            .add(completion.getCompletionDate());
+                }
+
+                for (Habit habit : habits) {
+                    HabitBitmap.rebuild(habit, datesByHabit.getOrDefault(habit.getId(), List.of()), today);
+                    updateStreak(habit);
+                }
+                habitRepository.saveAll(habits);
+                return habits.size();
+            });
+            if (rebuilt != null && rebuilt > 0) {
+                System.out.println("✅ Habit completion bitmaps built for " + rebuilt + " habits");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not build habit completion bitmaps: " + e.getMessage());
         }
     }
 
@@ -191,10 +312,14 @@ public class HabitService {
     }
 
     /**
-     * Get habits with active streaks
+     * Get habits with active streaks (stored streaks go stale after a missed
+     * day, so they are recalculated from the bitmap)
      */
     public List<Habit> getHabitsWithStreaks(Long userId) {
-        return habitRepository.findByUserIdAndCurrentStreakGreaterThan(userId, 0);
+        LocalDate today = LocalDate.now();
+        return habitRepository.findByUserIdAndIsActiveTrue(userId).stream()
+                .filter(habit -> HabitBitmap.of(habit, today).streaks().current() > 0)
+                .toList();
     }
 
     /**
@@ -214,6 +339,10 @@ public class HabitService {
         return new HabitStats(totalHabits, habitsWithStreaks.size());
     }
 
+    private static Double roundRate(Double rate) {
+        return rate != null ? Math.round(rate * 10.0) / 10.0 : null;
+    }
+
     // Inner class for statistics
     public static class HabitStats {
         public long totalHabits;
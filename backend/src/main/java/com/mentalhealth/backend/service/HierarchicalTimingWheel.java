@@ -0,0 +1,133 @@
+package com.mentalhealth.backend.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel (Varghese & Lauck) for timers far in the future.
+ *
+ * Level 0 has WHEEL_SIZE slots of one tick each, level 1 has WHEEL_SIZE slots
+ * of WHEEL_SIZE ticks each, and so on. A timer is stored at the lowest level
+ * whose range covers it; when a higher-level slot comes due its timers are
+ * cascaded down to finer levels. Scheduling is O(1), advancing costs O(1)
+ * per tick plus one cascade per timer per level, and memory is one small
+ * entry per timer regardless of how far ahead it is.
+ *
+ * With 1 second ticks and 4 levels of 64 slots the wheel spans about 194 days;
+ * timers beyond that are kept in an overflow list and re-placed once per
+ * top-level rotation.
+ *
+ * Not thread-safe by itself; all methods are synchronized.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    public static final int WHEEL_SIZE = 64;
+    private static final int LEVELS = 4;
+
+    private record Entry<T>(T item, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final long[] span = new long[LEVELS + 1];
+    private final List<List<ArrayDeque<Entry<T>>>> levels = new ArrayList<>(LEVELS);
+    private final List<Entry<T>> overflow = new ArrayList<>();
+    private final List<T> due = new ArrayList<>();
+
+    private long currentTick;
+    private int size = 0;
+
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+
+        span[0] = 1;
+        for (int i = 1; i <= LEVELS; i++) {
+            span[i] = span[i - 1] * WHEEL_SIZE;
+        }
+        for (int i = 0; i < LEVELS; i++) {
+            List<ArrayDeque<Entry<T>>> slots = new ArrayList<>(WHEEL_SIZE);
+            for (int j = 0; j < WHEEL_SIZE; j++) {
+                slots.add(new ArrayDeque<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedule item to come due at deadlineMillis (rounded up to the next tick).
+     * A deadline in the past comes due on the next advance.
+     */
+    public synchronized void schedule(T item, long deadlineMillis) {
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        place(new Entry<>(item, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Move time forward and return every item that came due
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+
+        while (currentTick < targetTick) {
+            long tick = ++currentTick;
+
+            // Cascade coarse slots that start now, highest level first
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if (tick % span[level] == 0) {
+                    cascade(levels.get(level).get((int) ((tick / span[level]) % WHEEL_SIZE)));
+                }
+            }
+            if (tick % span[LEVELS] == 0 && !overflow.isEmpty()) {
+                List<Entry<T>> pending = new ArrayList<>(overflow);
+                overflow.clear();
+                pending.forEach(this::place);
+            }
+
+            ArrayDeque<Entry<T>> slot = levels.get(0).get((int) (tick % WHEEL_SIZE));
+            for (Entry<T> entry : slot) {
+                due.add(entry.item());
+            }
+            slot.clear();
+        }
+
+        if (due.isEmpty()) {
+            return List.of();
+        }
+        List<T> result = new ArrayList<>(due);
+        size -= result.size();
+        due.clear();
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(ArrayDeque<Entry<T>> slot) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(slot);
+        slot.clear();
+        entries.forEach(this::place);
+    }
+
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry.item());
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < span[level + 1]) {
+                int index = (int) ((entry.deadlineTick() / span[level]) % WHEEL_SIZE);
+                levels.get(level).get(index).add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+}
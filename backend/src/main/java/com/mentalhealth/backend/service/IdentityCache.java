@@ -0,0 +1,230 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.UserRole;
+import com.mentalhealth.backend.repository.InstructorRepository;
+import com.mentalhealth.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of id -> (username, role) for users and instructors.
+ *
+ * Keys are (table, id) because user and instructor ids overlap. Entries
+ * expire after identity.cache.ttl-seconds and the least recently used entry
+ * is evicted once identity.cache.max-size is reached. Misses are cached too
+ * (as "not found"), so the user-then-instructor fallback costs nothing
+ * once warm. Registration invalidates the new id.
+ *
+ * Loads run outside the lock, so every invalidation bumps a generation
+ * counter and a load that started before it is not stored (it could hold
+ * the row as it was before the change). Invalidations are rare, so one
+ * counter is enough and needs no per-id bookkeeping.
+ */
+@Component
+public class IdentityCache {
+
+    /** Name and role of a cached identity */
+    public record Identity(String username, String role) {
+    }
+
+    private record Key(UserRole table, Long id) {
+    }
+
+    private record Entry(Identity identity, long expiresAt) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired(required = false)
+    private InstructorRepository instructorRepository;
+
+    @Value("${identity.cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${identity.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    // Bumped by every invalidation, under the entries lock
+    private final AtomicLong generation = new AtomicLong();
+
+    private final BoundedCache<Key, Entry> entries = new BoundedCache<>(() -> maxSize);
+
+    /**
+     * Look up a row in the users table, or null if there is none
+     */
+    public Identity getUser(Long id) {
+        return get(new Key(UserRole.USER, id));
+    }
+
+    /**
+     * Look up a row in the instructors table, or null if there is none
+     */
+    public Identity getInstructor(Long id) {
+        return get(new Key(UserRole.INSTRUCTOR, id));
+    }
+
+    /**
+     * Users table first, then instructors (message senders/receivers can be either)
+     */
+    public Identity getUserOrInstructor(Long id) {
+        Identity user = getUser(id);
+        return user != null ? user : getInstructor(id);
+    }
+
+    /**
+     * Bulk getUser(): found ids only, misses loaded with one query
+     */
+    public Map<Long, Identity> getAllUsers(Collection<Long> ids) {
+        return getAll(UserRole.USER, ids);
+    }
+
+    /**
+     * Bulk getInstructor(): found ids only, misses loaded with one query
+     */
+    public Map<Long, Identity> getAllInstructors(Collection<Long> ids) {
+        return getAll(UserRole.INSTRUCTOR, ids);
+    }
+
+    /**
+     * Bulk getUserOrInstructor(): at most one query per table
+     */
+    public Map<Long, Identity> getAllUsersOrInstructors(Collection<Long> ids) {
+        Map<Long, Identity> found = getAllUsers(ids);
+        Set<Long> remaining = new LinkedHashSet<>(ids);
+        remaining.removeAll(found.keySet());
+        if (!remaining.isEmpty()) {
+            found.putAll(getAllInstructors(remaining));
+        }
+        return found;
+    }
+
+    /**
+     * Username from the users table, or null
+     */
+    public String getUserName(Long id) {
+        Identity user = getUser(id);
+        return user != null ? user.username() : null;
+    }
+
+    public void invalidateUser(Long id) {
+        invalidate(new Key(UserRole.USER, id));
+    }
+
+    public void invalidateInstructor(Long id) {
+        invalidate(new Key(UserRole.INSTRUCTOR, id));
+    }
+
+    public void clear() {
+        entries.locked(() -> {
+            generation.incrementAndGet();
+            entries.clear();
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = entries.getStats();
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    private Identity get(Key key) {
+        if (key.id() == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long loadGeneration = generation.get();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt() > now) {
+            entries.hit();
+            return entry.identity();
+        }
+
+        // Load outside the lock so one slow query does not block every other lookup
+        entries.miss();
+        Identity identity = load(key);
+        entries.putIf(key, new Entry(identity, now + ttlSeconds * 1000),
+                () -> generation.get() == loadGeneration);
+        return identity;
+    }
+
+    private Map<Long, Identity> getAll(UserRole table, Collection<Long> ids) {
+        Map<Long, Identity> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+
+        long now = System.currentTimeMillis();
+        long loadGeneration = generation.get();
+        for (Long id : ids) {
+            if (id == null) {
+                continue;
+            }
+            Entry entry = entries.get(new Key(table, id));
+            if (entry != null && entry.expiresAt() > now) {
+                entries.hit();
+                if (entry.identity() != null) {
+                    found.put(id, entry.identity());
+                }
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        entries.misses(missing.size());
+        Map<Long, Identity> loaded = loadAll(table, missing);
+        long expiresAt = now + ttlSeconds * 1000;
+        for (Long id : missing) {
+            // Ids that were not found are cached as "not found" too
+            entries.putIf(new Key(table, id), new Entry(loaded.get(id), expiresAt),
+                    () -> generation.get() == loadGeneration);
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    private Identity load(Key key) {
+        if (key.table() == UserRole.USER) {
+            return userRepository.findById(key.id())
+                    .map(user -> new Identity(user.getUsername(),
+                            user.getRole() != null ? user.getRole().toString() : UserRole.USER.toString()))
+                    .orElse(null);
+        }
+
+        if (instructorRepository == null) {
+            return null;
+        }
+        return instructorRepository.findById(key.id())
+                .map(instructor -> new Identity(instructor.getUsername(), UserRole.INSTRUCTOR.toString()))
+                .orElse(null);
+    }
+
+    private Map<Long, Identity> loadAll(UserRole table, Collection<Long> ids) {
+        Map<Long, Identity> loaded = new HashMap<>();
+        if (table == UserRole.USER) {
+            userRepository.findAllById(ids).forEach(user -> loaded.put(user.getId(), new Identity(user.getUsername(),
+                    user.getRole() != null ? user.getRole().toString() : UserRole.USER.toString())));
+        } else if (instructorRepository != null) {
+            instructorRepository.findAllById(ids).forEach(instructor -> loaded.put(instructor.getId(),
+                    new Identity(instructor.getUsername(), UserRole.INSTRUCTOR.toString())));
+        }
+        return loaded;
+    }
+
+    private void invalidate(Key key) {
+        entries.locked(() -> {
+            generation.incrementAndGet();
+            entries.remove(key);
+        });
+    }
+}
@@ -1,20 +1,21 @@
 package com.mentalhealth.backend.service;
 
+import com.mentalhealth.backend.dto.ClientOverviewDTO;
+import com.mentalhealth.backend.model.ConversationSummary;
 import com.mentalhealth.backend.model.Instructor;
-import com.mentalhealth.backend.model.Message;
 import com.mentalhealth.backend.model.SessionRequest;
 import com.mentalhealth.backend.model.TherapySession;
 import com.mentalhealth.backend.model.User;
 import com.mentalhealth.backend.model.UserRole;
 import com.mentalhealth.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service for Instructor Dashboard functionality
@@ -44,12 +45,39 @@ public class InstructorService {
     @Autowired(required = false)
     private StressAssessmentRepository stressAssessmentRepository;
 
-    @Autowired(required = false)
-    private ZoomService zoomService;
-
     @Autowired(required = false)
     private NotificationService notificationService;
 
+    @Autowired
+    private ClientRosterRepository clientRosterRepository;
+
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Autowired
+    private DirectorySearchService directorySearchService;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private MeetingProvisioningService meetingProvisioningService;
+
+    @Autowired
+    private SessionReminderService sessionReminderService;
+
+    @Value("${instructor.max.clients:50}")
+    private int maxClients;
+
     /**
      * Get all instructors for session request selection dropdown
      */
@@ -62,39 +90,33 @@ public class InstructorService {
 
     /**
      * Get dashboard statistics for instructor
+     * Served from DashboardStatsCache; a miss costs one query
      */
     public Map<String, Integer> getDashboardStats(Long instructorId) {
+        Map<String, Integer> cached = dashboardStatsCache.get(instructorId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = dashboardStatsCache.version(instructorId);
+
         Map<String, Integer> stats = new HashMap<>();
 
         try {
-            // Count pending session requests
-            int pendingRequests = (int) sessionRequestRepository
-                    .findByInstructorIdAndStatusOrderByCreatedAtDesc(instructorId, SessionRequest.RequestStatus.PENDING)
-                    .size();
-
-            // Count today's sessions
             LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-            LocalDateTime endOfDay = startOfDay.plusDays(1);
-            List<TherapySession> todaySessions = therapySessionRepository
-                    .findByInstructorIdAndSessionDateBetween(instructorId, startOfDay, endOfDay);
+            TherapySessionRepository.DashboardCounts counts = therapySessionRepository
+                    .getDashboardCounts(instructorId, startOfDay, startOfDay.plusDays(1));
 
-            // Count total unique clients
-            List<TherapySession> allSessions = therapySessionRepository
-                    .findByInstructorId(instructorId);
-            Set<Long> uniqueClients = allSessions.stream()
-                    .map(TherapySession::getClientId)
-                    .collect(Collectors.toSet());
+            int totalClients = (int) counts.getTotalClients();
 
-            // Available slots (customize this based on your availability logic)
-            int availableSlots = 8; // Default value
+            stats.put("pendingRequests", (int) counts.getPendingRequests());
+            stats.put("todaySessions", (int) counts.getTodaySessions());
+            stats.put("totalClients", totalClients);
+            stats.put("availableSlots", Math.max(0, maxClients - totalClients));
 
-            stats.put("pendingRequests", pendingRequests);
-            stats.put("todaySessions", todaySessions.size());
-            stats.put("totalClients", uniqueClients.size());
-            stats.put("availableSlots", availableSlots);
+            dashboardStatsCache.put(instructorId, version, stats);
 
         } catch (Exception e) {
-            // Return default values if error
+            // Return default values if error (not cached)
             stats.put("pendingRequests", 0);
             stats.put("todaySessions", 0);
             stats.put("totalClients", 0);
@@ -108,100 +130,88 @@ public class InstructorService {
      * Get all clients (ALL users with role='USER') with their overview
      * NO CONSENT CHECKING - Instructors can see all clients
      */
-    public List<Map<String, Object>> getAllClients(Long instructorId) {
-        List<Map<String, Object>> clients = new ArrayList<>();
+    public List<ClientOverviewDTO> getAllClients(Long instructorId) {
+        return getClients(instructorId, "name", true, -1, 0);
+    }
 
+    /**
+     * Get one page of clients with their overview, computed in a single query
+     *
+     * @param sortKey   name, sessions, lastSession, mood or stress
+     * @param limit     page size, or a negative value for every client
+     * @param offset    number of clients to skip
+     */
+    public List<ClientOverviewDTO> getClients(Long instructorId, String sortKey, boolean ascending,
+                                              int limit, int offset) {
         try {
-            // Get ALL users with role=USER (all clients in the system)
-            List<User> allUsers = userRepository.findByRole(UserRole.USER);
-
-            for (User user : allUsers) {
-                Map<String, Object> clientOverview = new HashMap<>();
-                clientOverview.put("clientId", user.getId());
-                clientOverview.put("clientName", user.getUsername());
-
-                // Calculate average mood from mood logs (if available)
-                Double avgMood = calculateAverageMood(user.getId());
-                clientOverview.put("averageMood", avgMood);
-
-                // Get latest stress level (if available)
-                String stressLevel = getLatestStressLevel(user.getId());
-                clientOverview.put("stressLevel", stressLevel);
-
-                // Get session count for this client
-                List<TherapySession> clientSessions = therapySessionRepository
-                        .findByClientIdOrderBySessionDateDesc(user.getId());
-                clientOverview.put("totalSessions", clientSessions.size());
-
-                // Get last session date
-                String lastSession = null;
-                if (!clientSessions.isEmpty()) {
-                    lastSession = clientSessions.get(0).getSessionDate()
-                            .format(DateTimeFormatter.ofPattern("MMM dd, yyyy"));
-                }
-                clientOverview.put("lastSessionDate", lastSession);
-
-                // No consent needed - removed consent system
-                clientOverview.put("consentGranted", true);
-
-                clients.add(clientOverview);
-            }
-
+            return clientRosterRepository.findClients(sortKey, ascending, limit, offset);
         } catch (Exception e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
+    }
 
-        return clients;
+    /**
+     * Total number of clients, used for paging
+     */
+    public long countClients() {
+        return clientRosterRepository.countClients();
     }
 
     /**
      * Search clients by name
+     * Matching runs against the in-memory directory index; only the matched
+     * page is then loaded from client_overview.
+     *
+     * @param limit  page size, or a negative value for every match
+     * @param offset number of matches to skip
      */
-    public List<Map<String, Object>> searchClients(Long instructorId, String searchTerm) {
-        List<Map<String, Object>> allClients = getAllClients(instructorId);
-
+    public List<ClientOverviewDTO> searchClients(Long instructorId, String searchTerm, int limit, int offset) {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return allClients;
+            return getClients(instructorId, "name", true, limit, offset);
+        }
+
+        List<Long> clientIds = new ArrayList<>();
+        for (DirectorySearchService.DirectoryEntry entry : directorySearchService.search(
+                searchTerm, DirectorySearchService.Source.USER, UserRole.USER.toString(), offset, limit)) {
+            clientIds.add(entry.id());
         }
 
-        String lowerSearch = searchTerm.toLowerCase();
-        return allClients.stream()
-                .filter(client -> {
-                    String name = (String) client.get("clientName");
-                    return name != null && name.toLowerCase().contains(lowerSearch);
-                })
-                .collect(Collectors.toList());
+        try {
+            return clientRosterRepository.findClientsByIds(clientIds);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
     }
 
     /**
      * Get analytics data for specified time range
+     * Sums the instructor's daily rollup rows (at most one per day in range)
      */
     public Map<String, Object> getAnalytics(Long instructorId, String timeRange) {
         Map<String, Object> analytics = new HashMap<>();
 
         try {
-            LocalDateTime startDate = calculateStartDate(timeRange);
+            LocalDate startDate = calculateStartDate(timeRange).toLocalDate();
 
-            // Get sessions in time range
-            List<TherapySession> sessions = therapySessionRepository
-                    .findByInstructorIdAndSessionDateAfter(instructorId, startDate);
+            InstructorDailyStatsRepository.StatsTotals totals =
+                    instructorStatsService.getTotalsSince(instructorId, startDate);
 
-            // Total sessions
-            analytics.put("totalSessions", sessions.size());
+            analytics.put("totalSessions", (int) totals.getSessionsScheduled());
+            analytics.put("completedSessions", (int) totals.getSessionsCompleted());
+            analytics.put("cancelledSessions", (int) totals.getSessionsCancelled());
 
-            // Completed sessions
-            long completedSessions = sessions.stream()
-                    .filter(s -> s.getStatus() == TherapySession.SessionStatus.COMPLETED)
-                    .count();
-            analytics.put("completedSessions", (int) completedSessions);
-
-            // Average rating (implement if you have session feedback)
-            Double avgRating = calculateAverageRating(instructorId, startDate);
+            // Average rating of rated sessions (null when nothing has been rated yet)
+            Double avgRating = totals.getRatingCount() > 0
+                    ? Math.round(totals.getRatingSum() * 10.0 / totals.getRatingCount()) / 10.0
+                    : null;
             analytics.put("avgRating", avgRating);
 
         } catch (Exception e) {
             analytics.put("totalSessions", 0);
             analytics.put("completedSessions", 0);
+            analytics.put("cancelledSessions", 0);
             analytics.put("avgRating", 0.0);
         }
 
@@ -225,36 +235,29 @@ public class InstructorService {
                 System.out.println("   Check your users table - make sure users have role='USER'");
             }
 
+            // One row per conversation the instructor has, instead of each client's full history
+            Map<Long, ConversationSummary> summariesByClient = new HashMap<>();
+            for (ConversationSummary summary : conversationSummaryService.getConversations(instructorId)) {
+                summariesByClient.put(summary.getPartnerId(instructorId), summary);
+            }
+
             for (User client : allClients) {
                 Map<String, Object> conv = new HashMap<>();
                 conv.put("clientId", client.getId());
                 conv.put("clientName", client.getUsername());
 
-                System.out.println("   Processing client: " + client.getUsername() + " (ID: " + client.getId() + ")");
-
-                // Get message history between instructor and this client
-                List<Message> conversationMessages = messageRepository
-                        .findConversationByInstructorAndClient(instructorId, client.getId());
+                ConversationSummary summary = summariesByClient.get(client.getId());
 
                 // Add last message info if exists
-                if (!conversationMessages.isEmpty()) {
-                    Message lastMessage = conversationMessages.get(0);
-                    conv.put("lastMessage", lastMessage.getMessageText());
-                    conv.put("lastMessageTime", lastMessage.getSentAt().toString());
-
-                    // Count unread messages from this client
-                    long unreadCount = conversationMessages.stream()
-                            .filter(m -> m.getReceiverId().equals(instructorId) && m.getReadAt() == null)
-                            .count();
-                    conv.put("unreadCount", (int) unreadCount);
-
-                    System.out.println("      Last message: " + lastMessage.getMessageText());
+                if (summary != null && summary.getLastMessageId() != null) {
+                    conv.put("lastMessage", summary.getLastMessagePreview());
+                    conv.put("lastMessageTime", summary.getLastMessageTime() != null
+                            ? summary.getLastMessageTime().toString() : null);
+                    conv.put("unreadCount", summary.getUnreadFor(instructorId));
                 } else {
                     conv.put("lastMessage", "No messages yet");
                     conv.put("lastMessageTime", null);
                     conv.put("unreadCount", 0);
-
-                    System.out.println("      No messages yet - but showing client");
                 }
 
                 conversations.add(conv);
@@ -272,33 +275,6 @@ public class InstructorService {
 
     // ========== Helper Methods ==========
 
-    /**
-     * Calculate average mood for client (customize based on your mood_logs table)
-     */
-    private Double calculateAverageMood(Long clientId) {
-        // TODO: Implement actual mood calculation from mood_logs table
-        // Example:
-        // List<MoodLog> moods = moodLogRepository.findTop30ByUserIdOrderByCreatedAtDesc(clientId);
-        // if (moods.isEmpty()) return null;
-        // return moods.stream().mapToDouble(MoodLog::getMoodValue).average().orElse(0.0);
-
-        return 3.5; // Placeholder
-    }
-
-    /**
-     * Get latest stress level for client (customize based on your stress_assessments table)
-     */
-    private String getLatestStressLevel(Long clientId) {
-        // TODO: Implement actual stress level lookup
-        // Example:
-        // StressAssessment latest = stressAssessmentRepository
-        //     .findTopByUserIdOrderByCreatedAtDesc(clientId);
-        // if (latest == null) return "N/A";
-        // return latest.getStressLevel();
-
-        return "Moderate"; // Placeholder
-    }
-
     /**
      * Get formatted last session date
      */
@@ -320,20 +296,6 @@ public class InstructorService {
         return lastSession.getSessionDate().format(formatter);
     }
 
-    /**
-     * Calculate average rating (customize based on your session_feedback table)
-     */
-    private Double calculateAverageRating(Long instructorId, LocalDateTime startDate) {
-        // TODO: Implement actual rating calculation from session_feedback table
-        // Example:
-        // List<SessionFeedback> feedback = sessionFeedbackRepository
-        //     .findByInstructorIdAndCreatedAtAfter(instructorId, startDate);
-        // if (feedback.isEmpty()) return null;
-        // return feedback.stream().mapToDouble(SessionFeedback::getRating).average().orElse(0.0);
-
-        return 4.5; // Placeholder
-    }
-
     /**
      * Calculate start date based on time range string
      */
@@ -415,44 +377,14 @@ public class InstructorService {
             // Get client name
             String clientName = request.getClientName();
             if (clientName == null || clientName.isEmpty()) {
-                clientName = userRepository.findById(request.getClientId())
-                    .map(User::getUsername)
+                clientName = Optional.ofNullable(identityCache.getUserName(request.getClientId()))
                     .orElse("Client");
             }
 
-            // Step 2: Generate Zoom link
-            System.out.println("🎥 Step 2: Creating Zoom meeting...");
-            String generatedZoomLink = null;
-
-            if (zoomService != null) {
-                try {
-                    String meetingTopic = "Therapy Session - " + clientName;
-                    int duration = 60;
-
-                    generatedZoomLink = zoomService.createMeeting(
-                        meetingTopic,
-                        request.getRequestedDate(),
-                        duration
-                    );
-
-                    System.out.println("✅ Zoom meeting created!");
-                    System.out.println("   Join URL: " + generatedZoomLink);
-                    result.put("zoomCreationMethod", "automatic");
-
-                } catch (Exception zoomError) {
-                    System.err.println("⚠️ Zoom API failed: " + zoomError.getMessage());
-
-                    // Fallback to TEST link
-                    generatedZoomLink = "https://zoom.us/j/TEST" + System.currentTimeMillis() + "?pwd=TESTPASSWORD";
-                    result.put("zoomCreationMethod", "test_fallback");
-                    System.out.println("⚠️ Using TEST link: " + generatedZoomLink);
-                }
-            } else {
-                // No Zoom service - use TEST link
-                generatedZoomLink = "https://zoom.us/j/TEST" + System.currentTimeMillis() + "?pwd=TESTPASSWORD";
-                result.put("zoomCreationMethod", "test_no_api");
-                System.out.println("⚠️ Zoom API not configured, using TEST link: " + generatedZoomLink);
-            }
+            // Step 2: Zoom link - use the instructor's own link if given,
+            // otherwise the meeting is created in the background after commit
+            boolean manualLink = zoomLink != null && !zoomLink.isBlank();
+            result.put("zoomCreationMethod", manualLink ? "manual" : "async");
 
             // Step 3: Create TherapySession with zoom link
             System.out.println("💾 Step 3: Creating therapy session...");
@@ -462,22 +394,27 @@ public class InstructorService {
             session.setInstructorId(request.getInstructorId());
             session.setSessionDate(request.getRequestedDate());
             session.setSessionType("Therapy Session");
-            session.setZoomLink(generatedZoomLink);
             session.setStatus(TherapySession.SessionStatus.SCHEDULED);
             session.setDurationMinutes(60);
             session.setCreatedAt(LocalDateTime.now());
             session.setUpdatedAt(LocalDateTime.now());
+            if (manualLink) {
+                meetingProvisioningService.useManualLink(session, zoomLink);
+            } else {
+                meetingProvisioningService.provisionLater(session);
+            }
 
             TherapySession savedSession = therapySessionRepository.save(session);
+            meetingProvisioningService.startAfterCommit();
+            dashboardStatsCache.invalidate(savedSession.getInstructorId());
+            instructorStatsService.recordSessionCreated(savedSession);
+            sessionReminderService.sessionChanged(savedSession);
 
             System.out.println("✅ Therapy session CREATED!");
             System.out.println("   Session ID: " + savedSession.getId());
-            System.out.println("   Zoom Link: " + savedSession.getZoomLink());
+            System.out.println("   Meeting: " + savedSession.getMeetingStatus());
 
-            // Verify zoom link was saved
-            if (savedSession.getZoomLink() == null || savedSession.getZoomLink().isEmpty()) {
-                System.err.println("❌❌❌ CRITICAL: Zoom link NULL in therapy_session! ❌❌❌");
-            }
+            clientOverviewService.recordSession(savedSession.getClientId(), savedSession.getSessionDate());
 
             // Step 4: DELETE the session request
             System.out.println("🗑️ Step 4: Deleting session request...");
@@ -500,7 +437,9 @@ public class InstructorService {
                     request.getClientId(),
                     "SESSION_ACCEPTED",
                     "Session Accepted! 🎉",
-                    "Your therapy session has been scheduled. Check your sessions tab to join.",
+                    manualLink
+                        ? "Your therapy session has been scheduled. Check your sessions tab to join."
+                        : "Your therapy session has been scheduled. We'll notify you when the Zoom link is ready.",
                     savedSession.getId()
                 );
                 System.out.println("✅ Notification sent");
@@ -510,7 +449,8 @@ public class InstructorService {
             result.put("success", true);
             result.put("message", "Session accepted and created successfully!");
             result.put("sessionId", savedSession.getId());
-            result.put("zoomLink", generatedZoomLink);
+            result.put("zoomLink", savedSession.getZoomLink());
+            result.put("meetingStatus", savedSession.getMeetingStatus().toString());
             result.put("sessionDate", savedSession.getSessionDate().toString());
             result.put("clientName", clientName);
 
@@ -518,7 +458,7 @@ public class InstructorService {
             System.out.println("✅ SUCCESS - NEW WORKFLOW COMPLETE");
             System.out.println("========================================");
             System.out.println("   Therapy Session ID: " + savedSession.getId());
-            System.out.println("   Zoom Link: " + generatedZoomLink);
+            System.out.println("   Meeting: " + savedSession.getMeetingStatus());
             System.out.println("   Request DELETED from session_requests");
             System.out.println("========================================");
 
@@ -551,6 +491,7 @@ public class InstructorService {
             request.setStatus(SessionRequest.RequestStatus.DECLINED);
             request.setUpdatedAt(LocalDateTime.now());
             sessionRequestRepository.save(request);
+            dashboardStatsCache.invalidate(request.getInstructorId());
 
             // Create notification for user
             createNotificationForUser(request.getClientId(),
@@ -0,0 +1,100 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.TherapySession;
+import com.mentalhealth.backend.model.TherapySession.SessionStatus;
+import com.mentalhealth.backend.repository.InstructorDailyStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps instructor_daily_stats in step with therapy_sessions.
+ * Every change is applied as a delta on the session's day, so analytics
+ * only ever sum rollup rows.
+ */
+@Service
+public class InstructorStatsService {
+
+    @Autowired
+    private InstructorDailyStatsRepository instructorDailyStatsRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Count a newly created session
+     */
+    @Transactional
+    public void recordSessionCreated(TherapySession session) {
+        Integer rating = session.getRating();
+        instructorDailyStatsRepository.applyDelta(
+                session.getInstructorId(),
+                statDate(session),
+                1,
+                session.getStatus() == SessionStatus.COMPLETED ? 1 : 0,
+                session.getStatus() == SessionStatus.CANCELLED ? 1 : 0,
+                rating != null ? rating : 0,
+                rating != null ? 1 : 0
+        );
+    }
+
+    /**
+     * Move a session between the completed/cancelled counters
+     */
+    @Transactional
+    public void recordStatusChange(TherapySession session, SessionStatus oldStatus, SessionStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+
+        int completed = (newStatus == SessionStatus.COMPLETED ? 1 : 0) - (oldStatus == SessionStatus.COMPLETED ? 1 : 0);
+        int cancelled = (newStatus == SessionStatus.CANCELLED ? 1 : 0) - (oldStatus == SessionStatus.CANCELLED ? 1 : 0);
+
+        if (completed != 0 || cancelled != 0) {
+            instructorDailyStatsRepository.applyDelta(
+                    session.getInstructorId(), statDate(session), 0, completed, cancelled, 0, 0);
+        }
+    }
+
+    /**
+     * Replace a session's previous rating (if any) with the new one
+     */
+    @Transactional
+    public void recordRatingChange(TherapySession session, Integer oldRating, Integer newRating) {
+        long ratingSum = (newRating != null ? newRating : 0) - (oldRating != null ? oldRating : 0);
+        int ratingCount = (newRating != null ? 1 : 0) - (oldRating != null ? 1 : 0);
+
+        if (ratingSum != 0 || ratingCount != 0) {
+            instructorDailyStatsRepository.applyDelta(
+                    session.getInstructorId(), statDate(session), 0, 0, 0, ratingSum, ratingCount);
+        }
+    }
+
+    public InstructorDailyStatsRepository.StatsTotals getTotalsSince(Long instructorId, LocalDate fromDate) {
+        return instructorDailyStatsRepository.sumSince(instructorId, fromDate);
+    }
+
+    /**
+     * Backfill rollups for sessions created before this table existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (instructorDailyStatsRepository.count() == 0) {
+                Integer rows = transactionTemplate.execute(status -> instructorDailyStatsRepository.rebuildAll());
+                System.out.println("✅ instructor_daily_stats built with " + rows + " rows");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not initialize instructor_daily_stats: " + e.getMessage());
+        }
+    }
+
+    private LocalDate statDate(TherapySession session) {
+        return session.getSessionDate() != null ? session.getSessionDate().toLocalDate() : LocalDate.now();
+    }
+}
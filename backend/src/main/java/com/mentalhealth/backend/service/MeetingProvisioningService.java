@@ -0,0 +1,245 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.TherapySession;
+import com.mentalhealth.backend.model.TherapySession.MeetingStatus;
+import com.mentalhealth.backend.repository.SessionRequestRepository;
+import com.mentalhealth.backend.repository.TherapySessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates Zoom meetings for accepted sessions in the background.
+ *
+ * Accepting a session only stores it with meeting_status = PROVISIONING and
+ * commits. This service then claims due sessions (FOR UPDATE SKIP LOCKED),
+ * calls Zoom on virtual threads, attaches the join URL and notifies the
+ * client with SESSION_LINK_READY. Failed calls are retried with exponential
+ * backoff; after meeting.provisioning.max-attempts the session is marked
+ * FAILED and the instructor is asked to add a link manually.
+ */
+@Service
+public class MeetingProvisioningService {
+
+    public static final int MEETING_DURATION_MINUTES = 60;
+
+    @Autowired
+    private TherapySessionRepository therapySessionRepository;
+
+    @Autowired
+    private SessionRequestRepository sessionRequestRepository;
+
+    @Autowired(required = false)
+    private ZoomService zoomService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${meeting.provisioning.batch-size:20}")
+    private int batchSize;
+
+    @Value("${meeting.provisioning.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${meeting.provisioning.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${meeting.provisioning.max-backoff-seconds:600}")
+    private long maxBackoffSeconds;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(false);
+
+    /**
+     * Mark a session as waiting for a Zoom meeting. Call before the session
+     * is saved, then call startAfterCommit() once it is.
+     */
+    public void provisionLater(TherapySession session) {
+        session.setZoomLink(null);
+        session.setMeetingStatus(MeetingStatus.PROVISIONING);
+        session.setMeetingAttempts(0);
+        session.setMeetingNextAttemptAt(LocalDateTime.now());
+    }
+
+    /**
+     * Take a session that is no longer scheduled (e.g. cancelled) off the
+     * queue; a link that was already attached is kept
+     */
+    public void stopProvisioning(TherapySession session) {
+        if (session.getMeetingStatus() == MeetingStatus.PROVISIONING) {
+            session.setMeetingStatus(null);
+            session.setMeetingNextAttemptAt(null);
+        }
+    }
+
+    /**
+     * Wake the worker once the saved session is visible to it
+     * (immediately when there is no surrounding transaction)
+     */
+    public void startAfterCommit() {
+        TransactionCallbacks.runAfterCommit(this::wakeUp);
+    }
+
+    /**
+     * Mark a session as having a link supplied by the instructor
+     */
+    public void useManualLink(TherapySession session, String zoomLink) {
+        session.setZoomLink(zoomLink);
+        session.setMeetingStatus(MeetingStatus.READY);
+        session.setMeetingNextAttemptAt(null);
+    }
+
+    public void wakeUp() {
+        wakeRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            virtualThreadExecutor.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Picks up retries and sessions left behind by a restart
+     */
+    @Scheduled(fixedDelayString = "${meeting.provisioning.poll-interval-ms:15000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("provisioning", therapySessionRepository.countByMeetingStatus(MeetingStatus.PROVISIONING));
+        stats.put("failed", therapySessionRepository.countByMeetingStatus(MeetingStatus.FAILED));
+        stats.put("zoomConfigured", zoomService != null);
+        if (zoomService != null) {
+            stats.put("zoomCircuit", zoomService.getCircuitState().toString());
+        }
+        return stats;
+    }
+
+    private void drainLoop() {
+        try {
+            do {
+                wakeRequested.set(false);
+                while (drainBatch() == batchSize) {
+                    // Full batch: there is probably more waiting
+                }
+            } while (wakeRequested.get());
+        } catch (Exception e) {
+            System.err.println("❌ ERROR provisioning meetings: " + e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+
+        if (wakeRequested.get() && draining.compareAndSet(false, true)) {
+            virtualThreadExecutor.execute(this::drainLoop);
+        }
+    }
+
+    private int drainBatch() throws InterruptedException {
+        List<TherapySession> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<TherapySession> due = therapySessionRepository.findMeetingsDueForUpdate(now, batchSize);
+            if (!due.isEmpty()) {
+                therapySessionRepository.leaseMeetings(due.stream().map(TherapySession::getId).toList(),
+                        now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>(claimed.size());
+        for (TherapySession session : claimed) {
+            tasks.add(() -> {
+                provision(session);
+                return null;
+            });
+        }
+        virtualThreadExecutor.invokeAll(tasks);
+        return claimed.size();
+    }
+
+    private void provision(TherapySession session) {
+        // attempts was incremented by the lease
+        int attempt = (session.getMeetingAttempts() != null ? session.getMeetingAttempts() : 0) + 1;
+
+        if (zoomService == null) {
+            fail(session, "Zoom API is not configured");
+            return;
+        }
+
+        String joinUrl;
+        try {
+            String clientName = session.getClientName() != null ? session.getClientName() : "Client";
+            joinUrl = zoomService.createMeeting(
+                    "Therapy Session - " + clientName,
+                    session.getSessionDate(),
+                    session.getDurationMinutes() != null ? session.getDurationMinutes() : MEETING_DURATION_MINUTES
+            );
+        } catch (Exception e) {
+            System.err.println("⚠️ Zoom meeting for session " + session.getId()
+                    + " failed (attempt " + attempt + "/" + maxAttempts + "): " + e.getMessage());
+            if (attempt >= maxAttempts) {
+                fail(session, e.getMessage());
+            } else {
+                long delay = Math.min(maxBackoffSeconds, 5L << Math.min(attempt - 1, 16));
+                transactionTemplate.executeWithoutResult(status ->
+                        therapySessionRepository.rescheduleMeeting(session.getId(), LocalDateTime.now().plusSeconds(delay)));
+            }
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (therapySessionRepository.completeMeeting(session.getId(), joinUrl, LocalDateTime.now()) == 0) {
+                // Cancelled or given a manual link meanwhile; the meeting is simply unused
+                return;
+            }
+            if (session.getSourceRequestId() != null) {
+                sessionRequestRepository.updateZoomLink(session.getSourceRequestId(), joinUrl);
+            }
+
+            notificationService.sendNotification(
+                    session.getClientId(),
+                    "SESSION_LINK_READY",
+                    "Your Session Link Is Ready 🎥",
+                    "The Zoom link for your session on " + session.getSessionDate() + " is ready. Check your sessions tab to join.",
+                    session.getId()
+            );
+        });
+        System.out.println("✅ Zoom meeting ready for session " + session.getId() + ": " + joinUrl);
+    }
+
+    private void fail(TherapySession session, String reason) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (therapySessionRepository.failMeeting(session.getId(), LocalDateTime.now()) == 0) {
+                return;
+            }
+            notificationService.sendNotification(
+                    session.getInstructorId(),
+                    "SESSION_LINK_FAILED",
+                    "Zoom Link Could Not Be Created ⚠️",
+                    "No Zoom meeting could be created for the session with " + session.getClientName()
+                            + " on " + session.getSessionDate() + ". Please add a link manually.",
+                    session.getId()
+            );
+        });
+        System.err.println("❌ Zoom provisioning gave up for session " + session.getId() + ": " + reason);
+    }
+}
@@ -0,0 +1,320 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Message;
+import com.mentalhealth.backend.model.MessageOutbox;
+import com.mentalhealth.backend.model.Notification;
+import com.mentalhealth.backend.repository.MessageOutboxRepository;
+import com.mentalhealth.backend.repository.MessageRepository;
+import com.mentalhealth.backend.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for message side effects.
+ *
+ * sendMessage only inserts the message and an outbox row; this service
+ * drains the outbox in batches:
+ *   1. claim due rows (FOR UPDATE SKIP LOCKED) and lease them,
+ *   2. create the missing notification rows and record their ids, in one transaction,
+ *   3. push message + notification frames, one virtual thread per receiver
+ *      so each receiver still sees its messages in order,
+ *   4. delete delivered rows, reschedule failed ones with exponential backoff.
+ *
+ * A failure reschedules that receiver's remaining rows, and the claim skips
+ * any row with an older row for the same receiver still backed off or
+ * leased, so newer messages wait for the retry instead of overtaking it.
+ * (Two instances claiming at the same moment can still interleave.)
+ *
+ * Delivery is at-least-once: a crash between push and delete repeats the
+ * push, never the notification row. Rows that fail message.outbox.max-attempts
+ * times stay in the table for inspection.
+ */
+@Service
+public class MessageOutboxService {
+
+    @Autowired
+    private MessageOutboxRepository outboxRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${message.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${message.outbox.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${message.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${message.outbox.max-backoff-seconds:300}")
+    private long maxBackoffSeconds;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(false);
+
+    /**
+     * Queue the side effects of a message. Runs in the sender's transaction;
+     * the worker is woken once it commits.
+     */
+    public void enqueue(Message message) {
+        LocalDateTime now = LocalDateTime.now();
+
+        MessageOutbox entry = new MessageOutbox();
+        entry.setMessageId(message.getId());
+        entry.setReceiverId(message.getReceiverId());
+        entry.setAttempts(0);
+        entry.setNextAttemptAt(now);
+        entry.setCreatedAt(now);
+        outboxRepository.save(entry);
+
+        TransactionCallbacks.runAfterCommit(this::wakeUp);
+    }
+
+    /**
+     * Start a drain on a virtual thread unless one is already running;
+     * a running drain picks up the request before it stops.
+     */
+    public void wakeUp() {
+        wakeRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            virtualThreadExecutor.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Safety net for retries, rows whose lease expired and rows written by
+     * another instance
+     */
+    @Scheduled(fixedDelayString = "${message.outbox.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", outboxRepository.count());
+        stats.put("dead", outboxRepository.countDead(maxAttempts));
+        stats.put("draining", draining.get());
+        return stats;
+    }
+
+    private void drainLoop() {
+        try {
+            do {
+                wakeRequested.set(false);
+                while (drainBatch() == batchSize) {
+                    // Full batch: there is probably more waiting
+                }
+            } while (wakeRequested.get());
+        } catch (Exception e) {
+            System.err.println("❌ ERROR draining message outbox: " + e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+
+        // A wake-up may have arrived between the last check and the reset above
+        if (wakeRequested.get() && draining.compareAndSet(false, true)) {
+            virtualThreadExecutor.execute(this::drainLoop);
+        }
+    }
+
+    /**
+     * Process one batch
+     *
+     * @return number of rows claimed
+     */
+    private int drainBatch() {
+        List<MessageOutbox> claimed = claim();
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Message> messages = messageRepository
+                .findAllById(claimed.stream().map(MessageOutbox::getMessageId).toList())
+                .stream()
+                .collect(Collectors.toMap(Message::getId, Function.identity()));
+
+        // Message deleted before delivery: nothing left to do
+        List<Long> orphaned = new ArrayList<>();
+        List<MessageOutbox> deliverable = new ArrayList<>();
+        for (MessageOutbox entry : claimed) {
+            if (messages.containsKey(entry.getMessageId())) {
+                deliverable.add(entry);
+            } else {
+                orphaned.add(entry.getId());
+            }
+        }
+        if (!orphaned.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(orphaned);
+        }
+
+        Map<Long, Notification> notifications;
+        try {
+            notifications = ensureNotifications(deliverable, messages);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not create message notifications: " + e.getMessage());
+            deliverable.forEach(entry -> reschedule(entry, e));
+            return claimed.size();
+        }
+
+        List<Long> delivered = push(deliverable, messages, notifications);
+        if (!delivered.isEmpty()) {
+            outboxRepository.deleteAllByIdInBatch(delivered);
+        }
+        return claimed.size();
+    }
+
+    private List<MessageOutbox> claim() {
+        List<MessageOutbox> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<MessageOutbox> due = outboxRepository.findDueForUpdate(now, maxAttempts, batchSize);
+            if (!due.isEmpty()) {
+                outboxRepository.lease(due.stream().map(MessageOutbox::getId).toList(),
+                        now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Create notification rows for entries that do not have one yet and load
+     * the ones created by an earlier attempt. Creation and recording the id
+     * commit together, so a retry never creates a second notification.
+     *
+     * @return notifications keyed by outbox id
+     */
+    private Map<Long, Notification> ensureNotifications(List<MessageOutbox> entries, Map<Long, Message> messages) {
+        Map<Long, Notification> byOutboxId = new HashMap<>();
+
+        List<MessageOutbox> missing = entries.stream().filter(e -> e.getNotificationId() == null).toList();
+        if (!missing.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<Long, Notification> created = notificationService.createMessageNotifications(
+                        missing.stream().map(e -> messages.get(e.getMessageId())).toList());
+                for (MessageOutbox entry : missing) {
+                    Notification notification = created.get(entry.getMessageId());
+                    outboxRepository.setNotificationId(entry.getId(), notification.getId());
+                    byOutboxId.put(entry.getId(), notification);
+                }
+            });
+        }
+
+        List<Long> existingIds = entries.stream()
+                .map(MessageOutbox::getNotificationId)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!existingIds.isEmpty()) {
+            Map<Long, Notification> existing = notificationRepository.findAllById(existingIds).stream()
+                    .collect(Collectors.toMap(Notification::getId, Function.identity()));
+            for (MessageOutbox entry : entries) {
+                if (entry.getNotificationId() != null && existing.containsKey(entry.getNotificationId())) {
+                    byOutboxId.put(entry.getId(), existing.get(entry.getNotificationId()));
+                }
+            }
+        }
+        return byOutboxId;
+    }
+
+    /**
+     * Push frames, one virtual thread per receiver. A failure stops that
+     * receiver's remaining entries so they are retried in order.
+     *
+     * @return ids of delivered outbox rows
+     */
+    private List<Long> push(List<MessageOutbox> entries, Map<Long, Message> messages,
+                            Map<Long, Notification> notifications) {
+        Map<Long, List<MessageOutbox>> byReceiver = entries.stream()
+                .collect(Collectors.groupingBy(MessageOutbox::getReceiverId, LinkedHashMap::new, Collectors.toList()));
+
+        List<Callable<List<Long>>> tasks = new ArrayList<>(byReceiver.size());
+        for (List<MessageOutbox> receiverEntries : byReceiver.values()) {
+            tasks.add(() -> pushInOrder(receiverEntries, messages, notifications));
+        }
+
+        List<Long> delivered = new ArrayList<>(entries.size());
+        try {
+            for (Future<List<Long>> future : virtualThreadExecutor.invokeAll(tasks)) {
+                delivered.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("⚠️ Outbox push failed: " + e.getMessage());
+        }
+        return delivered;
+    }
+
+    private List<Long> pushInOrder(List<MessageOutbox> entries, Map<Long, Message> messages,
+                                   Map<Long, Notification> notifications) {
+        List<Long> delivered = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            MessageOutbox entry = entries.get(i);
+            try {
+                String receiver = entry.getReceiverId().toString();
+                messagingTemplate.convertAndSendToUser(receiver, "/queue/messages", messages.get(entry.getMessageId()));
+
+                Notification notification = notifications.get(entry.getId());
+                if (notification != null) {
+                    messagingTemplate.convertAndSendToUser(receiver, "/queue/notifications", notification);
+                }
+                delivered.add(entry.getId());
+            } catch (Exception e) {
+                System.err.println("⚠️ WebSocket error for user " + entry.getReceiverId() + ": " + e.getMessage());
+                for (MessageOutbox remaining : entries.subList(i, entries.size())) {
+                    reschedule(remaining, e);
+                }
+                break;
+            }
+        }
+        return delivered;
+    }
+
+    private void reschedule(MessageOutbox entry, Exception error) {
+        // attempts was already incremented by the lease: 1s, 2s, 4s, ... capped
+        int attempt = Math.max(1, entry.getAttempts() + 1);
+        long delay = Math.min(maxBackoffSeconds, 1L << Math.min(attempt - 1, 20));
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        if (message.length() > 500) {
+            message = message.substring(0, 500);
+        }
+
+        try {
+            String lastError = message;
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxRepository.reschedule(entry.getId(), LocalDateTime.now().plusSeconds(delay), lastError));
+        } catch (Exception e) {
+            // Lease expiry will make the row due again
+            System.err.println("⚠️ Could not reschedule outbox row " + entry.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.mentalhealth.backend.service;
 
 import com.mentalhealth.backend.dto.ConversationSummaryDTO;
+import com.mentalhealth.backend.model.ConversationSummary;
 import com.mentalhealth.backend.model.Message;
 import com.mentalhealth.backend.repository.MessageRepository;
 import com.mentalhealth.backend.repository.TherapySessionRepository;
 import com.mentalhealth.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,16 +23,31 @@ public class MessageService {
     private UserRepository userRepository;
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private TherapySessionRepository therapySessionRepository;
+
+    @Autowired(required = false)
+    private com.mentalhealth.backend.repository.InstructorRepository instructorRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private ConversationSummaryService conversationSummaryService;
 
     @Autowired
-    private TherapySessionRepository therapySessionRepository;
+    private DirectorySearchService directorySearchService;
 
-    @Autowired(required = false)
-    private com.mentalhealth.backend.repository.InstructorRepository instructorRepository;
+    @Autowired
+    private UnreadCounterRegistry unreadCounterRegistry;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private MessageOutboxService messageOutboxService;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    @Autowired
+    private TypingIndicatorService typingIndicatorService;
 
     @Transactional
     public Message sendMessage(Message message) {
@@ -60,32 +75,12 @@ public class MessageService {
         Message saved = messageRepository.save(message);
         System.out.println("✅ Message saved with ID: " + saved.getId());
 
-        // Send real-time message via WebSocket
-        try {
-            messagingTemplate.convertAndSendToUser(
-                    message.getReceiverId().toString(),
-                    "/queue/messages",
-                    saved
-            );
-            System.out.println("✅ WebSocket notification sent");
-        } catch (Exception e) {
-            System.err.println("⚠️ WebSocket error: " + e.getMessage());
-        }
+        conversationSummaryService.recordMessage(saved);
+        unreadCounterRegistry.messagesChanged(saved.getReceiverId(), 1);
 
-        // Create notification for receiver with sender ID in relatedEntityId
-        try {
-            notificationService.sendNotification(
-                    message.getReceiverId(),
-                    "MESSAGE",
-                    "New Message from " + message.getSenderName() + " 💬",
-                    message.getMessageText(),
-                    message.getSenderId() // Store sender ID for reply functionality
-            );
-            System.out.println("✅ Notification created for user: " + message.getReceiverId());
-        } catch (Exception e) {
-            System.err.println("❌ ERROR creating notification: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // WebSocket delivery and the notification are handled by the outbox worker after commit
+        messageOutboxService.enqueue(saved);
+        typingIndicatorService.stopped(saved.getSenderId(), saved.getReceiverId());
 
         return saved;
     }
@@ -94,18 +89,10 @@ public class MessageService {
      * Get username from either User or Instructor table
      */
     private String getUserOrInstructorName(Long userId) {
-        // Try User table first
-        Optional<com.mentalhealth.backend.model.User> user = userRepository.findById(userId);
-        if (user.isPresent()) {
-            return user.get().getUsername();
-        }
-
-        // Try Instructor table
-        if (instructorRepository != null) {
-            Optional<com.mentalhealth.backend.model.Instructor> instructor = instructorRepository.findById(userId);
-            if (instructor.isPresent()) {
-                return instructor.get().getUsername();
-            }
+        // User table first, then Instructor table (both cached)
+        IdentityCache.Identity identity = identityCache.getUserOrInstructor(userId);
+        if (identity != null) {
+            return identity.username();
         }
 
         return "Unknown User";
@@ -115,95 +102,106 @@ public class MessageService {
         return messageRepository.findConversation(userId1, userId2);
     }
 
-    public List<ConversationSummaryDTO> getConversations(Long userId) {
-        List<Message> allMessages = messageRepository.findAll();
-
-        // Group messages by conversation partner
-        Map<Long, List<Message>> conversations = new HashMap<>();
-
-        for (Message msg : allMessages) {
-            if (msg.getSenderId().equals(userId)) {
-                conversations.computeIfAbsent(msg.getReceiverId(), k -> new ArrayList<>()).add(msg);
-            } else if (msg.getReceiverId().equals(userId)) {
-                conversations.computeIfAbsent(msg.getSenderId(), k -> new ArrayList<>()).add(msg);
-            }
+    /**
+     * Get one page of a conversation, always returned oldest first.
+     * With no cursor the newest page is returned; "before" scrolls back,
+     * "after" fetches what arrived since the last message the client has.
+     *
+     * @param beforeId message id cursor (exclusive), or null
+     * @param afterId  message id cursor (exclusive), or null
+     * @param limit    maximum number of messages
+     */
+    public List<Message> getConversationPage(Long userId1, Long userId2, Long beforeId, Long afterId, int limit) {
+        if (beforeId != null && afterId != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
         }
 
-        // Create summary for each conversation
-        List<ConversationSummaryDTO> summaries = new ArrayList<>();
-
-        for (Map.Entry<Long, List<Message>> entry : conversations.entrySet()) {
-            Long partnerId = entry.getKey();
-            List<Message> msgs = entry.getValue();
-
-            // Get last message
-            Message lastMsg = msgs.stream()
-                    .max(Comparator.comparing(Message::getSentAt))
-                    .orElse(null);
+        if (afterId != null) {
+            Message cursor = findCursor(afterId, userId1, userId2);
+            return messageRepository.findInConversationAfter(userId1, userId2, cursor.getCreatedAt(), cursor.getId(), limit);
+        }
 
-            if (lastMsg != null) {
-                ConversationSummaryDTO summary = new ConversationSummaryDTO();
-                summary.setUserId(partnerId);
+        List<Message> page;
+        if (beforeId != null) {
+            Message cursor = findCursor(beforeId, userId1, userId2);
+            page = messageRepository.findInConversationBefore(userId1, userId2, cursor.getCreatedAt(), cursor.getId(), limit);
+        } else {
+            page = messageRepository.findLatestInConversation(userId1, userId2, limit);
+        }
 
-                // Get partner name
-                userRepository.findById(partnerId).ifPresent(user -> {
-                    summary.setUserName(user.getUsername());
-                });
+        // Fetched newest first; flip so the client can append in display order
+        List<Message> ordered = new ArrayList<>(page);
+        Collections.reverse(ordered);
+        return ordered;
+    }
 
-                summary.setLastMessage(lastMsg.getMessageText());
-                summary.setLastMessageTime(lastMsg.getSentAt());
+    /**
+     * The cursor message, which must belong to the conversation being paged
+     */
+    private Message findCursor(Long messageId, Long userId1, Long userId2) {
+        Message cursor = messageRepository.findById(messageId)
+                .orElseThrow(() -> new IllegalArgumentException("Message not found: " + messageId));
+
+        boolean inConversation =
+                (cursor.getSenderId().equals(userId1) && cursor.getReceiverId().equals(userId2))
+                        || (cursor.getSenderId().equals(userId2) && cursor.getReceiverId().equals(userId1));
+        if (!inConversation) {
+            throw new IllegalArgumentException("Message " + messageId + " is not part of this conversation");
+        }
+        return cursor;
+    }
 
-                // Count unread messages
-                long unread = msgs.stream()
-                        .filter(m -> m.getReceiverId().equals(userId) && m.getReadAt() == null)
-                        .count();
-                summary.setUnreadCount((int) unread);
+    public List<ConversationSummaryDTO> getConversations(Long userId) {
+        List<ConversationSummary> conversations = conversationSummaryService.getConversations(userId);
 
-                summaries.add(summary);
-            }
+        // Resolve all partner names with one query
+        Set<Long> partnerIds = new HashSet<>();
+        for (ConversationSummary conversation : conversations) {
+            partnerIds.add(conversation.getPartnerId(userId));
+        }
+        Map<Long, String> partnerNames = new HashMap<>();
+        for (com.mentalhealth.backend.model.User user : userRepository.findAllById(partnerIds)) {
+            partnerNames.put(user.getId(), user.getUsername());
         }
 
-        // Sort by last message time
-        summaries.sort(Comparator.comparing(ConversationSummaryDTO::getLastMessageTime).reversed());
+        // Already sorted by last message time (newest first)
+        List<ConversationSummaryDTO> summaries = new ArrayList<>();
+        for (ConversationSummary conversation : conversations) {
+            Long partnerId = conversation.getPartnerId(userId);
+            summaries.add(new ConversationSummaryDTO(
+                    partnerId,
+                    partnerNames.get(partnerId),
+                    conversation.getLastMessagePreview(),
+                    conversation.getLastMessageTime(),
+                    conversation.getUnreadFor(userId)
+            ));
+        }
 
         return summaries;
     }
 
-    @Transactional
-    public void markAsRead(Long messageId) {
-        messageRepository.markAsRead(messageId);
+    public int markAsRead(Long messageId) {
+        return readStateService.markMessageRead(messageId);
     }
 
     /**
      * Mark all messages in a conversation as read
      * Called when instructor opens a conversation
      */
-    @Transactional
     public int markConversationAsRead(Long receiverId, Long senderId) {
-        System.out.println("📖 Marking messages as read:");
-        System.out.println("   Receiver (who is reading): " + receiverId);
-        System.out.println("   Sender (messages from): " + senderId);
-
-        // Get all unread messages in this conversation
-        List<Message> messages = messageRepository.findConversation(receiverId, senderId);
-
-        int markedCount = 0;
-        for (Message message : messages) {
-            // Mark as read if: message was sent TO receiverId and is unread
-            if (message.getReceiverId().equals(receiverId) && message.getReadAt() == null) {
-                message.setReadAt(LocalDateTime.now());
-                messageRepository.save(message);
-                markedCount++;
-                System.out.println("   ✅ Marked message " + message.getId() + " as read");
-            }
-        }
+        System.out.println("📖 Marking messages from " + senderId + " to " + receiverId + " as read");
+
+        int markedCount = readStateService.markConversationRead(receiverId, senderId);
 
         System.out.println("✅ Total marked as read: " + markedCount);
         return markedCount;
     }
 
+    /**
+     * Served from memory (UnreadCounterRegistry); the database is only read the first time
+     */
     public long getUnreadCount(Long userId) {
-        return messageRepository.countUnreadMessages(userId);
+        return unreadCounterRegistry.getUnreadMessages(userId);
     }
 
     /**
@@ -216,26 +214,41 @@ public class MessageService {
 
     /**
      * Get available users for messaging
-     * Returns all users except the current user
+     * Returns all users except the current user, optionally filtered by name and paged.
+     * Served from the in-memory directory index.
+     *
+     * @param query  name filter, or null for everyone
+     * @param limit  page size, or a negative value for all users
+     * @param offset users to skip
      */
-    public List<Map<String, Object>> getAvailableUsers(Long currentUserId) {
+    public List<Map<String, Object>> getAvailableUsers(Long currentUserId, String query, int limit, int offset) {
         List<Map<String, Object>> availableUsers = new ArrayList<>();
 
-        // Get all users
-        List<com.mentalhealth.backend.model.User> allUsers = userRepository.findAll();
-
-        for (com.mentalhealth.backend.model.User user : allUsers) {
+        // Page after removing the current user, so page boundaries stay stable
+        int fetch = limit >= 0 ? offset + limit + 1 : -1;
+        int skipped = 0;
+        for (DirectorySearchService.DirectoryEntry entry : directorySearchService.search(
+                query, DirectorySearchService.Source.USER, null, 0, fetch)) {
             // Skip the current user
-            if (!user.getId().equals(currentUserId)) {
-                Map<String, Object> userInfo = new HashMap<>();
-                userInfo.put("id", user.getId());
-                userInfo.put("username", user.getUsername());
-                userInfo.put("role", user.getRole().toString());
-
-                availableUsers.add(userInfo);
+            if (entry.id().equals(currentUserId)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
             }
+            if (limit >= 0 && availableUsers.size() >= limit) {
+                break;
+            }
+
+            Map<String, Object> userInfo = new HashMap<>();
+            userInfo.put("id", entry.id());
+            userInfo.put("username", entry.username());
+            userInfo.put("role", entry.role());
+
+            availableUsers.add(userInfo);
         }
 
         return availableUsers;
     }
-}
\ No newline at end of file
+}
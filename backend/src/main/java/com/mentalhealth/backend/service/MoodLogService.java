@@ -6,6 +6,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -20,9 +21,29 @@ public class MoodLogService {
     @Autowired
     private MoodLogRepository moodLogRepository;
 
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private MoodStatsService moodStatsService;
+
+    @Autowired
+    private ProgressDataCache progressDataCache;
+
     public MoodLog saveMoodLog(MoodLog moodLog) {
+        boolean isNew = moodLog.getId() == null;
         moodLog.setMoodEmojiFromRating();
-        return moodLogRepository.save(moodLog);
+        MoodLog saved = moodLogRepository.saveAndFlush(moodLog);
+
+        if (isNew) {
+            moodStatsService.recordLog(saved);
+        } else {
+            // An edited log changes history the running stats were built from
+            moodStatsService.rebuild(saved.getUserId());
+        }
+        clientOverviewService.refreshMood(saved.getUserId());
+        progressDataCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     public List<MoodLog> getMoodLogsByUser(Long userId) {
@@ -47,48 +68,18 @@ public class MoodLogService {
     }
 
     public Long getTotalMoodLogs(Long userId) {
-        return moodLogRepository.countByUserId(userId);
+        return moodStatsService.getLogCount(userId);
     }
 
     public String determineMoodTrend(Long userId) {
-        List<MoodLog> logs = moodLogRepository.findByUserIdOrderByLogDateDesc(userId);
-
-        if (logs.size() < 2) return "STABLE";
-
-        // Compare recent average with older average
-        int midPoint = logs.size() / 2;
-        double recentAvg = logs.subList(0, midPoint).stream()
-                .mapToInt(MoodLog::getMoodRating)
-                .average()
-                .orElse(0);
-
-        double olderAvg = logs.subList(midPoint, logs.size()).stream()
-                .mapToInt(MoodLog::getMoodRating)
-                .average()
-                .orElse(0);
-
-        if (recentAvg > olderAvg + 0.5) return "IMPROVING";
-        if (recentAvg < olderAvg - 0.5) return "DECLINING";
-        return "STABLE";
+        return moodStatsService.getTrend(userId);
     }
 
     public int calculateConsecutiveLoggingDays(Long userId) {
-        List<MoodLog> logs = moodLogRepository.findByUserIdOrderByLogDateDesc(userId);
-
-        if (logs.isEmpty()) return 0;
-
-        int streak = 0;
-        LocalDate expectedDate = LocalDate.now();
-
-        for (MoodLog log : logs) {
-            if (log.getLogDate().equals(expectedDate)) {
-                streak++;
-                expectedDate = expectedDate.minusDays(1);
-            } else {
-                break;
-            }
-        }
+        return moodStatsService.getLoggingStreak(userId);
+    }
 
-        return streak;
+    public Map<String, Object> getMoodSummary(Long userId) {
+        return moodStatsService.getSummary(userId);
     }
 }
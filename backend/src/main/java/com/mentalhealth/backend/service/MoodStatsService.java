@@ -0,0 +1,197 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.MoodLog;
+import com.mentalhealth.backend.model.MoodStats;
+import com.mentalhealth.backend.repository.MoodLogRepository;
+import com.mentalhealth.backend.repository.MoodStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains mood_stats alongside mood_logs.
+ *
+ * Each new log is folded in with one upsert: count, sum and sum of squares
+ * give the mean and standard deviation, a fast and a slow EWMA of the
+ * rating give the trend, and the streak extends when the log is for the
+ * day after the last one. A back-filled log (older than the last one)
+ * cannot be folded in incrementally, so the user's stats are rebuilt
+ * from their history instead.
+ */
+@Service
+public class MoodStatsService {
+
+    // Weight of the newest log: ~the last 5 logs vs ~the last 40
+    static final double FAST_ALPHA = 0.3;
+    static final double SLOW_ALPHA = 0.05;
+
+    // Ratings are 1-5; half a point between the averages counts as a change
+    static final double TREND_THRESHOLD = 0.5;
+
+    @Autowired
+    private MoodStatsRepository moodStatsRepository;
+
+    @Autowired
+    private MoodLogRepository moodLogRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Fold a newly saved log into the user's stats
+     */
+    @Transactional
+    public void recordLog(MoodLog log) {
+        int rating = log.getMoodRating();
+        int applied = moodStatsRepository.recordLog(log.getUserId(), rating, rating * rating,
+                log.getLogDate(), FAST_ALPHA, SLOW_ALPHA, LocalDateTime.now());
+        if (applied == 0) {
+            rebuild(log.getUserId());
+        }
+    }
+
+    /**
+     * Recompute a user's stats from their full mood history
+     */
+    @Transactional
+    public void rebuild(Long userId) {
+        MoodStats stats = moodStatsRepository.findByIdForUpdate(userId).orElseGet(() -> {
+            MoodStats created = new MoodStats();
+            created.setUserId(userId);
+            return created;
+        });
+
+        stats.setLogCount(0L);
+        stats.setRatingSum(0L);
+        stats.setRatingSumSquares(0L);
+        stats.setEwmaFast(null);
+        stats.setEwmaSlow(null);
+        stats.setLastLogDate(null);
+        stats.setCurrentStreak(0);
+        for (MoodLog log : moodLogRepository.findByUserIdOrderByLogDateAscIdAsc(userId)) {
+            apply(stats, log);
+        }
+        stats.setUpdatedAt(LocalDateTime.now());
+        moodStatsRepository.save(stats);
+    }
+
+    /**
+     * IMPROVING / DECLINING when the fast EWMA has moved away from the slow one
+     */
+    public String getTrend(Long userId) {
+        MoodStats stats = moodStatsRepository.findById(userId).orElse(null);
+        if (stats == null || stats.getLogCount() < 2) return "STABLE";
+
+        double difference = stats.getEwmaFast() - stats.getEwmaSlow();
+        if (difference > TREND_THRESHOLD) return "IMPROVING";
+        if (difference < -TREND_THRESHOLD) return "DECLINING";
+        return "STABLE";
+    }
+
+    /**
+     * Consecutive days with a mood log, ending today (0 if nothing was logged today)
+     */
+    public int getLoggingStreak(Long userId) {
+        return moodStatsRepository.findById(userId)
+                .map(stats -> currentStreak(stats, LocalDate.now()))
+                .orElse(0);
+    }
+
+    public long getLogCount(Long userId) {
+        return moodStatsRepository.findById(userId).map(MoodStats::getLogCount).orElse(0L);
+    }
+
+    /**
+     * All-time mood summary for a user
+     */
+    public Map<String, Object> getSummary(Long userId) {
+        MoodStats stats = moodStatsRepository.findById(userId).orElse(null);
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("userId", userId);
+        if (stats == null || stats.getLogCount() == 0) {
+            summary.put("logCount", 0L);
+            summary.put("trend", "STABLE");
+            summary.put("currentStreak", 0);
+            return summary;
+        }
+
+        long n = stats.getLogCount();
+        double mean = (double) stats.getRatingSum() / n;
+        double variance = Math.max(0, (double) stats.getRatingSumSquares() / n - mean * mean);
+
+        summary.put("logCount", n);
+        summary.put("averageRating", round(mean));
+        summary.put("ratingStdDev", round(Math.sqrt(variance)));
+        summary.put("recentAverage", round(stats.getEwmaFast()));
+        summary.put("longTermAverage", round(stats.getEwmaSlow()));
+        summary.put("trend", getTrend(userId));
+        summary.put("currentStreak", currentStreak(stats, LocalDate.now()));
+        summary.put("lastLogDate", stats.getLastLogDate());
+        return summary;
+    }
+
+    /**
+     * Build stats for users who logged moods before this table existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            if (moodStatsRepository.count() == 0) {
+                List<Long> userIds = moodLogRepository.findDistinctUserIds();
+                for (Long userId : userIds) {
+                    transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+                }
+                if (!userIds.isEmpty()) {
+                    System.out.println("✅ mood_stats built for " + userIds.size() + " users");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not initialize mood_stats: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Same fold as MoodStatsRepository.recordLog, for logs in date order
+     */
+    private void apply(MoodStats stats, MoodLog log) {
+        int rating = log.getMoodRating();
+        LocalDate date = log.getLogDate();
+
+        stats.setLogCount(stats.getLogCount() + 1);
+        stats.setRatingSum(stats.getRatingSum() + rating);
+        stats.setRatingSumSquares(stats.getRatingSumSquares() + (long) rating * rating);
+
+        if (stats.getEwmaFast() == null) {
+            stats.setEwmaFast((double) rating);
+            stats.setEwmaSlow((double) rating);
+        } else {
+            stats.setEwmaFast(stats.getEwmaFast() + FAST_ALPHA * (rating - stats.getEwmaFast()));
+            stats.setEwmaSlow(stats.getEwmaSlow() + SLOW_ALPHA * (rating - stats.getEwmaSlow()));
+        }
+
+        LocalDate last = stats.getLastLogDate();
+        if (last == null || !last.equals(date)) {
+            boolean consecutive = last != null && last.plusDays(1).equals(date);
+            stats.setCurrentStreak(consecutive ? stats.getCurrentStreak() + 1 : 1);
+        }
+        stats.setLastLogDate(date);
+    }
+
+    private static int currentStreak(MoodStats stats, LocalDate today) {
+        return today.equals(stats.getLastLogDate()) ? stats.getCurrentStreak() : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
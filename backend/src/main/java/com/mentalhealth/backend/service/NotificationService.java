@@ -2,21 +2,30 @@ package com.mentalhealth.backend.service;
 
 
 
+import com.mentalhealth.backend.model.Message;
 import com.mentalhealth.backend.model.Notification;
 import com.mentalhealth.backend.model.SessionRequest;
-import com.mentalhealth.backend.model.User;
+import com.mentalhealth.backend.model.TherapySession;
+import com.mentalhealth.backend.model.UserRole;
 import com.mentalhealth.backend.repository.NotificationRepository;
 import com.mentalhealth.backend.repository.SessionRequestRepository;
+import com.mentalhealth.backend.repository.TherapySessionRepository;
 import com.mentalhealth.backend.repository.UserRepository;
 import com.mentalhealth.backend.repository.InstructorRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 @Service
 public class NotificationService {
@@ -36,6 +45,47 @@ public class NotificationService {
     @Autowired(required = false)
     private InstructorRepository instructorRepository;
 
+    @Autowired(required = false)
+    private TherapySessionRepository therapySessionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    private UnreadCounterRegistry unreadCounterRegistry;
+
+    @Autowired
+    private IdentityCache identityCache;
+
+    @Autowired
+    private ReadStateService readStateService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${notification.batch.size:100}")
+    private int batchSize;
+
+    /**
+     * Notification ids moved from IDENTITY to notification_seq. Make sure the
+     * sequence starts past any id already in the table (runs before requests are served).
+     */
+    @PostConstruct
+    public void alignNotificationSequence() {
+        try {
+            jdbcTemplate.queryForObject(
+                    "SELECT setval('notification_seq', GREATEST(" +
+                    "(SELECT COALESCE(MAX(id), 0) FROM notifications) + 50, " +
+                    "(SELECT last_value FROM notification_seq)))",
+                    Long.class);
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not align notification_seq: " + e.getMessage());
+        }
+    }
+
     public Notification sendNotification(Long userId, String type, String title,
                                          String message, Long relatedId) {
         System.out.println("🔔 Creating notification:");
@@ -56,6 +106,7 @@ public class NotificationService {
 
             Notification saved = notificationRepository.save(notification);
             System.out.println("✅ Notification saved with ID: " + saved.getId());
+            unreadCounterRegistry.notificationsChanged(userId, 1);
 
             // Send real-time notification via WebSocket
             try {
@@ -77,6 +128,116 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Send the same notification to many users at once.
+     * Rows are inserted in JDBC batches of notification.batch.size; the
+     * WebSocket pushes go out on background threads once the insert commits.
+     *
+     * @return number of notifications created
+     */
+    @Transactional
+    public int sendNotifications(Collection<Long> userIds, String type, String title,
+                                 String message, Long relatedId) {
+        System.out.println("🔔 Creating " + userIds.size() + " notifications (type: " + type + ")");
+
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> recipients = new LinkedHashSet<>(userIds);
+        List<Notification> created = new ArrayList<>(recipients.size());
+
+        for (Long userId : recipients) {
+            Notification notification = new Notification();
+            notification.setUserId(userId);
+            notification.setNotificationType(type);
+            notification.setTitle(title);
+            notification.setMessage(message);
+            notification.setRelatedId(relatedId);
+            notification.setCreatedAt(now);
+
+            entityManager.persist(notification);
+            created.add(notification);
+
+            // Flush each full batch and drop it from the persistence context
+            if (created.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        System.out.println("✅ " + created.size() + " notifications saved");
+
+        unreadCounterRegistry.notificationsAdded(recipients);
+        TransactionCallbacks.runAfterCommit(() -> virtualThreadExecutor.execute(() -> pushAll(created)));
+        return created.size();
+    }
+
+    /**
+     * Create the "new message" notification for each message, without pushing it.
+     * Used by the message outbox, which pushes once the rows are committed.
+     *
+     * @return created notifications keyed by message id
+     */
+    @Transactional
+    public Map<Long, Notification> createMessageNotifications(Collection<Message> messages) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Notification> created = new LinkedHashMap<>();
+        List<Long> recipients = new ArrayList<>(messages.size());
+
+        for (Message message : messages) {
+            Notification notification = new Notification();
+            notification.setUserId(message.getReceiverId());
+            notification.setNotificationType("MESSAGE");
+            notification.setTitle("New Message from " + message.getSenderName() + " 💬");
+            notification.setMessage(message.getMessageText());
+            notification.setRelatedId(message.getSenderId()); // Sender ID for reply functionality
+            notification.setCreatedAt(now);
+            created.put(message.getId(), notification);
+            recipients.add(message.getReceiverId());
+        }
+
+        notificationRepository.saveAll(created.values());
+        unreadCounterRegistry.notificationsAdded(recipients);
+        return created;
+    }
+
+    /**
+     * Announcement to every client (role USER)
+     */
+    @Transactional
+    public int broadcastToAllClients(String type, String title, String message) {
+        return sendNotifications(userRepository.findIdsByRole(UserRole.USER), type, title, message, null);
+    }
+
+    /**
+     * Announcement to every client an instructor has had a session with
+     */
+    @Transactional
+    public int broadcastToCaseload(Long instructorId, String type, String title, String message) {
+        List<Long> clientIds = therapySessionRepository.findClientIdsByInstructorId(instructorId);
+        return sendNotifications(clientIds, type, title, message, instructorId);
+    }
+
+    private void pushAll(List<Notification> notifications) {
+        int pushed = 0;
+        for (Notification notification : notifications) {
+            try {
+                messagingTemplate.convertAndSendToUser(
+                        notification.getUserId().toString(),
+                        "/queue/notifications",
+                        notification
+                );
+                pushed++;
+            } catch (Exception e) {
+                System.err.println("⚠️ WebSocket error for user " + notification.getUserId() + ": " + e.getMessage());
+            }
+        }
+        System.out.println("✅ Pushed " + pushed + "/" + notifications.size() + " notifications");
+    }
+
     public List<Notification> getUserNotifications(Long userId) {
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
@@ -86,29 +247,21 @@ public class NotificationService {
     }
 
     public void markAsRead(Long notificationId) {
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new RuntimeException("Notification not found"));
-
-        notification.setIsRead(true);
-        notification.setReadAt(LocalDateTime.now());
-        notificationRepository.save(notification);
+        readStateService.markNotificationRead(notificationId);
     }
 
-    @Transactional
-    public void markAllAsRead(Long userId) {
-        List<Notification> unreadNotifications = notificationRepository
-                .findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
-
-        for (Notification notification : unreadNotifications) {
-            notification.setIsRead(true);
-            notification.setReadAt(LocalDateTime.now());
-        }
-
-        notificationRepository.saveAll(unreadNotifications);
+    /**
+     * @return number of notifications that were unread
+     */
+    public int markAllAsRead(Long userId) {
+        return readStateService.markAllNotificationsRead(userId);
     }
 
+    /**
+     * Served from memory (UnreadCounterRegistry); the database is only read the first time
+     */
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCounterRegistry.getUnreadNotifications(userId);
     }
 
     public Notification getNotificationById(Long notificationId) {
@@ -118,15 +271,19 @@ public class NotificationService {
 
     @Transactional
     public void deleteNotification(Long notificationId) {
-        if (!notificationRepository.existsById(notificationId)) {
-            throw new RuntimeException("Notification not found");
+        Notification notification = notificationRepository.findById(notificationId)
+                .orElseThrow(() -> new RuntimeException("Notification not found"));
+        notificationRepository.delete(notification);
+
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            unreadCounterRegistry.notificationsChanged(notification.getUserId(), -1);
         }
-        notificationRepository.deleteById(notificationId);
     }
 
     @Transactional
     public void deleteAllNotifications(Long userId) {
         notificationRepository.deleteByUserId(userId);
+        unreadCounterRegistry.notificationsCleared(userId);
     }
 
     /**
@@ -138,6 +295,110 @@ public class NotificationService {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
 
+        return hydrateDetails(List.of(notification)).get(0);
+    }
+
+    /**
+     * Get all notifications with details for a user
+     */
+    public List<Map<String, Object>> getUserNotificationsWithDetails(Long userId) {
+        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        return hydrateDetails(notifications);
+    }
+
+    /**
+     * Get ONLY UNREAD notifications with details for a user
+     * (Used in user dashboard to show only unread after refresh)
+     */
+    public List<Map<String, Object>> getUnreadNotificationsWithDetails(Long userId) {
+        System.out.println("📋 Service: Fetching UNREAD notifications for user: " + userId);
+
+        // Get only unread notifications
+        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
+        System.out.println("   Found " + notifications.size() + " unread notifications");
+
+        return hydrateDetails(notifications);
+    }
+
+    // ========== Detail hydration ==========
+
+    /**
+     * Build detail maps for a list of notifications.
+     * Session requests are resolved with one IN query for the whole list;
+     * sender and instructor names come from IdentityCache, with every miss
+     * loaded in one bulk query. The query count does not grow with the
+     * number of notifications.
+     */
+    private List<Map<String, Object>> hydrateDetails(List<Notification> notifications) {
+        Set<Long> sessionRequestIds = new HashSet<>();
+        Set<Long> therapySessionIds = new HashSet<>();
+        Set<Long> senderIds = new HashSet<>();
+
+        for (Notification notification : notifications) {
+            if (notification.getRelatedId() == null || notification.getNotificationType() == null) {
+                continue;
+            }
+            switch (notification.getNotificationType().toUpperCase()) {
+                case "SESSION_ACCEPTED":
+                case "SESSION_DECLINED":
+                    sessionRequestIds.add(notification.getRelatedId());
+                    break;
+                case "SESSION_LINK_READY":
+                case "SESSION_REMINDER":
+                    therapySessionIds.add(notification.getRelatedId());
+                    break;
+                case "MESSAGE":
+                case "MESSAGE_RECEIVED":
+                    senderIds.add(notification.getRelatedId());
+                    break;
+            }
+        }
+
+        Map<Long, SessionRequest> sessionRequests = new HashMap<>();
+        if (sessionRequestRepository != null && !sessionRequestIds.isEmpty()) {
+            for (SessionRequest request : sessionRequestRepository.findAllById(sessionRequestIds)) {
+                sessionRequests.put(request.getId(), request);
+            }
+        }
+
+        Map<Long, TherapySession> therapySessions = new HashMap<>();
+        if (therapySessionRepository != null && !therapySessionIds.isEmpty()) {
+            for (TherapySession session : therapySessionRepository.findAllById(therapySessionIds)) {
+                therapySessions.put(session.getId(), session);
+            }
+        }
+
+        Set<Long> instructorIds = new HashSet<>();
+        sessionRequests.values().forEach(request -> instructorIds.add(request.getInstructorId()));
+        therapySessions.values().forEach(session -> instructorIds.add(session.getInstructorId()));
+        Map<Long, IdentityCache.Identity> instructors = identityCache.getAllInstructors(instructorIds);
+        Map<Long, IdentityCache.Identity> senders = identityCache.getAllUsersOrInstructors(senderIds);
+
+        List<Map<String, Object>> result = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            try {
+                result.add(buildDetails(notification, sessionRequests, therapySessions, instructors, senders));
+            } catch (Exception e) {
+                System.err.println("⚠️ Error loading details for notification " + notification.getId());
+                // Return basic notification data if details fail
+                Map<String, Object> basic = new HashMap<>();
+                basic.put("id", notification.getId());
+                basic.put("title", notification.getTitle());
+                basic.put("message", notification.getMessage());
+                basic.put("notificationType", notification.getNotificationType());
+                basic.put("isRead", notification.getIsRead());
+                basic.put("createdAt", notification.getCreatedAt());
+                result.add(basic);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Object> buildDetails(Notification notification,
+                                             Map<Long, SessionRequest> sessionRequests,
+                                             Map<Long, TherapySession> therapySessions,
+                                             Map<Long, IdentityCache.Identity> instructors,
+                                             Map<Long, IdentityCache.Identity> senders) {
         Map<String, Object> details = new HashMap<>();
         details.put("id", notification.getId());
         details.put("userId", notification.getUserId());
@@ -154,11 +415,15 @@ public class NotificationService {
             switch (notification.getNotificationType().toUpperCase()) {
                 case "SESSION_ACCEPTED":
                 case "SESSION_DECLINED":
-                    addSessionDetails(details, notification);
+                    addSessionDetails(details, notification, sessionRequests, instructors);
+                    break;
+                case "SESSION_LINK_READY":
+                case "SESSION_REMINDER":
+                    addTherapySessionDetails(details, notification, therapySessions, instructors);
                     break;
                 case "MESSAGE":
                 case "MESSAGE_RECEIVED":
-                    addMessageSenderDetails(details, notification);
+                    addMessageSenderDetails(details, notification, senders);
                     break;
             }
         }
@@ -169,133 +434,69 @@ public class NotificationService {
     /**
      * Add session details (zoom link, session date) to notification
      */
-    private void addSessionDetails(Map<String, Object> details, Notification notification) {
-        if (sessionRequestRepository != null && notification.getRelatedId() != null) {
-            try {
-                SessionRequest sessionRequest = sessionRequestRepository
-                        .findById(notification.getRelatedId())
-                        .orElse(null);
-
-                if (sessionRequest != null) {
-                    details.put("zoomLink", sessionRequest.getZoomLink());
-                    details.put("sessionDate", sessionRequest.getRequestedDate());
-                    details.put("status", sessionRequest.getStatus().toString());
-                    details.put("instructorId", sessionRequest.getInstructorId());
-                    details.put("canJoin", sessionRequest.getZoomLink() != null);
-
-                    // Add instructor name if available
-                    if (instructorRepository != null && sessionRequest.getInstructorId() != null) {
-                        instructorRepository.findById(sessionRequest.getInstructorId())
-                                .ifPresent(instructor -> details.put("instructorName", instructor.getUsername()));
-                    }
-
-                    System.out.println("✅ Added session details: zoom=" + sessionRequest.getZoomLink());
-                }
-            } catch (Exception e) {
-                System.err.println("⚠️ Error loading session details: " + e.getMessage());
-            }
+    private void addTherapySessionDetails(Map<String, Object> details, Notification notification,
+                                       Map<Long, TherapySession> therapySessions,
+                                       Map<Long, IdentityCache.Identity> instructors) {
+        TherapySession session = therapySessions.get(notification.getRelatedId());
+        if (session == null) {
+            return;
         }
-    }
 
-    /**
-     * Add sender details for message notifications (for reply functionality)
-     */
-    private void addMessageSenderDetails(Map<String, Object> details, Notification notification) {
-        if (notification.getRelatedId() != null) {
-            try {
-                // relatedId contains sender's user ID
-                Long senderId = notification.getRelatedId();
-                details.put("senderId", senderId);
-
-                // Try to get sender's name from User table first
-                boolean found = false;
-                if (userRepository != null) {
-                    Optional<User> userOpt = userRepository.findById(senderId);
-                    if (userOpt.isPresent()) {
-                        User sender = userOpt.get();
-                        details.put("senderName", sender.getUsername());
-                        details.put("senderRole", sender.getRole().toString());
-                        found = true;
-                        System.out.println("✅ Found sender in User table: " + sender.getUsername());
-                    }
-                }
-
-                // If not found in User table, try Instructor table
-                if (!found && instructorRepository != null) {
-                    instructorRepository.findById(senderId).ifPresent(sender -> {
-                        details.put("senderName", sender.getUsername());
-                        details.put("senderRole", "INSTRUCTOR");
-                        System.out.println("✅ Found sender in Instructor table: " + sender.getUsername());
-                    });
-                }
-
-                details.put("canReply", true);
-                System.out.println("✅ Added sender details: senderId=" + senderId);
-            } catch (Exception e) {
-                System.err.println("⚠️ Error loading sender details: " + e.getMessage());
-                e.printStackTrace();
-            }
+        details.put("sessionId", session.getId());
+        details.put("zoomLink", session.getZoomLink());
+        details.put("sessionDate", session.getSessionDate());
+        details.put("instructorId", session.getInstructorId());
+        details.put("canJoin", session.getZoomLink() != null);
+
+        IdentityCache.Identity instructor = instructors.get(session.getInstructorId());
+        if (instructor != null) {
+            details.put("instructorName", instructor.username());
         }
     }
 
-    /**
-     * Get all notifications with details for a user
-     */
-    public List<Map<String, Object>> getUserNotificationsWithDetails(Long userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    private void addSessionDetails(Map<String, Object> details, Notification notification,
+                                   Map<Long, SessionRequest> sessionRequests,
+                                   Map<Long, IdentityCache.Identity> instructors) {
+        if (notification.getRelatedId() == null) {
+            return;
+        }
 
-        return notifications.stream()
-                .map(notification -> {
-                    try {
-                        return getNotificationDetails(notification.getId());
-                    } catch (Exception e) {
-                        System.err.println("⚠️ Error loading details for notification " + notification.getId());
-                        // Return basic notification data if details fail
-                        Map<String, Object> basic = new HashMap<>();
-                        basic.put("id", notification.getId());
-                        basic.put("title", notification.getTitle());
-                        basic.put("message", notification.getMessage());
-                        basic.put("notificationType", notification.getNotificationType());
-                        basic.put("isRead", notification.getIsRead());
-                        basic.put("createdAt", notification.getCreatedAt());
-                        return basic;
-                    }
-                })
-                .collect(Collectors.toList());
+        SessionRequest sessionRequest = sessionRequests.get(notification.getRelatedId());
+        if (sessionRequest != null) {
+            details.put("zoomLink", sessionRequest.getZoomLink());
+            details.put("sessionDate", sessionRequest.getRequestedDate());
+            details.put("status", sessionRequest.getStatus().toString());
+            details.put("instructorId", sessionRequest.getInstructorId());
+            details.put("canJoin", sessionRequest.getZoomLink() != null);
+
+            // Add instructor name if available
+            IdentityCache.Identity instructor = instructors.get(sessionRequest.getInstructorId());
+            if (instructor != null) {
+                details.put("instructorName", instructor.username());
+            }
+        }
     }
 
     /**
-     * Get ONLY UNREAD notifications with details for a user
-     * (Used in user dashboard to show only unread after refresh)
+     * Add sender details for message notifications (for reply functionality)
      */
-    public List<Map<String, Object>> getUnreadNotificationsWithDetails(Long userId) {
-        System.out.println("📋 Service: Fetching UNREAD notifications for user: " + userId);
+    private void addMessageSenderDetails(Map<String, Object> details, Notification notification,
+                                         Map<Long, IdentityCache.Identity> senders) {
+        if (notification.getRelatedId() == null) {
+            return;
+        }
 
-        // Get only unread notifications
-        List<Notification> notifications = notificationRepository.findByUserIdAndIsReadOrderByCreatedAtDesc(userId, false);
-        System.out.println("   Found " + notifications.size() + " unread notifications");
+        // relatedId contains sender's user ID
+        Long senderId = notification.getRelatedId();
+        details.put("senderId", senderId);
+
+        // Sender is looked up in the User table first, then the Instructor table
+        IdentityCache.Identity sender = senders.get(senderId);
+        if (sender != null) {
+            details.put("senderName", sender.username());
+            details.put("senderRole", sender.role());
+        }
 
-        return notifications.stream()
-                .map(notification -> {
-                    try {
-                        Map<String, Object> details = getNotificationDetails(notification.getId());
-                        System.out.println("   ✅ Loaded details for notification " + notification.getId() + ": " + notification.getTitle());
-                        return details;
-                    } catch (Exception e) {
-                        System.err.println("⚠️ Error loading details for notification " + notification.getId());
-                        // Return basic notification data if details fail
-                        Map<String, Object> basic = new HashMap<>();
-                        basic.put("id", notification.getId());
-                        basic.put("title", notification.getTitle());
-                        basic.put("message", notification.getMessage());
-                        basic.put("notificationType", notification.getNotificationType());
-                        basic.put("isRead", false); // We know it's unread
-                        basic.put("createdAt", notification.getCreatedAt());
-                        return basic;
-                    }
-                })
-                .collect(Collectors.toList());
+        details.put("canReply", true);
     }
 }
-
-
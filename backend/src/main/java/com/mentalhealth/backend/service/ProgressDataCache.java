@@ -0,0 +1,106 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.dto.ProgressData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cache of assembled ProgressData per (user, startDate, endDate).
+ *
+ * Every user has a version that is bumped after commit whenever they write
+ * to a tracker (mood, stress, sleep, habits); entries from an older version
+ * are never served, and a result computed while a write committed is not
+ * stored. Versions live in a fixed array of stripes indexed by user id, so
+ * they take the same memory however many users write; users sharing a
+ * stripe only cost each other a few extra misses. Streaks and trends are
+ * relative to today, so an entry from a previous day is not served either.
+ * The least recently used entry is evicted once progress.cache.max-size
+ * entries are cached.
+ *
+ * Callers get their own copy of a cached result, so one request changing
+ * the ProgressData it was handed cannot change what others are served.
+ */
+@Component
+public class ProgressDataCache {
+
+    private record Key(Long userId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    private record Entry(long version, LocalDate day, ProgressData data) {
+    }
+
+    private static final int VERSION_STRIPES = 4096;
+
+    @Value("${progress.cache.max-size:5000}")
+    private int maxSize;
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final BoundedCache<Key, Entry> entries = new BoundedCache<>(() -> maxSize);
+
+    /**
+     * The user's current version; read it before computing a result to put()
+     */
+    public long version(Long userId) {
+        return versions.get(stripe(userId));
+    }
+
+    /**
+     * Cached progress for today, or null on a miss
+     */
+    public ProgressData get(Long userId, LocalDate startDate, LocalDate endDate) {
+        Entry entry = entries.get(new Key(userId, startDate, endDate));
+        if (entry == null || entry.version() != version(userId) || !entry.day().equals(LocalDate.now())) {
+            entries.miss();
+            return null;
+        }
+        entries.hit();
+        return copyOf(entry.data());
+    }
+
+    /**
+     * Store a result computed at the given version, unless the user wrote since
+     */
+    public void put(Long userId, LocalDate startDate, LocalDate endDate, long version, ProgressData data) {
+        entries.putIf(new Key(userId, startDate, endDate), new Entry(version, LocalDate.now(), copyOf(data)),
+                () -> version(userId) == version);
+    }
+
+    /**
+     * Retire all of a user's cached progress once the current transaction commits
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> entries.locked(() -> versions.incrementAndGet(stripe(userId))));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = entries.getStats();
+        stats.put("versionStripes", VERSION_STRIPES);
+        return stats;
+    }
+
+    private static int stripe(Long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (VERSION_STRIPES - 1);
+    }
+
+    /**
+     * Copy with its own milestone list (correlations are already immutable)
+     */
+    private static ProgressData copyOf(ProgressData data) {
+        return new ProgressData(data.getUserId(), data.getStartDate(), data.getEndDate(),
+                data.getAverageMoodRating(), data.getAverageStressScore(),
+                data.getTotalHabitsCompleted(), data.getHabitCompletionRate(), data.getAverageSleepHours(),
+                data.getMoodTrend(), data.getStressTrend(),
+                data.getConsecutiveDaysOfMoodLogging(), data.getConsecutiveDaysOfStressManagement(),
+                data.getAchievedMilestones() != null ? List.copyOf(data.getAchievedMilestones()) : null,
+                data.getSleepMoodCorrelation(), data.getCorrelations());
+    }
+}
@@ -3,15 +3,20 @@ package com.mentalhealth.backend.service;
 import com.mentalhealth.backend.dto.ProgressData;
 import com.mentalhealth.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 @Service
-@Transactional(readOnly = true)
 public class ProgressService {
 
     @Autowired
@@ -21,7 +26,7 @@ public class ProgressService {
     private StressAssessmentService stressAssessmentService;
 
     @Autowired
-    private SleepRepository sleepEntryRepository;
+    private SleepRollupService sleepRollupService;
 
     @Autowired
     private HabitCompletionRepository habitCompletionRepository;
@@ -29,39 +34,87 @@ public class ProgressService {
     @Autowired
     private HabitRepository habitRepository;
 
+    @Autowired
+    private ProgressDataCache progressDataCache;
+
+    @Autowired
+    private CorrelationService correlationService;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Value("${progress.fan-out.timeout-ms:3000}")
+    private long fanOutTimeoutMs;
+
+    // Well below the connection pool size (10), so a burst of requests cannot starve it
+    @Value("${progress.fan-out.parallelism:3}")
+    private int fanOutParallelism;
+
+    /**
+     * Progress for a date range. The aggregate queries are independent, so
+     * they run concurrently on virtual threads (at most
+     * progress.fan-out.parallelism at a time) within progress.fan-out.timeout-ms,
+     * while the mood_stats lookups run inline. The assembled result is cached
+     * until the user next writes to a tracker.
+     */
     public ProgressData getProgressData(Long userId, LocalDate startDate, LocalDate endDate) {
+        ProgressData cached = progressDataCache.get(userId, startDate, endDate);
+        if (cached != null) {
+            return cached;
+        }
+        long version = progressDataCache.version(userId);
+
         ProgressData progressData = new ProgressData();
         progressData.setUserId(userId);
         progressData.setStartDate(startDate);
         progressData.setEndDate(endDate);
 
-        // Mood metrics
-        Double avgMood = moodLogService.getAverageMoodRating(userId, startDate, endDate);
-        progressData.setAverageMoodRating(avgMood != null ? avgMood : 0.0);
-        progressData.setMoodTrend(moodLogService.determineMoodTrend(userId));
-        progressData.setConsecutiveDaysOfMoodLogging(
-                moodLogService.calculateConsecutiveLoggingDays(userId)
-        );
-
-        // Stress metrics
-        Double avgStress = stressAssessmentService.getAverageStressScore(userId, startDate, endDate);
-        progressData.setAverageStressScore(avgStress != null ? avgStress : 0.0);
-        progressData.setStressTrend(stressAssessmentService.determineStressTrend(userId));
-
-        // Sleep metrics
-        Double avgSleep = sleepEntryRepository.getAverageSleepHours(userId, startDate, endDate);
-        progressData.setAverageSleepHours(avgSleep != null ? avgSleep : 0.0);
-
-        // Habit metrics
-        Long completedHabits = habitCompletionRepository.countCompletedHabits(userId, startDate, endDate);
-        progressData.setTotalHabitsCompleted(completedHabits != null ? completedHabits.intValue() : 0);
-
-        // Calculate habit completion rate
-        long totalDays = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        long activeHabits = habitRepository.findByUserIdAndIsActiveTrue(userId).size();
-        double totalPossible = totalDays * activeHabits;
-        double completionRate = totalPossible > 0 ? (completedHabits / totalPossible) * 100 : 0;
-        progressData.setHabitCompletionRate(completionRate);
+        try (FanOut fanOut = new FanOut(virtualThreadExecutor, fanOutTimeoutMs, fanOutParallelism)) {
+            Future<Double> avgMood = fanOut.fork(() -> moodLogService.getAverageMoodRating(userId, startDate, endDate));
+            Future<Double> avgStress = fanOut.fork(() -> stressAssessmentService.getAverageStressScore(userId, startDate, endDate));
+            Future<String> stressTrend = fanOut.fork(() -> stressAssessmentService.determineStressTrend(userId));
+            Future<Double> avgSleep = fanOut.fork(() -> sleepRollupService.getAverageSleepHours(userId, startDate, endDate));
+            Future<Long> completed = fanOut.fork(() -> habitCompletionRepository.countCompletedHabits(userId, startDate, endDate));
+            Future<Long> active = fanOut.fork(() -> habitRepository.countByUserIdAndIsActiveTrue(userId));
+            Future<List<Map<String, Object>>> correlations = fanOut.fork(() -> correlationService.getCorrelations(userId, startDate, endDate));
+
+            // Primary-key lookups on mood_stats: cheaper inline than on another connection
+            String moodTrend = moodLogService.determineMoodTrend(userId);
+            int loggingStreak = moodLogService.calculateConsecutiveLoggingDays(userId);
+            fanOut.join();
+
+            // Mood metrics
+            progressData.setAverageMoodRating(avgMood.resultNow() != null ? avgMood.resultNow() : 0.0);
+            progressData.setMoodTrend(moodTrend);
+            progressData.setConsecutiveDaysOfMoodLogging(loggingStreak);
+
+            // Stress metrics
+            progressData.setAverageStressScore(avgStress.resultNow() != null ? avgStress.resultNow() : 0.0);
+            progressData.setStressTrend(stressTrend.resultNow());
+
+            // Sleep metrics
+            progressData.setAverageSleepHours(avgSleep.resultNow() != null ? avgSleep.resultNow() : 0.0);
+
+            // Habit metrics
+            long completedHabits = completed.resultNow() != null ? completed.resultNow() : 0;
+            progressData.setTotalHabitsCompleted((int) completedHabits);
+
+            // Calculate habit completion rate
+            long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            double totalPossible = totalDays * active.resultNow();
+            double completionRate = totalPossible > 0 ? (completedHabits / totalPossible) * 100 : 0;
+            progressData.setHabitCompletionRate(completionRate);
+
+            progressData.setCorrelations(correlations.resultNow());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading progress for user " + userId, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not load progress for user " + userId, e.getCause());
+        } catch (TimeoutException e) {
+            System.err.println("⚠️ Progress for user " + userId + " took longer than " + fanOutTimeoutMs + " ms");
+            throw new IllegalStateException("Progress for user " + userId + " timed out", e);
+        }
 
         // Generate milestones
         progressData.setAchievedMilestones(generateMilestones(progressData));
@@ -69,6 +122,7 @@ public class ProgressService {
         // Generate correlations
         progressData.setSleepMoodCorrelation(generateSleepMoodCorrelation(progressData));
 
+        progressDataCache.put(userId, startDate, endDate, version, progressData);
         return progressData;
     }
 
@@ -97,20 +151,49 @@ public class ProgressService {
         return milestones;
     }
 
+    /**
+     * Describe measured correlations when there are enough paired days,
+     * otherwise fall back to comparing the averages
+     */
     private String generateSleepMoodCorrelation(ProgressData data) {
         StringBuilder correlation = new StringBuilder();
 
-        if (data.getAverageSleepHours() >= 7.0 && data.getAverageMoodRating() >= 3.5) {
-            correlation.append("Good sleep appears to correlate with better mood! ");
-        } else if (data.getAverageSleepHours() < 6.0 && data.getAverageMoodRating() < 3.0) {
-            correlation.append("Consider improving sleep to boost mood. ");
+        Double sleepMood = spearman(data, "sleepHours", "mood");
+        Double stressMood = spearman(data, "stress", "mood");
+        if (sleepMood != null && sleepMood >= 0.3) {
+            correlation.append("Your mood has been better after longer nights of sleep (r = ").append(sleepMood).append("). ");
+        } else if (sleepMood != null && sleepMood <= -0.3) {
+            correlation.append("Your mood has been lower after longer nights of sleep (r = ").append(sleepMood).append("). ");
+        } else if (sleepMood == null) {
+            if (data.getAverageSleepHours() >= 7.0 && data.getAverageMoodRating() >= 3.5) {
+                correlation.append("Good sleep appears to correlate with better mood! ");
+            } else if (data.getAverageSleepHours() < 6.0 && data.getAverageMoodRating() < 3.0) {
+                correlation.append("Consider improving sleep to boost mood. ");
+            }
         }
 
-        if (data.getAverageStressScore() <= 14.0 && data.getAverageMoodRating() >= 4.0) {
+        if (stressMood != null && stressMood <= -0.3) {
+            correlation.append("Your mood tends to drop on higher-stress days (r = ").append(stressMood).append(").");
+        } else if (stressMood == null && data.getAverageStressScore() <= 14.0 && data.getAverageMoodRating() >= 4.0) {
             correlation.append("Low stress levels are associated with positive mood!");
         }
 
         return correlation.toString().isEmpty() ?
-                "Keep tracking to discover patterns!" : correlation.toString();
+                "Keep tracking to discover patterns!" : correlation.toString().trim();
+    }
+
+    /**
+     * Same-day Spearman coefficient for a pair, or null if not measured
+     */
+    private static Double spearman(ProgressData data, String x, String y) {
+        if (data.getCorrelations() == null) {
+            return null;
+        }
+        for (Map<String, Object> pair : data.getCorrelations()) {
+            if (x.equals(pair.get("x")) && y.equals(pair.get("y")) && Integer.valueOf(0).equals(pair.get("lagDays"))) {
+                return (Double) pair.get("spearman");
+            }
+        }
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Message;
+import com.mentalhealth.backend.model.Notification;
+import com.mentalhealth.backend.repository.MessageRepository;
+import com.mentalhealth.backend.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read state for messages and notifications.
+ *
+ * Every operation is a single set-based UPDATE guarded by "still unread",
+ * so the returned count is exactly what changed. That count feeds the unread
+ * counters and the conversation summary, and one aggregated read receipt is
+ * pushed to /user/queue/read-receipts after commit (never one per row).
+ */
+@Service
+public class ReadStateService {
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private UnreadCounterRegistry unreadCounterRegistry;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Mark everything senderId sent to readerId as read.
+     * The sender gets a MESSAGES_READ receipt.
+     *
+     * @return number of messages that were unread
+     */
+    @Transactional
+    public int markConversationRead(Long readerId, Long senderId) {
+        LocalDateTime now = LocalDateTime.now();
+        int marked = messageRepository.markConversationRead(readerId, senderId, now);
+
+        if (marked > 0) {
+            conversationSummaryService.markRead(readerId, senderId);
+            unreadCounterRegistry.messagesChanged(readerId, -marked);
+            sendReceiptAfterCommit(senderId, messagesReadReceipt(readerId, senderId, marked, now));
+        }
+        return marked;
+    }
+
+    /**
+     * Mark a single message as read
+     *
+     * @return 1 if it was unread, otherwise 0
+     */
+    @Transactional
+    public int markMessageRead(Long messageId) {
+        Optional<Message> message = messageRepository.findById(messageId);
+        if (message.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int marked = messageRepository.markReadIfUnread(messageId, now);
+
+        if (marked > 0) {
+            Long readerId = message.get().getReceiverId();
+            Long senderId = message.get().getSenderId();
+            conversationSummaryService.markRead(readerId, senderId);
+            unreadCounterRegistry.messagesChanged(readerId, -marked);
+
+            Map<String, Object> receipt = messagesReadReceipt(readerId, senderId, marked, now);
+            receipt.put("messageId", messageId);
+            sendReceiptAfterCommit(senderId, receipt);
+        }
+        return marked;
+    }
+
+    /**
+     * Mark a single notification as read
+     *
+     * @return 1 if it was unread, otherwise 0
+     * @throws RuntimeException if the notification does not exist
+     */
+    @Transactional
+    public int markNotificationRead(Long notificationId) {
+        Notification notification = notificationRepository.findById(notificationId)
+                .orElseThrow(() -> new RuntimeException("Notification not found"));
+
+        LocalDateTime now = LocalDateTime.now();
+        int marked = notificationRepository.markReadIfUnread(notificationId, now);
+
+        if (marked > 0) {
+            unreadCounterRegistry.notificationsChanged(notification.getUserId(), -marked);
+
+            Map<String, Object> receipt = notificationsReadReceipt(notification.getUserId(), marked, now);
+            receipt.put("notificationId", notificationId);
+            sendReceiptAfterCommit(notification.getUserId(), receipt);
+        }
+        return marked;
+    }
+
+    /**
+     * Mark all of a user's notifications as read. The user's other sessions
+     * get a NOTIFICATIONS_READ receipt so they can clear their lists.
+     *
+     * @return number of notifications that were unread
+     */
+    @Transactional
+    public int markAllNotificationsRead(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        int marked = notificationRepository.markAllRead(userId, now);
+
+        if (marked > 0) {
+            unreadCounterRegistry.notificationsCleared(userId);
+            sendReceiptAfterCommit(userId, notificationsReadReceipt(userId, marked, now));
+        }
+        return marked;
+    }
+
+    private Map<String, Object> messagesReadReceipt(Long readerId, Long senderId, int count, LocalDateTime readAt) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("type", "MESSAGES_READ");
+        receipt.put("readerId", readerId);
+        receipt.put("senderId", senderId);
+        receipt.put("count", count);
+        receipt.put("readAt", readAt);
+        return receipt;
+    }
+
+    private Map<String, Object> notificationsReadReceipt(Long userId, int count, LocalDateTime readAt) {
+        Map<String, Object> receipt = new HashMap<>();
+        receipt.put("type", "NOTIFICATIONS_READ");
+        receipt.put("userId", userId);
+        receipt.put("count", count);
+        receipt.put("readAt", readAt);
+        return receipt;
+    }
+
+    private void sendReceiptAfterCommit(Long userId, Map<String, Object> receipt) {
+        TransactionCallbacks.runAfterCommit(() -> {
+            try {
+                messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/read-receipts", receipt);
+            } catch (Exception e) {
+                System.err.println("⚠️ WebSocket error sending read receipt: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,194 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.TherapySession;
+import com.mentalhealth.backend.model.TherapySession.SessionStatus;
+import com.mentalhealth.backend.repository.TherapySessionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Sends SESSION_REMINDER notifications session.reminder.hours before each
+ * scheduled therapy session.
+ *
+ * Only sessions starting within the next session.reminder.window-hours are
+ * held in memory, in a HierarchicalTimingWheel; the window slides forward
+ * with one range query per refresh instead of scanning every minute.
+ * Creating, rescheduling or cancelling a session updates the wheel right
+ * after commit. A rescheduled or cancelled reminder is not removed from the
+ * wheel; it is ignored when it comes due because the session's current fire
+ * time no longer matches. reminder_sent_at makes each reminder go out once,
+ * even across restarts or several instances.
+ */
+@Service
+public class SessionReminderService {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MMM d 'at' HH:mm");
+
+    private record Reminder(Long sessionId, long fireAtMillis) {
+    }
+
+    @Autowired
+    private TherapySessionRepository therapySessionRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${session.reminder.hours:2}")
+    private long reminderHours;
+
+    @Value("${session.reminder.window-hours:24}")
+    private long windowHours;
+
+    @Value("${session.reminder.tick-ms:1000}")
+    private long tickMs;
+
+    private volatile HierarchicalTimingWheel<Reminder> wheel;
+
+    // Current fire time per session; anything in the wheel that does not match is stale
+    private final Map<Long, Long> fireTimes = new ConcurrentHashMap<>();
+
+    // Sessions starting up to this time have been loaded into the wheel
+    private volatile LocalDateTime loadedUntil;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, System.currentTimeMillis());
+        loadedUntil = LocalDateTime.now();
+        extendWindow();
+    }
+
+    /**
+     * Load the sessions that entered the window since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${session.reminder.window-refresh-ms:3600000}",
+            initialDelayString = "${session.reminder.window-refresh-ms:3600000}")
+    public synchronized void extendWindow() {
+        if (wheel == null) {
+            return;
+        }
+        try {
+            LocalDateTime from = loadedUntil;
+            LocalDateTime to = LocalDateTime.now().plusHours(windowHours + reminderHours);
+            List<TherapySession> sessions = therapySessionRepository.findReminderCandidates(from, to);
+            sessions.forEach(this::schedule);
+            loadedUntil = to;
+            System.out.println("⏰ Session reminders loaded up to " + to + " (" + sessions.size()
+                    + " new, " + fireTimes.size() + " pending)");
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not load session reminders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Keep the wheel in sync with a session that was created, rescheduled or
+     * changed status. Applied after the current transaction commits.
+     */
+    public void sessionChanged(TherapySession session) {
+        TransactionCallbacks.runAfterCommit(() -> {
+            if (wheel == null || session.getId() == null) {
+                return;
+            }
+            LocalDateTime window = loadedUntil;
+            boolean pending = session.getStatus() == SessionStatus.SCHEDULED
+                    && session.getReminderSentAt() == null
+                    && session.getSessionDate() != null
+                    && session.getSessionDate().isAfter(LocalDateTime.now())
+                    && !session.getSessionDate().isAfter(window);
+            if (pending) {
+                schedule(session);
+            } else {
+                // Cancelled, completed, or moved beyond the window (picked up again when the window reaches it)
+                fireTimes.remove(session.getId());
+            }
+        });
+    }
+
+    /**
+     * Fire reminders that came due
+     */
+    @Scheduled(fixedRateString = "${session.reminder.tick-ms:1000}")
+    public void tick() {
+        if (wheel == null) {
+            return;
+        }
+
+        List<Reminder> due = wheel.advanceTo(System.currentTimeMillis());
+        for (Reminder reminder : due) {
+            if (fireTimes.remove(reminder.sessionId(), reminder.fireAtMillis())) {
+                virtualThreadExecutor.execute(() -> send(reminder.sessionId()));
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingReminders", fireTimes.size());
+        stats.put("wheelEntries", wheel != null ? wheel.size() : 0);
+        stats.put("loadedUntil", loadedUntil);
+        stats.put("reminderHours", reminderHours);
+        return stats;
+    }
+
+    private void schedule(TherapySession session) {
+        long fireAt = session.getSessionDate().minusHours(reminderHours)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        Long previous = fireTimes.put(session.getId(), fireAt);
+        if (previous == null || previous != fireAt) {
+            wheel.schedule(new Reminder(session.getId(), fireAt), fireAt);
+        }
+    }
+
+    private void send(Long sessionId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TherapySession session = therapySessionRepository.findById(sessionId).orElse(null);
+                if (session == null || therapySessionRepository.markReminderSent(sessionId, LocalDateTime.now()) == 0) {
+                    return;
+                }
+
+                String when = session.getSessionDate().format(TIME_FORMAT);
+                long minutes = Math.max(0, Duration.between(LocalDateTime.now(), session.getSessionDate()).toMinutes());
+                String startsIn = minutes >= 60 ? (minutes / 60) + "h " + (minutes % 60) + "m" : minutes + " minutes";
+
+                notificationService.sendNotification(
+                        session.getClientId(),
+                        "SESSION_REMINDER",
+                        "Upcoming Session ⏰",
+                        "Your therapy session starts " + when + " (in " + startsIn + ").",
+                        session.getId()
+                );
+                notificationService.sendNotification(
+                        session.getInstructorId(),
+                        "SESSION_REMINDER",
+                        "Upcoming Session ⏰",
+                        "Your session with " + session.getClientName() + " starts " + when + " (in " + startsIn + ").",
+                        session.getId()
+                );
+            });
+        } catch (Exception e) {
+            System.err.println("❌ ERROR sending reminder for session " + sessionId + ": " + e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,6 @@ import com.mentalhealth.backend.model.SessionRequest.RequestStatus;
 import com.mentalhealth.backend.model.TherapySession;
 import com.mentalhealth.backend.model.TherapySession.SessionStatus;
 import com.mentalhealth.backend.repository.SessionRequestRepository;
-import com.mentalhealth.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,13 +24,16 @@ public class SessionRequestService {
     private TherapySessionService therapySessionService;
 
     @Autowired
-    private ZoomService zoomService;
+    private MeetingProvisioningService meetingProvisioningService;
 
     @Autowired
     private NotificationService notificationService;
 
     @Autowired
-    private UserRepository userRepository;
+    private IdentityCache identityCache;
+
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
 
     public List<SessionRequest> getPendingRequestsForInstructor(Long instructorId) {
         return sessionRequestRepository.findByInstructorIdAndStatus(instructorId, RequestStatus.PENDING);
@@ -49,14 +51,16 @@ public class SessionRequestService {
 
             // Get client name
             if (request.getClientId() != null) {
-                userRepository.findById(request.getClientId()).ifPresent(user -> {
-                    request.setClientName(user.getUsername());
-                    System.out.println("   Client Name: " + user.getUsername());
-                });
+                String clientName = identityCache.getUserName(request.getClientId());
+                if (clientName != null) {
+                    request.setClientName(clientName);
+                    System.out.println("   Client Name: " + clientName);
+                }
             }
 
             SessionRequest saved = sessionRequestRepository.save(request);
             System.out.println("✅ Session request saved with ID: " + saved.getId());
+            dashboardStatsCache.invalidate(saved.getInstructorId());
 
             // Send notification to instructor
             notificationService.sendNotification(
@@ -99,38 +103,23 @@ public class SessionRequestService {
         request.setUpdatedAt(LocalDateTime.now());
         System.out.println("✅ Status changed to ACCEPTED");
 
-        // Generate Zoom link if not provided
-        String finalZoomLink = zoomLink;
-        if (finalZoomLink == null || finalZoomLink.isEmpty()) {
-            System.out.println("🔗 Generating Zoom meeting link via API...");
-            try {
-                finalZoomLink = zoomService.createMeeting(
-                        "Therapy Session with " + request.getClientName(),
-                        request.getRequestedDate(),
-                        60
-                );
-                System.out.println("✅ Zoom link generated: " + finalZoomLink);
-            } catch (Exception e) {
-                System.err.println("❌ ERROR creating Zoom meeting: " + e.getMessage());
-                e.printStackTrace();
-                // Create a placeholder if Zoom fails
-                finalZoomLink = "https://zoom.us/j/placeholder-" + System.currentTimeMillis();
-                System.out.println("⚠️ Using placeholder link: " + finalZoomLink);
-            }
+        // Use the manual link if provided; otherwise the Zoom meeting is created
+        // in the background after commit and copied onto this request
+        boolean manualLink = zoomLink != null && !zoomLink.isBlank();
+        if (manualLink) {
+            System.out.println("📝 Using provided manual zoom link: " + zoomLink);
+            request.setZoomLink(zoomLink);
         } else {
-            System.out.println("📝 Using provided manual zoom link: " + finalZoomLink);
+            System.out.println("🔗 Zoom meeting will be provisioned in the background");
         }
 
-        // ✅ CRITICAL: Save zoom link to request
-        request.setZoomLink(finalZoomLink);
-        System.out.println("✅ Zoom link SET on request object: " + request.getZoomLink());
-
         // Save request FIRST to ensure zoom link is persisted
         SessionRequest savedRequest = sessionRequestRepository.save(request);
         System.out.println("✅ Request SAVED to database");
         System.out.println("   Saved Request ID: " + savedRequest.getId());
         System.out.println("   Saved Zoom Link: " + savedRequest.getZoomLink());
         System.out.println("   Saved Status: " + savedRequest.getStatus());
+        dashboardStatsCache.invalidate(savedRequest.getInstructorId());
 
         // Create therapy session
         try {
@@ -140,10 +129,16 @@ public class SessionRequestService {
             session.setInstructorId(savedRequest.getInstructorId());
             session.setSessionDate(savedRequest.getRequestedDate());
             session.setSessionType("Initial Consultation");
-            session.setZoomLink(finalZoomLink);
             session.setStatus(SessionStatus.SCHEDULED);
+            session.setSourceRequestId(savedRequest.getId());
+            if (manualLink) {
+                meetingProvisioningService.useManualLink(session, zoomLink);
+            } else {
+                meetingProvisioningService.provisionLater(session);
+            }
 
             TherapySession savedSession = therapySessionService.createSession(session);
+            meetingProvisioningService.startAfterCommit();
             System.out.println("✅ Therapy session created with ID: " + savedSession.getId());
         } catch (Exception e) {
             System.err.println("⚠️ ERROR creating therapy session: " + e.getMessage());
@@ -156,7 +151,9 @@ public class SessionRequestService {
                     savedRequest.getClientId(),
                     "SESSION_ACCEPTED",
                     "Session Request Accepted ✅",
-                    "Your therapy session has been scheduled!",
+                    manualLink
+                            ? "Your therapy session has been scheduled!"
+                            : "Your therapy session has been scheduled! We'll notify you when the Zoom link is ready.",
                     savedRequest.getId()  // Links to session request with zoom link
             );
             System.out.println("✅ Notification sent to client: " + savedRequest.getClientId());
@@ -179,6 +176,7 @@ public class SessionRequestService {
 
         request.setStatus(RequestStatus.DECLINED);
         request.setUpdatedAt(LocalDateTime.now());
+        dashboardStatsCache.invalidate(request.getInstructorId());
 
         // Send notification to client
         notificationService.sendNotification(
@@ -0,0 +1,154 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.SleepDailyRollup;
+import com.mentalhealth.backend.model.SleepEntry;
+import com.mentalhealth.backend.repository.SleepDailyRollupRepository;
+import com.mentalhealth.backend.repository.SleepDailyRollupRepository.SleepTotals;
+import com.mentalhealth.backend.repository.SleepRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps sleep_daily_rollups in step with sleep_entries.
+ * Every change is applied as a delta on the entry's sleep_date, so sleep
+ * averages for any range only ever sum rollup rows.
+ */
+@Service
+public class SleepRollupService {
+
+    @Autowired
+    private SleepDailyRollupRepository sleepDailyRollupRepository;
+
+    @Autowired
+    private SleepRepository sleepRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Count a newly saved entry
+     */
+    @Transactional
+    public void entryAdded(SleepEntry entry) {
+        apply(entry.getUserId(), entry.getSleepDate(), entry.getDurationMinutes(), entry.getSleepQuality(), 1);
+    }
+
+    /**
+     * Move an edited entry's totals from its old values to its new ones
+     */
+    @Transactional
+    public void entryChanged(Long userId, LocalDate oldDate, Integer oldMinutes, Integer oldQuality, SleepEntry updated) {
+        apply(userId, oldDate, oldMinutes, oldQuality, -1);
+        apply(userId, updated.getSleepDate(), updated.getDurationMinutes(), updated.getSleepQuality(), 1);
+    }
+
+    /**
+     * Remove a deleted entry's totals
+     */
+    @Transactional
+    public void entryRemoved(SleepEntry entry) {
+        apply(entry.getUserId(), entry.getSleepDate(), entry.getDurationMinutes(), entry.getSleepQuality(), -1);
+    }
+
+    /**
+     * Average hours per night for nights between two dates (inclusive), or null if none
+     */
+    public Double getAverageSleepHours(Long userId, LocalDate fromDate, LocalDate toDate) {
+        return averageHours(sleepDailyRollupRepository.sumBetween(userId, fromDate, toDate));
+    }
+
+    /**
+     * Average hours per night over all of a user's entries, or null if none
+     */
+    public Double getAverageSleepHours(Long userId) {
+        return averageHours(sleepDailyRollupRepository.sumAll(userId));
+    }
+
+    /**
+     * Per-week totals (weeks start on Monday) for the last weeks weeks, oldest first
+     */
+    public List<Map<String, Object>> getWeeklySummary(Long userId, int weeks) {
+        LocalDate thisWeek = LocalDate.now().with(DayOfWeek.MONDAY);
+        LocalDate fromDate = thisWeek.minusWeeks(Math.max(weeks, 1) - 1L);
+
+        Map<LocalDate, long[]> totalsByWeek = new LinkedHashMap<>();
+        for (LocalDate week = fromDate; !week.isAfter(thisWeek); week = week.plusWeeks(1)) {
+            totalsByWeek.put(week, new long[4]);
+        }
+        for (SleepDailyRollup day : sleepDailyRollupRepository
+                .findByUserIdAndSleepDateBetweenOrderBySleepDateAsc(userId, fromDate, thisWeek.plusDays(6))) {
+            long[] totals = totalsByWeek.get(day.getSleepDate().with(DayOfWeek.MONDAY));
+            totals[0] += day.getEntryCount();
+            totals[1] += day.getTotalMinutes();
+            totals[2] += day.getQualitySum();
+            totals[3] += day.getQualityCount();
+        }
+
+        List<Map<String, Object>> summary = new ArrayList<>(totalsByWeek.size());
+        totalsByWeek.forEach((week, totals) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("weekStart", week);
+            row.put("nights", totals[0]);
+            row.put("averageSleepHours", totals[0] > 0 ? round(totals[1] / 60.0 / totals[0]) : null);
+            row.put("averageQuality", totals[3] > 0 ? round((double) totals[2] / totals[3]) : null);
+            summary.add(row);
+        });
+        return summary;
+    }
+
+    /**
+     * Fill the derived columns of old entries and build the rollup once
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        try {
+            Integer filled = transactionTemplate.execute(status -> sleepRepository.fillDerivedColumns());
+            if (filled != null && filled > 0) {
+                System.out.println("✅ duration_minutes / sleep_date filled for " + filled + " sleep entries");
+            }
+            if (sleepDailyRollupRepository.count() == 0) {
+                Integer rows = transactionTemplate.execute(status -> sleepDailyRollupRepository.rebuildAll());
+                System.out.println("✅ sleep_daily_rollups built with " + rows + " rows");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not initialize sleep_daily_rollups: " + e.getMessage());
+        }
+    }
+
+    private void apply(Long userId, LocalDate sleepDate, Integer minutes, Integer quality, int sign) {
+        if (sleepDate == null) {
+            return;
+        }
+        sleepDailyRollupRepository.applyDelta(
+                userId,
+                sleepDate,
+                sign,
+                sign * (long) (minutes != null ? minutes : 0),
+                sign * (long) (quality != null ? quality : 0),
+                quality != null ? sign : 0
+        );
+    }
+
+    private static Double averageHours(SleepTotals totals) {
+        if (totals == null || totals.getEntryCount() == 0) {
+            return null;
+        }
+        return totals.getTotalMinutes() / 60.0 / totals.getEntryCount();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+}
@@ -8,14 +8,19 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class SleepService {
 
     private final SleepRepository sleepRepository;
+    private final SleepRollupService sleepRollupService;
+    private final ClientOverviewService clientOverviewService;
+    private final ProgressDataCache progressDataCache;
 
     /**
      * Create a new sleep entry
@@ -34,7 +39,12 @@ public class SleepService {
             throw new IllegalArgumentException("Sleep end time must be after start time");
         }
 
-        return sleepRepository.save(sleepEntry);
+        sleepEntry.computeDerivedFields();
+        SleepEntry saved = sleepRepository.saveAndFlush(sleepEntry);
+        sleepRollupService.entryAdded(saved);
+        clientOverviewService.refreshSleep(saved.getUserId());
+        progressDataCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     /**
@@ -65,7 +75,15 @@ public class SleepService {
      */
     @Transactional
     public SleepEntry updateSleepEntry(Long id, SleepEntry updatedEntry) {
-        SleepEntry existingEntry = getSleepEntryById(id);
+        // Lock the entry so the old values below are the ones the rollup counts
+        SleepEntry existingEntry = sleepRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Sleep entry not found with id: " + id));
+
+        // Remember what the rollup currently counts for this entry
+        existingEntry.computeDerivedFields();
+        LocalDate oldDate = existingEntry.getSleepDate();
+        Integer oldMinutes = existingEntry.getDurationMinutes();
+        Integer oldQuality = existingEntry.getSleepQuality();
 
         // Update fields
         if (updatedEntry.getSleepStartTime() != null) {
@@ -89,7 +107,12 @@ public class SleepService {
             throw new IllegalArgumentException("Sleep end time must be after start time");
         }
 
-        return sleepRepository.save(existingEntry);
+        existingEntry.computeDerivedFields();
+        SleepEntry saved = sleepRepository.saveAndFlush(existingEntry);
+        sleepRollupService.entryChanged(saved.getUserId(), oldDate, oldMinutes, oldQuality, saved);
+        clientOverviewService.refreshSleep(saved.getUserId());
+        progressDataCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     /**
@@ -97,26 +120,29 @@ public class SleepService {
      */
     @Transactional
     public void deleteSleepEntry(Long id) {
-        if (!sleepRepository.existsById(id)) {
-            throw new RuntimeException("Sleep entry not found with id: " + id);
-        }
-        sleepRepository.deleteById(id);
+        SleepEntry entry = sleepRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Sleep entry not found with id: " + id));
+        entry.computeDerivedFields();
+        sleepRepository.delete(entry);
+        sleepRepository.flush();
+        sleepRollupService.entryRemoved(entry);
+        clientOverviewService.refreshSleep(entry.getUserId());
+        progressDataCache.invalidate(entry.getUserId());
     }
 
     /**
-     * Calculate average sleep duration for a user
+     * Calculate average sleep duration for a user (from the daily rollup)
      */
     public double calculateAverageSleepHours(Long userId) {
-        List<SleepEntry> entries = getAllSleepEntries(userId);
-        if (entries.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalHours = entries.stream()
-                .mapToDouble(SleepEntry::getSleepDurationHours)
-                .sum();
+        Double average = sleepRollupService.getAverageSleepHours(userId);
+        return average != null ? average : 0.0;
+    }
 
-        return totalHours / entries.size();
+    /**
+     * Get per-week sleep averages for the last N weeks
+     */
+    public List<Map<String, Object>> getWeeklySummary(Long userId, int weeks) {
+        return sleepRollupService.getWeeklySummary(userId, weeks);
     }
 
     /**
@@ -8,18 +8,36 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class StressAssessmentService {
 
+    // Window of the rolling stress score average in the dimension analysis
+    private static final int ROLLING_AVERAGE_DAYS = 7;
+
     @Autowired
     private StressAssessmentRepository stressAssessmentRepository;
 
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private StressSeriesCache stressSeriesCache;
+
+    @Autowired
+    private ProgressDataCache progressDataCache;
+
     public StressAssessment saveStressAssessment(StressAssessment assessment) {
+        boolean isNew = assessment.getId() == null;
         assessment.calculateStressScore();
-        return stressAssessmentRepository.save(assessment);
+        StressAssessment saved = stressAssessmentRepository.save(assessment);
+        clientOverviewService.updateStressLevel(saved.getUserId(), saved.getStressLevel());
+        stressSeriesCache.assessmentSaved(saved, isNew);
+        progressDataCache.invalidate(saved.getUserId());
+        return saved;
     }
 
     public List<StressAssessment> getStressAssessmentsByUser(Long userId) {
@@ -40,29 +58,13 @@ public class StressAssessmentService {
     }
 
     public String determineStressTrend(Long userId) {
-        List<StressAssessment> assessments = stressAssessmentRepository
-                .findByUserIdOrderByAssessmentDateDesc(userId);
-
-        if (assessments.size() < 2) return "STABLE";
-
-        // Compare recent average with older average
-        int midPoint = assessments.size() / 2;
-        double recentAvg = assessments.subList(0, midPoint).stream()
-                .mapToInt(StressAssessment::getStressScore)
-                .average()
-                .orElse(0);
-
-        double olderAvg = assessments.subList(midPoint, assessments.size()).stream()
-                .mapToInt(StressAssessment::getStressScore)
-                .average()
-                .orElse(0);
+        return stressSeriesCache.get(userId).scoreTrend();
+    }
 
-        if (recentAvg < olderAvg - 2) return "IMPROVING";
-        if (recentAvg > olderAvg + 2) return "WORSENING";
-        return "STABLE";
+    /**
+     * Per-dimension breakdown of a user's stress over the last days days
+     */
+    public Map<String, Object> analyzeStressDimensions(Long userId, int days) {
+        return stressSeriesCache.get(userId).analyze(LocalDate.now().minusDays(days), ROLLING_AVERAGE_DAYS);
     }
 }
-
-// ============================================
-
-
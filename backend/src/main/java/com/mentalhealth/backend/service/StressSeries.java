@@ -0,0 +1,311 @@
+package com.mentalhealth.backend.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented copy of one user's stress assessments: a day offset and
+ * one short per dimension for every assessment, oldest first. That is
+ * about 18 bytes per assessment instead of an entity, and every analysis
+ * below is a single pass over primitive arrays.
+ *
+ * Instances are immutable; appended() returns a new series. The highest
+ * assessment id included is kept, so an assessment that may already be
+ * part of the series is never appended a second time.
+ */
+public class StressSeries {
+
+    /**
+     * Dimension names, in column order (the stress score is their sum)
+     */
+    public static final List<String> DIMENSIONS = List.of(
+            "workload", "sleepQuality", "anxiety", "mood",
+            "physicalSymptoms", "concentration", "socialConnection");
+
+    private static final int D = 7;
+
+    private final LocalDate base;     // day 0
+    private final int[] days;         // days after base
+    private final short[][] levels;   // [dimension][assessment]
+    private final int size;
+    private final long lastId;        // highest assessment id included, 0 if none
+
+    private StressSeries(LocalDate base, int[] days, short[][] levels, int size, long lastId) {
+        this.base = base;
+        this.days = days;
+        this.levels = levels;
+        this.size = size;
+        this.lastId = lastId;
+    }
+
+    public static StressSeries empty() {
+        return new StressSeries(null, new int[0], new short[D][0], 0, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDate lastDate() {
+        return size > 0 ? base.plusDays(days[size - 1]) : null;
+    }
+
+    /**
+     * Approximate heap footprint in bytes
+     */
+    public long footprint() {
+        return (long) days.length * Integer.BYTES + (long) D * levels[0].length * Short.BYTES;
+    }
+
+    /**
+     * A copy with one more assessment, or null when the caller should reload
+     * instead: the assessment is older than the last one (the series stays in
+     * date order), or its id is not above the last id, so the series was
+     * loaded after it committed or ids committed out of order
+     */
+    public StressSeries appended(long id, LocalDate date, short[] values) {
+        if (id <= lastId || (size > 0 && date.isBefore(lastDate()))) {
+            return null;
+        }
+
+        LocalDate newBase = size > 0 ? base : date;
+        int[] newDays = Arrays.copyOf(days, size + 1);
+        newDays[size] = (int) ChronoUnit.DAYS.between(newBase, date);
+
+        short[][] newLevels = new short[D][];
+        for (int d = 0; d < D; d++) {
+            newLevels[d] = Arrays.copyOf(levels[d], size + 1);
+            newLevels[d][size] = values[d];
+        }
+        return new StressSeries(newBase, newDays, newLevels, size + 1, id);
+    }
+
+    /**
+     * IMPROVING / WORSENING when the average score of the most recent half of
+     * the assessments differs from the older half by more than 2 points
+     */
+    public String scoreTrend() {
+        if (size < 2) return "STABLE";
+
+        int split = size - size / 2;
+        long older = 0;
+        long recent = 0;
+        for (int i = 0; i < size; i++) {
+            if (i < split) {
+                older += score(i);
+            } else {
+                recent += score(i);
+            }
+        }
+
+        double olderAvg = (double) older / split;
+        double recentAvg = (double) recent / (size - split);
+        if (recentAvg < olderAvg - 2) return "IMPROVING";
+        if (recentAvg > olderAvg + 2) return "WORSENING";
+        return "STABLE";
+    }
+
+    /**
+     * Per-dimension averages, weekly trend, share of the stress score and
+     * correlation with it, the dimension-to-dimension correlation matrix and
+     * a trailing rollingDays average of the score, for assessments since
+     * the given date. One pass over the arrays.
+     */
+    public Map<String, Object> analyze(LocalDate since, int rollingDays) {
+        int from = firstIndexOnOrAfter(since);
+        int n = size - from;
+
+        long[] sum = new long[D];
+        long[] sumSq = new long[D];
+        long[] sumScoreProduct = new long[D];
+        double[] sumTimeProduct = new double[D];
+        long[][] cross = new long[D][D];
+        long scoreSum = 0;
+        long scoreSumSq = 0;
+        double timeSum = 0;
+        double timeSumSq = 0;
+
+        List<Map<String, Object>> rolling = new ArrayList<>(n);
+        int windowStart = from;
+        long windowSum = 0;
+
+        for (int i = from; i < size; i++) {
+            int t = days[i];
+            int s = score(i);
+            timeSum += t;
+            timeSumSq += (double) t * t;
+            scoreSum += s;
+            scoreSumSq += (long) s * s;
+
+            for (int d = 0; d < D; d++) {
+                int v = levels[d][i];
+                sum[d] += v;
+                sumSq[d] += v * v;
+                sumScoreProduct[d] += (long) v * s;
+                sumTimeProduct[d] += (double) v * t;
+                for (int e = d + 1; e < D; e++) {
+                    cross[d][e] += v * levels[e][i];
+                }
+            }
+
+            // Trailing window of rollingDays days ending at this assessment
+            windowSum += s;
+            while (days[windowStart] <= t - rollingDays) {
+                windowSum -= score(windowStart++);
+            }
+            Map<String, Object> point = new HashMap<>();
+            point.put("date", base.plusDays(t));
+            point.put("averageScore", round((double) windowSum / (i - windowStart + 1)));
+            rolling.add(point);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("assessmentCount", n);
+        result.put("since", since);
+        if (n == 0) {
+            result.put("dimensions", List.of());
+            return result;
+        }
+
+        List<Map<String, Object>> dimensions = new ArrayList<>(D);
+        int strongest = -1;
+        double strongestCorrelation = 0;
+        int highest = 0;
+        double timeVariance = n * timeSumSq - timeSum * timeSum;
+
+        for (int d = 0; d < D; d++) {
+            Double correlation = Correlations.pearson(n, sum[d], scoreSum, sumSq[d], scoreSumSq, sumScoreProduct[d]);
+            Double slope = timeVariance > 0
+                    ? (n * sumTimeProduct[d] - timeSum * sum[d]) / timeVariance
+                    : null;
+
+            Map<String, Object> dimension = new HashMap<>();
+            dimension.put("dimension", DIMENSIONS.get(d));
+            dimension.put("average", round((double) sum[d] / n));
+            dimension.put("trendPerWeek", slope != null ? round(slope * 7) : null);
+            dimension.put("shareOfScore", scoreSum > 0 ? round(sum[d] * 100.0 / scoreSum) : null);
+            dimension.put("correlationWithScore", correlation != null ? round(correlation) : null);
+            dimensions.add(dimension);
+
+            if (correlation != null && (strongest < 0 || correlation > strongestCorrelation)) {
+                strongest = d;
+                strongestCorrelation = correlation;
+            }
+            if (sum[d] > sum[highest]) {
+                highest = d;
+            }
+        }
+
+        List<List<Double>> matrix = new ArrayList<>(D);
+        for (int d = 0; d < D; d++) {
+            List<Double> row = new ArrayList<>(D);
+            for (int e = 0; e < D; e++) {
+                int a = Math.min(d, e);
+                int b = Math.max(d, e);
+                long product = a == b ? sumSq[a] : cross[a][b];
+                Double r = Correlations.pearson(n, sum[a], sum[b], sumSq[a], sumSq[b], product);
+                row.add(r != null ? round(r) : null);
+            }
+            matrix.add(row);
+        }
+
+        result.put("averageScore", round((double) scoreSum / n));
+        result.put("dimensions", dimensions);
+        result.put("highestDimension", DIMENSIONS.get(highest));
+        // The dimension that rises and falls most with the total score
+        result.put("primaryDriver", strongest >= 0 ? DIMENSIONS.get(strongest) : DIMENSIONS.get(highest));
+        result.put("correlationMatrix", matrix);
+        result.put("rollingAverageDays", rollingDays);
+        result.put("rollingScore", rolling);
+        return result;
+    }
+
+    private int score(int i) {
+        int total = 0;
+        for (int d = 0; d < D; d++) {
+            total += levels[d][i];
+        }
+        return total;
+    }
+
+    private int firstIndexOnOrAfter(LocalDate date) {
+        if (size == 0 || date == null) {
+            return 0;
+        }
+        long target = ChronoUnit.DAYS.between(base, date);
+        if (target <= 0) {
+            return 0;
+        }
+        if (target > days[size - 1]) {
+            return size;
+        }
+        int index = Arrays.binarySearch(days, 0, size, (int) target);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Several assessments on the same day: move to the first one
+        while (index > 0 && days[index - 1] == target) {
+            index--;
+        }
+        return index;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Accumulates assessments (in date order) into growing primitive arrays
+     */
+    public static class Builder {
+
+        private LocalDate base;
+        private int[] days;
+        private final short[][] levels = new short[D][];
+        private int size = 0;
+        private long lastId = 0;
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 16);
+            days = new int[capacity];
+            for (int d = 0; d < D; d++) {
+                levels[d] = new short[capacity];
+            }
+        }
+
+        public void add(long id, LocalDate date, short[] values) {
+            lastId = Math.max(lastId, id);
+            if (base == null) {
+                base = date;
+            }
+            if (size == days.length) {
+                int capacity = size * 2;
+                days = Arrays.copyOf(days, capacity);
+                for (int d = 0; d < D; d++) {
+                    levels[d] = Arrays.copyOf(levels[d], capacity);
+                }
+            }
+            days[size] = (int) ChronoUnit.DAYS.between(base, date);
+            for (int d = 0; d < D; d++) {
+                levels[d][size] = values[d];
+            }
+            size++;
+        }
+
+        public StressSeries build() {
+            if (size == 0) {
+                return empty();
+            }
+            short[][] trimmed = new short[D][];
+            for (int d = 0; d < D; d++) {
+                trimmed[d] = Arrays.copyOf(levels[d], size);
+            }
+            return new StressSeries(base, Arrays.copyOf(days, size), trimmed, size, lastId);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.StressAssessment;
+import com.mentalhealth.backend.repository.StressSeriesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of userId -> StressSeries, backed by stress_assessments.
+ *
+ * A miss loads the user's whole series in one query; after that, new
+ * assessments are appended once their transaction commits, so trend and
+ * driver analysis never touch the table. Edits and back-dated assessments
+ * drop the user's entry instead, and so does an assessment whose id is not
+ * above the series' last id (a series loaded between the commit and the
+ * append already holds it). The least recently used series is evicted
+ * once stress.series.cache.max-size users are cached.
+ */
+@Component
+public class StressSeriesCache {
+
+    @Autowired
+    private StressSeriesRepository stressSeriesRepository;
+
+    @Value("${stress.series.cache.max-size:2000}")
+    private int maxSize;
+
+    private final LongAdder appends = new LongAdder();
+
+    // Bumped on every write, so a load that raced a write is not cached
+    private final AtomicLong writes = new AtomicLong();
+
+    private final BoundedCache<Long, StressSeries> entries = new BoundedCache<>(() -> maxSize);
+
+    public StressSeries get(Long userId) {
+        long writesBefore = writes.get();
+        StressSeries cached = entries.get(userId);
+        if (cached != null) {
+            entries.hit();
+            return cached;
+        }
+
+        // Load outside the lock so one large series does not block every other lookup
+        entries.miss();
+        StressSeries series = stressSeriesRepository.load(userId);
+        entries.putIf(userId, series, () -> writes.get() == writesBefore);
+        return series;
+    }
+
+    /**
+     * Apply a saved assessment once its transaction commits
+     */
+    public void assessmentSaved(StressAssessment assessment, boolean isNew) {
+        TransactionCallbacks.runAfterCommit(() -> entries.locked(() -> {
+            writes.incrementAndGet();
+            StressSeries series = entries.get(assessment.getUserId());
+            if (series == null) {
+                return;
+            }
+
+            StressSeries updated = isNew
+                    ? series.appended(assessment.getId(), assessment.getAssessmentDate(), levels(assessment))
+                    : null;
+            if (updated != null) {
+                entries.put(assessment.getUserId(), updated);
+                appends.increment();
+            } else {
+                entries.remove(assessment.getUserId());
+            }
+        }));
+    }
+
+    public void clear() {
+        entries.locked(() -> {
+            writes.incrementAndGet();
+            entries.clear();
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        LongAdder assessments = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        entries.forEachValue(series -> {
+            assessments.add(series.size());
+            bytes.add(series.footprint());
+        });
+
+        Map<String, Object> stats = entries.getStats();
+        stats.put("assessments", assessments.sum());
+        stats.put("approxBytes", bytes.sum());
+        stats.put("appends", appends.sum());
+        return stats;
+    }
+
+    private static short[] levels(StressAssessment assessment) {
+        return new short[]{
+                assessment.getWorkloadLevel().shortValue(),
+                assessment.getSleepQualityLevel().shortValue(),
+                assessment.getAnxietyLevel().shortValue(),
+                assessment.getMoodLevel().shortValue(),
+                assessment.getPhysicalSymptomsLevel().shortValue(),
+                assessment.getConcentrationLevel().shortValue(),
+                assessment.getSocialConnectionLevel().shortValue()
+        };
+    }
+}
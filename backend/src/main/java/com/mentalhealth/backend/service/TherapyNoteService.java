@@ -3,7 +3,6 @@ package com.mentalhealth.backend.service;
 
 import com.mentalhealth.backend.model.TherapyNote;
 import com.mentalhealth.backend.repository.TherapyNoteRepository;
-import com.mentalhealth.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,16 +16,17 @@ public class TherapyNoteService {
     private TherapyNoteRepository therapyNoteRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private IdentityCache identityCache;
 
     public TherapyNote createNote(TherapyNote note) {
         note.setCreatedAt(LocalDateTime.now());
         note.setUpdatedAt(LocalDateTime.now());
 
         // Get client name
-        userRepository.findById(note.getClientId()).ifPresent(user -> {
-            note.setClientName(user.getUsername());
-        });
+        String clientName = identityCache.getUserName(note.getClientId());
+        if (clientName != null) {
+            note.setClientName(clientName);
+        }
 
         return therapyNoteRepository.save(note);
     }
@@ -2,9 +2,11 @@ package com.mentalhealth.backend.service;
 
 import com.mentalhealth.backend.model.TherapySession;
 import com.mentalhealth.backend.model.TherapySession.SessionStatus;
+import com.mentalhealth.backend.repository.SessionRequestRepository;
 import com.mentalhealth.backend.repository.TherapySessionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -18,8 +20,23 @@ public class TherapySessionService {
     @Autowired
     private TherapySessionRepository therapySessionRepository;
 
-    @Autowired(required = false)
-    private ZoomService zoomService;
+    @Autowired
+    private MeetingProvisioningService meetingProvisioningService;
+
+    @Autowired
+    private SessionRequestRepository sessionRequestRepository;
+
+    @Autowired
+    private SessionReminderService sessionReminderService;
+
+    @Autowired
+    private ClientOverviewService clientOverviewService;
+
+    @Autowired
+    private DashboardStatsCache dashboardStatsCache;
+
+    @Autowired
+    private InstructorStatsService instructorStatsService;
 
     /**
      * Create a therapy session request
@@ -28,7 +45,12 @@ public class TherapySessionService {
     public TherapySession createSession(TherapySession session) {
         session.setCreatedAt(LocalDateTime.now());
         session.setStatus(SessionStatus.SCHEDULED); // default status
-        return therapySessionRepository.save(session);
+        TherapySession saved = therapySessionRepository.save(session);
+        clientOverviewService.recordSession(saved.getClientId(), saved.getSessionDate());
+        dashboardStatsCache.invalidate(saved.getInstructorId());
+        instructorStatsService.recordSessionCreated(saved);
+        sessionReminderService.sessionChanged(saved);
+        return saved;
     }
 
     /**
@@ -74,55 +96,90 @@ public class TherapySessionService {
 
     /**
      * Update session status
-     * Zoom meeting is created ONLY when session is CONFIRMED
+     * Zoom meeting is created ONLY when session is CONFIRMED.
+     * The row stays locked until commit, so the provisioning worker cannot
+     * attach a link to a session that is being cancelled.
      */
+    @Transactional
     public TherapySession updateSessionStatus(Long sessionId, SessionStatus status) {
 
-        TherapySession session = therapySessionRepository.findById(sessionId)
+        TherapySession session = therapySessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
-        // Create Zoom meeting only once when confirmed
-        if (status == SessionStatus.SCHEDULED && session.getZoomLink() == null) {
+        // Create Zoom meeting only once when confirmed (in the background)
+        boolean needsMeeting = status == SessionStatus.SCHEDULED && session.getZoomLink() == null
+                && session.getMeetingStatus() != TherapySession.MeetingStatus.PROVISIONING;
+        if (needsMeeting) {
+            meetingProvisioningService.provisionLater(session);
+        } else if (status != SessionStatus.SCHEDULED) {
+            meetingProvisioningService.stopProvisioning(session);
+        }
 
-            String zoomLink = zoomService.createMeeting(
-                    "Therapy Session",
-                    session.getSessionDate(), // must exist in entity
-                    60                          // duration in minutes
-            );
+        SessionStatus oldStatus = session.getStatus();
+        session.setStatus(status);
+        session.setUpdatedAt(LocalDateTime.now());
 
-            session.setZoomLink(zoomLink);
+        TherapySession saved = therapySessionRepository.save(session);
+        if (needsMeeting) {
+            meetingProvisioningService.startAfterCommit();
         }
+        dashboardStatsCache.invalidate(saved.getInstructorId());
+        instructorStatsService.recordStatusChange(saved, oldStatus, status);
+        sessionReminderService.sessionChanged(saved);
+        return saved;
+    }
 
-        session.setStatus(status);
+    /**
+     * Set the Zoom link by hand (e.g. after provisioning FAILED).
+     * Stops any pending provisioning and updates the originating request.
+     */
+    @Transactional
+    public TherapySession setManualZoomLink(Long sessionId, String zoomLink) {
+        TherapySession session = therapySessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+
+        meetingProvisioningService.useManualLink(session, zoomLink);
         session.setUpdatedAt(LocalDateTime.now());
+        TherapySession saved = therapySessionRepository.save(session);
 
-        return therapySessionRepository.save(session);
+        if (saved.getSourceRequestId() != null) {
+            sessionRequestRepository.updateZoomLink(saved.getSourceRequestId(), zoomLink);
+        }
+        return saved;
     }
 
     /**
-     * Update session status from string (for backward compatibility)
+     * Update session status from string (for backward compatibility).
+     * Transactional itself: the call below does not go through the proxy.
      */
+    @Transactional
     public TherapySession updateSessionStatus(Long sessionId, String statusString) {
         SessionStatus status = SessionStatus.valueOf(statusString.toUpperCase());
         return updateSessionStatus(sessionId, status);
     }
 
     /**
-     * Rate a completed session
+     * Rate a completed session.
+     * The old rating is read under a row lock and the stats delta joins this
+     * transaction, so concurrent ratings cannot count the same old value twice.
      */
+    @Transactional
     public TherapySession rateSession(Long sessionId, int rating) {
 
-        TherapySession session = therapySessionRepository.findById(sessionId)
+        TherapySession session = therapySessionRepository.findByIdForUpdate(sessionId)
                 .orElseThrow(() -> new RuntimeException("Session not found"));
 
         if (rating < 1 || rating > 5) {
             throw new IllegalArgumentException("Rating must be between 1 and 5");
         }
 
+        Integer oldRating = session.getRating();
         session.setRating(rating);
         session.setUpdatedAt(LocalDateTime.now());
 
-        return therapySessionRepository.save(session);
+        TherapySession saved = therapySessionRepository.save(session);
+        instructorStatsService.recordRatingChange(saved, oldRating, rating);
+        return saved;
     }
 
     /**
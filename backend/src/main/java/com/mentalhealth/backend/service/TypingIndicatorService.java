@@ -0,0 +1,162 @@
+package com.mentalhealth.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Typing indicators, throttled on the server.
+ *
+ * Keystroke frames only refresh a per-(sender, receiver) deadline. The
+ * receiver gets one "typing: true" frame when a window opens and one
+ * "typing: false" frame when it closes (explicit stop, or no keystroke for
+ * typing.window-ms). Nothing is echoed back to the sender.
+ *
+ * Expiry runs on a timing wheel of typing.tick-ms slots. Each slot holds
+ * the pairs due in that tick; a pair that was refreshed meanwhile is simply
+ * moved to the slot of its new deadline instead of being expired.
+ */
+@Service
+public class TypingIndicatorService {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private record Pair(Long senderId, Long receiverId) {
+    }
+
+    private static final class Window {
+        volatile long deadlineTick;
+
+        Window(long deadlineTick) {
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Value("${typing.window-ms:3000}")
+    private long windowMs;
+
+    @Value("${typing.tick-ms:250}")
+    private long tickMs;
+
+    private final Map<Pair, Window> windows = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private final Queue<Pair>[] wheel = new Queue[WHEEL_SIZE];
+
+    private volatile long currentTick = 0;
+
+    public TypingIndicatorService() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * A keystroke from senderId in the conversation with receiverId
+     */
+    public void typing(Long senderId, Long receiverId) {
+        if (senderId == null || receiverId == null || senderId.equals(receiverId)) {
+            return;
+        }
+
+        Pair pair = new Pair(senderId, receiverId);
+        long deadline = currentTick + windowTicks();
+
+        Window existing = windows.get(pair);
+        if (existing != null) {
+            existing.deadlineTick = deadline;
+            return;
+        }
+
+        Window created = new Window(deadline);
+        existing = windows.putIfAbsent(pair, created);
+        if (existing != null) {
+            existing.deadlineTick = deadline;
+            return;
+        }
+
+        schedule(pair, deadline);
+        send(pair, true);
+    }
+
+    /**
+     * The sender cleared the input or sent the message
+     */
+    public void stopped(Long senderId, Long receiverId) {
+        if (senderId == null || receiverId == null) {
+            return;
+        }
+
+        Pair pair = new Pair(senderId, receiverId);
+        // The stale wheel entry finds no window and is dropped
+        if (windows.remove(pair) != null) {
+            send(pair, false);
+        }
+    }
+
+    /**
+     * Advance the wheel by one slot and close windows that ran out
+     */
+    @Scheduled(fixedRateString = "${typing.tick-ms:250}")
+    public void tick() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        Queue<Pair> slot = wheel[(int) (tick % WHEEL_SIZE)];
+        int due = slot.size();
+        for (int i = 0; i < due; i++) {
+            Pair pair = slot.poll();
+            if (pair == null) {
+                break;
+            }
+
+            Window window = windows.get(pair);
+            if (window == null) {
+                continue;
+            }
+
+            long deadline = window.deadlineTick;
+            if (deadline > tick) {
+                schedule(pair, deadline);
+            } else if (windows.remove(pair, window)) {
+                send(pair, false);
+            }
+        }
+    }
+
+    public int getActiveWindows() {
+        return windows.size();
+    }
+
+    private long windowTicks() {
+        return Math.max(1, Math.min(WHEEL_SIZE - 1, windowMs / Math.max(1, tickMs)));
+    }
+
+    private void schedule(Pair pair, long deadlineTick) {
+        // Deadlines are never more than WHEEL_SIZE - 1 ticks ahead, so one lap is enough
+        wheel[(int) (deadlineTick % WHEEL_SIZE)].add(pair);
+    }
+
+    private void send(Pair pair, boolean typing) {
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("senderId", pair.senderId());
+            payload.put("receiverId", pair.receiverId());
+            payload.put("typing", typing);
+            messagingTemplate.convertAndSendToUser(pair.receiverId().toString(), "/queue/typing", payload);
+        } catch (Exception e) {
+            System.err.println("⚠️ WebSocket error sending typing state: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.repository.MessageRepository;
+import com.mentalhealth.backend.repository.NotificationRepository;
+import com.mentalhealth.backend.websocket.CoalescingUserSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory unread notification / message counts per user.
+ *
+ * A user's counters are seeded from the database the first time they are
+ * read, then moved by deltas after each commit that changes them. Every
+ * change is pushed to /user/queue/unread (coalesced per user). Races
+ * between seeding and a concurrent delta can leave a counter off by one;
+ * the reconcile job recounts from the database and corrects that.
+ */
+@Component
+public class UnreadCounterRegistry {
+
+    private static final class Counters {
+        final LongAdder notifications = new LongAdder();
+        final LongAdder messages = new LongAdder();
+    }
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CoalescingUserSender coalescingUserSender;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    public long getUnreadNotifications(Long userId) {
+        return Math.max(0, seeded(userId).notifications.sum());
+    }
+
+    public long getUnreadMessages(Long userId) {
+        return Math.max(0, seeded(userId).messages.sum());
+    }
+
+    /**
+     * Adjust a user's unread notification count once the current transaction commits
+     */
+    public void notificationsChanged(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        TransactionCallbacks.runAfterCommit(() -> {
+            Counters c = counters.get(userId);
+            // Not tracked yet: the first read will seed from the committed rows
+            if (c != null) {
+                c.notifications.add(delta);
+                push(userId, c);
+            }
+        });
+    }
+
+    /**
+     * One new notification for each of many users (bulk fan-out), applied with a single callback
+     */
+    public void notificationsAdded(Collection<Long> userIds) {
+        TransactionCallbacks.runAfterCommit(() -> {
+            for (Long userId : userIds) {
+                Counters c = counters.get(userId);
+                if (c != null) {
+                    c.notifications.increment();
+                    push(userId, c);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adjust a user's unread message count once the current transaction commits
+     */
+    public void messagesChanged(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        TransactionCallbacks.runAfterCommit(() -> {
+            Counters c = counters.get(userId);
+            if (c != null) {
+                c.messages.add(delta);
+                push(userId, c);
+            }
+        });
+    }
+
+    /**
+     * Set a user's unread notification count to zero (read-all / delete-all)
+     */
+    public void notificationsCleared(Long userId) {
+        if (userId == null) return;
+        TransactionCallbacks.runAfterCommit(() -> {
+            Counters c = counters.get(userId);
+            if (c != null) {
+                set(c.notifications, 0);
+                push(userId, c);
+            }
+        });
+    }
+
+    /**
+     * Recount every tracked user from the database (two grouped queries)
+     * and correct any drift
+     */
+    @Scheduled(fixedDelayString = "${unread.reconcile.interval-ms:300000}")
+    public void reconcile() {
+        if (counters.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<Long, Long> notificationCounts = groupedCounts(
+                    "SELECT user_id, COUNT(*) FROM notifications WHERE is_read = false GROUP BY user_id");
+            Map<Long, Long> messageCounts = groupedCounts(
+                    "SELECT receiver_id, COUNT(*) FROM messages WHERE read_at IS NULL GROUP BY receiver_id");
+
+            int corrected = 0;
+            for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+                Counters c = entry.getValue();
+                long notifications = notificationCounts.getOrDefault(entry.getKey(), 0L);
+                long messages = messageCounts.getOrDefault(entry.getKey(), 0L);
+
+                if (c.notifications.sum() != notifications || c.messages.sum() != messages) {
+                    set(c.notifications, notifications);
+                    set(c.messages, messages);
+                    push(entry.getKey(), c);
+                    corrected++;
+                }
+            }
+
+            if (corrected > 0) {
+                System.out.println("🔄 Unread counters reconciled: " + corrected + " users corrected");
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️ Unread counter reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    private Counters seeded(Long userId) {
+        Counters existing = counters.get(userId);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Query outside computeIfAbsent so a slow seed does not block other users
+        Counters fresh = new Counters();
+        fresh.notifications.add(notificationRepository.countByUserIdAndIsReadFalse(userId));
+        fresh.messages.add(messageRepository.countUnreadMessages(userId));
+
+        Counters raced = counters.putIfAbsent(userId, fresh);
+        return raced != null ? raced : fresh;
+    }
+
+    private Map<Long, Long> groupedCounts(String sql) {
+        Map<Long, Long> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.put(rs.getLong(1), rs.getLong(2));
+        });
+        return result;
+    }
+
+    private static void set(LongAdder adder, long value) {
+        adder.add(value - adder.sum());
+    }
+
+    /**
+     * Bursts of changes (bulk fan-out, read-all) collapse into one frame
+     * carrying the counts at send time
+     */
+    private void push(Long userId, Counters c) {
+        coalescingUserSender.send(userId, "/queue/unread", () -> {
+            Map<String, Long> payload = new HashMap<>();
+            payload.put("notifications", Math.max(0, c.notifications.sum()));
+            payload.put("messages", Math.max(0, c.messages.sum()));
+            return payload;
+        });
+    }
+}
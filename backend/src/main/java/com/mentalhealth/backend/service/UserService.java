@@ -11,10 +11,17 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DirectorySearchService directorySearchService;
+    private final IdentityCache identityCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       DirectorySearchService directorySearchService,
+                       IdentityCache identityCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.directorySearchService = directorySearchService;
+        this.identityCache = identityCache;
     }
 
     public User register(User user) {
@@ -25,6 +32,10 @@ public class UserService {
         user.setRole(UserRole.USER);
         User savedUser = userRepository.save(user);
         System.out.println("USER saved with ID: " + savedUser.getId());
+        TransactionCallbacks.runAfterCommit(() -> {
+            identityCache.invalidateUser(savedUser.getId());
+            directorySearchService.indexUser(savedUser);
+        });
         return savedUser;
     }
 }
@@ -1,17 +1,35 @@
 package com.mentalhealth.backend.service;
 
 import com.mentalhealth.backend.dto.ZoomMeetingResponse;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Zoom Server-to-Server OAuth client.
+ *
+ * The access token is cached until zoom.token.refresh-skew-seconds before
+ * it expires (one token request per hour instead of one per call). Requests
+ * share one JDK HttpClient, which keeps connections alive between calls, and
+ * have connect/read timeouts. A circuit breaker makes calls fail fast while
+ * Zoom is down, so session acceptance falls back to a manual link quickly.
+ *
+ * Run with the "zoom-stub" profile to talk to the local stub (ZoomStubController).
+ */
 @Service
 @ConditionalOnProperty(prefix = "zoom", name = "account-id")
 public class ZoomService {
@@ -28,7 +46,41 @@ public class ZoomService {
     @Value("${zoom.api.base-url:https://api.zoom.us/v2}")
     private String zoomApiBaseUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${zoom.oauth.token-url:https://zoom.us/oauth/token}")
+    private String tokenUrl;
+
+    @Value("${zoom.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${zoom.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${zoom.token.refresh-skew-seconds:60}")
+    private long refreshSkewSeconds;
+
+    @Value("${zoom.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${zoom.circuit.open-seconds:30}")
+    private long openSeconds;
+
+    private RestTemplate restTemplate;
+    private ZoomTokenCache tokenCache;
+    private CircuitBreaker circuitBreaker;
+
+    @PostConstruct
+    public void init() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+
+        restTemplate = new RestTemplate(requestFactory);
+        tokenCache = new ZoomTokenCache(this::generateAccessToken, refreshSkewSeconds);
+        circuitBreaker = new CircuitBreaker("Zoom", failureThreshold, openSeconds * 1000);
+    }
 
     /**
      * Create a Zoom meeting
@@ -40,12 +92,6 @@ public class ZoomService {
      */
     public String createMeeting(String topic, LocalDateTime startTime, int duration) {
 
-        String accessToken = generateAccessToken();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(accessToken);
-
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("topic", topic);
         requestBody.put("type", 2); // Scheduled meeting
@@ -62,16 +108,18 @@ public class ZoomService {
 
         requestBody.put("settings", settings);
 
-        HttpEntity<Map<String, Object>> entity =
-                new HttpEntity<>(requestBody, headers);
+        ResponseEntity<ZoomMeetingResponse> response = callWithToken(accessToken -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setBearerAuth(accessToken);
 
-        ResponseEntity<ZoomMeetingResponse> response =
-                restTemplate.exchange(
-                        zoomApiBaseUrl + "/users/me/meetings",
-                        HttpMethod.POST,
-                        entity,
-                        ZoomMeetingResponse.class
-                );
+            return restTemplate.exchange(
+                    zoomApiBaseUrl + "/users/me/meetings",
+                    HttpMethod.POST,
+                    new HttpEntity<>(requestBody, headers),
+                    ZoomMeetingResponse.class
+            );
+        });
 
         if (response.getStatusCode() == HttpStatus.CREATED
                 && response.getBody() != null) {
@@ -82,16 +130,53 @@ public class ZoomService {
         throw new RuntimeException("Failed to create Zoom meeting");
     }
 
+    /**
+     * Delete a Zoom meeting
+     *
+     * @param meetingId Zoom meeting ID
+     */
+    public void deleteMeeting(String meetingId) {
+        callWithToken(accessToken -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(accessToken);
+
+            return restTemplate.exchange(
+                    zoomApiBaseUrl + "/meetings/" + meetingId,
+                    HttpMethod.DELETE,
+                    new HttpEntity<Void>(headers),
+                    Void.class
+            );
+        });
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Run an API call through the circuit breaker with the cached token.
+     * A 401 means the token was revoked early: drop it and retry once.
+     */
+    private <T> T callWithToken(Function<String, T> call) {
+        return circuitBreaker.call(() -> {
+            String accessToken = tokenCache.get();
+            try {
+                return call.apply(accessToken);
+            } catch (HttpClientErrorException.Unauthorized e) {
+                tokenCache.invalidate(accessToken);
+                return call.apply(tokenCache.get());
+            }
+        });
+    }
+
     /**
      * Generate OAuth access token (Server-to-Server OAuth)
      */
-    private String generateAccessToken() {
+    private ZoomTokenCache.Token generateAccessToken() {
         System.out.println("🔑 Generating Zoom OAuth token...");
         System.out.println("   Account ID: " + (zoomAccountId != null ? zoomAccountId : "NULL"));
         System.out.println("   Client ID: " + (zoomApiKey != null ? zoomApiKey.substring(0, Math.min(10, zoomApiKey.length())) + "..." : "NULL"));
 
-        String tokenUrl = "https://zoom.us/oauth/token";
-
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
         headers.setBasicAuth(zoomApiKey, zoomApiSecret);
@@ -112,9 +197,12 @@ public class ZoomService {
                     && response.getBody() != null) {
 
                 String token = response.getBody().get("access_token").toString();
-                System.out.println("✅ OAuth token generated successfully");
+                Object expiresIn = response.getBody().get("expires_in");
+                long expiresInSeconds = expiresIn instanceof Number n ? n.longValue() : 3600;
+
+                System.out.println("✅ OAuth token generated successfully (expires in " + expiresInSeconds + "s)");
                 System.out.println("   Token: " + token.substring(0, Math.min(20, token.length())) + "...");
-                return token;
+                return new ZoomTokenCache.Token(token, expiresInSeconds);
             }
 
             System.err.println("❌ Failed to get OAuth token");
@@ -134,26 +222,4 @@ public class ZoomService {
             throw new RuntimeException("Failed to obtain Zoom access token: " + e.getMessage(), e);
         }
     }
-
-    /**
-     * Delete a Zoom meeting
-     *
-     * @param meetingId Zoom meeting ID
-     */
-    public void deleteMeeting(String meetingId) {
-
-        String accessToken = generateAccessToken();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
-
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-        restTemplate.exchange(
-                zoomApiBaseUrl + "/meetings/" + meetingId,
-                HttpMethod.DELETE,
-                entity,
-                Void.class
-        );
-    }
 }
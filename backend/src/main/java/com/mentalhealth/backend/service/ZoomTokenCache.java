@@ -0,0 +1,63 @@
+package com.mentalhealth.backend.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds one OAuth access token until shortly before it expires.
+ * Refresh is single-flight: when the token runs out under load, one caller
+ * fetches a new one while the others wait for it instead of all hitting the
+ * token endpoint.
+ */
+public class ZoomTokenCache {
+
+    public record Token(String value, long expiresInSeconds) {
+    }
+
+    private record Cached(String value, long refreshAt) {
+    }
+
+    private final Supplier<Token> fetcher;
+    private final long refreshSkewMillis;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile Cached current;
+
+    public ZoomTokenCache(Supplier<Token> fetcher, long refreshSkewSeconds) {
+        this.fetcher = fetcher;
+        this.refreshSkewMillis = refreshSkewSeconds * 1000;
+    }
+
+    public String get() {
+        Cached cached = current;
+        if (cached != null && System.currentTimeMillis() < cached.refreshAt()) {
+            return cached.value();
+        }
+
+        refreshLock.lock();
+        try {
+            // Another caller may have refreshed while this one waited
+            cached = current;
+            if (cached != null && System.currentTimeMillis() < cached.refreshAt()) {
+                return cached.value();
+            }
+
+            Token token = fetcher.get();
+            long lifetimeMillis = Math.max(0, token.expiresInSeconds() * 1000 - refreshSkewMillis);
+            current = new Cached(token.value(), System.currentTimeMillis() + lifetimeMillis);
+            return token.value();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Drop a token the API rejected (revoked early). A newer token is kept.
+     */
+    public void invalidate(String rejected) {
+        Cached cached = current;
+        if (cached != null && cached.value().equals(rejected)) {
+            current = null;
+        }
+    }
+}
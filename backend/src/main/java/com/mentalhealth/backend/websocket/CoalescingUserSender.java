@@ -0,0 +1,74 @@
+package com.mentalhealth.backend.websocket;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latest-wins sender for state frames (e.g. unread counts).
+ *
+ * The first frame for a (user, destination) pair schedules a send after
+ * websocket.coalesce.window-ms; later frames in that window only replace
+ * the pending payload supplier. The payload is built when the frame is
+ * actually sent, so the client always gets the current state, once.
+ * Do not use this for messages or notifications, where every frame matters.
+ */
+@Component
+public class CoalescingUserSender {
+
+    private record Target(String user, String destination) {
+    }
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private WebSocketTrafficStats trafficStats;
+
+    @Value("${websocket.coalesce.window-ms:100}")
+    private long windowMs;
+
+    private final Map<Target, Supplier<?>> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ws-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void send(Long userId, String destination, Supplier<?> payload) {
+        Target target = new Target(userId.toString(), destination);
+        if (pending.put(target, payload) != null) {
+            trafficStats.frameCoalesced();
+            return;
+        }
+        scheduler.schedule(() -> flush(target), windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(Target target) {
+        Supplier<?> payload = pending.remove(target);
+        if (payload == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(target.user(), target.destination(), payload.get());
+        } catch (Exception e) {
+            System.err.println("⚠️ WebSocket error sending " + target.destination() + " to user "
+                    + target.user() + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -4,6 +4,7 @@ package com.mentalhealth.backend.websocket;
 
 import com.mentalhealth.backend.model.Message;
 import com.mentalhealth.backend.service.MessageService;
+import com.mentalhealth.backend.service.TypingIndicatorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -12,12 +13,17 @@ import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
+import java.util.Map;
+
 @Controller
 public class MessageWebSocketHandler {
 
     @Autowired
     private MessageService messageService;
 
+    @Autowired
+    private TypingIndicatorService typingIndicatorService;
+
     @MessageMapping("/chat.send")
     @SendToUser("/queue/messages")
     public Message sendMessage(@Payload Message message, SimpMessageHeaderAccessor headerAccessor) {
@@ -29,9 +35,30 @@ public class MessageWebSocketHandler {
         }
     }
 
+    /**
+     * Payload: {"senderId": 1, "receiverId": 2, "typing": true}
+     * The partner receives throttled start/stop frames on /user/queue/typing
+     */
     @MessageMapping("/chat.typing")
-    @SendToUser("/queue/typing")
-    public String userTyping(@Payload String userId) {
-        return userId + " is typing...";
+    public void userTyping(@Payload Map<String, Object> payload) {
+        Long senderId = toLong(payload.get("senderId"));
+        Long receiverId = toLong(payload.get("receiverId"));
+
+        if (Boolean.FALSE.equals(payload.get("typing"))) {
+            typingIndicatorService.stopped(senderId, receiverId);
+        } else {
+            typingIndicatorService.typing(senderId, receiverId);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return value != null ? Long.valueOf(value.toString()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.mentalhealth.backend.websocket;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for outbound STOMP traffic: droppable frames (typing indicators)
+ * dropped because the outbound queue was full, sessions closed for being
+ * too slow, frames saved by coalescing. Exposed via GET /debug/websocket.
+ */
+@Component
+public class WebSocketTrafficStats {
+
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private final LongAdder coalescedFrames = new LongAdder();
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    @Lazy
+    @Autowired
+    @Qualifier("clientOutboundChannelExecutor")
+    private Executor clientOutboundChannelExecutor;
+
+    @Lazy
+    @Autowired
+    private WebSocketMessageBrokerStats brokerStats;
+
+    public void frameDropped() {
+        droppedFrames.increment();
+    }
+
+    public void sessionEvicted() {
+        evictedSessions.increment();
+    }
+
+    public void frameCoalesced() {
+        coalescedFrames.increment();
+    }
+
+    public void sessionOpened() {
+        openSessions.incrementAndGet();
+    }
+
+    public void sessionClosed() {
+        openSessions.decrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("openSessions", openSessions.get());
+        if (clientOutboundChannelExecutor instanceof ThreadPoolTaskExecutor executor) {
+            stats.put("outboundQueueDepth", executor.getQueueSize());
+            stats.put("outboundActiveThreads", executor.getActiveCount());
+        }
+        stats.put("droppedFrames", droppedFrames.sum());
+        stats.put("evictedSessions", evictedSessions.sum());
+        stats.put("coalescedFrames", coalescedFrames.sum());
+        SubProtocolWebSocketHandler.Stats sessionStats = brokerStats.getWebSocketSessionStats();
+        if (sessionStats != null) {
+            Map<String, Object> sessions = new HashMap<>();
+            sessions.put("total", sessionStats.getTotalSessions());
+            sessions.put("webSocket", sessionStats.getWebSocketSessions());
+            sessions.put("httpStreaming", sessionStats.getHttpStreamingSessions());
+            sessions.put("httpPolling", sessionStats.getHttpPollingSessions());
+            sessions.put("limitExceeded", sessionStats.getLimitExceededSessions());
+            sessions.put("noMessagesReceived", sessionStats.getNoMessagesReceivedSessions());
+            sessions.put("transportErrors", sessionStats.getTransportErrorSessions());
+            stats.put("sessions", sessions);
+        }
+        return stats;
+    }
+}
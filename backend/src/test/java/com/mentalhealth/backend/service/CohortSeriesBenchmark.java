@@ -0,0 +1,129 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Habit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory part of the cohort summary (CohortService.summarize) over a
+ * synthetic 5,000-client cohort, run in a fork/join pool of 1, 2, 4 and
+ * all available threads (parallelism = 0).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *   -Dexec.mainClass=com.mentalhealth.backend.service.CohortSeriesBenchmark
+ * (or any JMH runner on the test classpath)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CohortSeriesBenchmark {
+
+    private static final int CLIENTS = 5_000;
+
+    @Param({"1", "2", "4", "0"})
+    public int parallelism;
+
+    private ForkJoinPool pool;
+    private LocalDate today;
+    private CohortSeries moodRatings;
+    private CohortSeries stressScores;
+    private CohortSeries sleepMinutes;
+    private Habit[][] habits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        today = LocalDate.now();
+
+        Random random = new Random(42);
+        long[] clientIds = new long[CLIENTS];
+        for (int c = 0; c < CLIENTS; c++) {
+            clientIds[c] = c + 1;
+        }
+
+        // About a month of tracking per client: ~20 mood logs, ~4 assessments, ~25 nights
+        CohortSeries.Builder mood = new CohortSeries.Builder(clientIds);
+        CohortSeries.Builder stress = new CohortSeries.Builder(clientIds);
+        CohortSeries.Builder sleep = new CohortSeries.Builder(clientIds);
+        habits = new Habit[CLIENTS][];
+        for (int c = 0; c < CLIENTS; c++) {
+            long id = clientIds[c];
+            for (int k = random.nextInt(40); k > 0; k--) {
+                mood.add(id, 1 + random.nextInt(5));
+            }
+            for (int k = random.nextInt(8); k > 0; k--) {
+                stress.add(id, random.nextInt(36));
+            }
+            for (int k = random.nextInt(30); k > 0; k--) {
+                sleep.add(id, 240 + random.nextInt(360));
+            }
+            habits[c] = randomHabits(random, id);
+        }
+        moodRatings = mood.build();
+        stressScores = stress.build();
+        sleepMinutes = sleep.build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> summarize() {
+        return pool.submit(() -> CohortService.summarize(moodRatings, stressScores, sleepMinutes, habits, today)).join();
+    }
+
+    private Habit[] randomHabits(Random random, long userId) {
+        Habit[] clientHabits = new Habit[random.nextInt(5)];
+        for (int h = 0; h < clientHabits.length; h++) {
+            Habit habit = new Habit();
+            habit.setUserId(userId);
+            habit.setFrequency(random.nextInt(4) == 0 ? "WEEKLY" : "DAILY");
+            habit.setTargetDays(random.nextBoolean() ? "ALL" : "MON,WED,FRI");
+            habit.setCreatedAt(today.minusDays(30 + random.nextInt(300)).atStartOfDay());
+
+            List<LocalDate> completions = new ArrayList<>();
+            for (int day = 0; day < 120; day++) {
+                if (random.nextInt(3) > 0) {
+                    completions.add(today.minusDays(day));
+                }
+            }
+            HabitBitmap.rebuild(habit, completions, today);
+            clientHabits[h] = habit;
+        }
+        return clientHabits;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CohortSeriesBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,101 @@
+package com.mentalhealth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CorrelationEngineTest {
+
+	private static final LocalDate START = LocalDate.of(2026, 9, 1);
+
+	@Test
+	void sameDayPairsMoveTogether() {
+		CorrelationEngine engine = new CorrelationEngine();
+		for (int i = 0; i < 10; i++) {
+			LocalDate day = START.plusDays(i);
+			engine.accept(day, CorrelationEngine.SLEEP_HOURS, 5 + i * 0.5);
+			engine.accept(day, CorrelationEngine.MOOD, 1 + (i % 5));
+			engine.accept(day, CorrelationEngine.STRESS, 40 - 2 * (1 + (i % 5)));
+		}
+
+		List<Map<String, Object>> pairs = engine.finish();
+
+		Map<String, Object> stressMood = pair(pairs, "stress", "mood", 0);
+		assertEquals(10, stressMood.get("days"));
+		assertEquals(-1.0, stressMood.get("pearson"));
+		assertEquals(-1.0, stressMood.get("spearman"));
+		assertEquals("STRONG_NEGATIVE", stressMood.get("strength"));
+	}
+
+	@Test
+	void laggedPairsSkipGapsBetweenDays() {
+		CorrelationEngine engine = new CorrelationEngine();
+		for (int i = 0; i < 10; i++) {
+			// Day 5 is missing, so day 6 has no "yesterday"
+			if (i == 5) {
+				continue;
+			}
+			LocalDate day = START.plusDays(i);
+			engine.accept(day, CorrelationEngine.MOOD, 1 + (i % 5));
+			engine.accept(day, CorrelationEngine.SLEEP_HOURS, 6 + (i % 3));
+		}
+
+		List<Map<String, Object>> pairs = engine.finish();
+
+		assertEquals(9, pair(pairs, "sleepHours", "mood", 0).get("days"));
+		// Pairs (0,1) (1,2) (2,3) (3,4) (6,7) (7,8) (8,9)
+		assertEquals(7, pair(pairs, "mood", "sleepHours", 1).get("days"));
+	}
+
+	@Test
+	void tooFewDaysOrNoVariationReportNoCoefficient() {
+		CorrelationEngine engine = new CorrelationEngine();
+		for (int i = 0; i < CorrelationEngine.MIN_DAYS; i++) {
+			LocalDate day = START.plusDays(i);
+			engine.accept(day, CorrelationEngine.MOOD, 3);
+			engine.accept(day, CorrelationEngine.STRESS, 10 + i);
+			if (i < 3) {
+				engine.accept(day, CorrelationEngine.SLEEP_HOURS, 7 + i);
+			}
+		}
+
+		List<Map<String, Object>> pairs = engine.finish();
+
+		Map<String, Object> constant = pair(pairs, "stress", "mood", 0);
+		assertNull(constant.get("pearson"));
+		assertEquals("NO_VARIATION", constant.get("strength"));
+
+		Map<String, Object> sparse = pair(pairs, "sleepHours", "mood", 0);
+		assertEquals(3, sparse.get("days"));
+		assertEquals("INSUFFICIENT_DATA", sparse.get("strength"));
+	}
+
+	@Test
+	void habitsCountAsZeroOnlyAfterTheFirstCompletion() {
+		CorrelationEngine engine = new CorrelationEngine();
+		for (int i = 0; i < 10; i++) {
+			LocalDate day = START.plusDays(i);
+			engine.accept(day, CorrelationEngine.MOOD, 1 + (i % 5));
+			if (i == 3) {
+				engine.accept(day, CorrelationEngine.HABITS, 2);
+			}
+		}
+
+		List<Map<String, Object>> pairs = engine.finish();
+
+		// Days 3 to 9
+		assertEquals(7, pair(pairs, "habitsCompleted", "mood", 0).get("days"));
+	}
+
+	private static Map<String, Object> pair(List<Map<String, Object>> pairs, String x, String y, int lagDays) {
+		return pairs.stream()
+				.filter(pair -> pair.get("x").equals(x) && pair.get("y").equals(y) && pair.get("lagDays").equals(lagDays))
+				.findFirst()
+				.orElseThrow();
+	}
+}
@@ -0,0 +1,157 @@
+package com.mentalhealth.backend.service;
+
+import com.mentalhealth.backend.model.Habit;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HabitBitmapTest {
+
+	// A Wednesday
+	private static final LocalDate TODAY = LocalDate.of(2026, 10, 14);
+
+	@Test
+	void backDatedCompletionJoinsTheStreak() {
+		Habit habit = habit("DAILY", "ALL", TODAY.minusDays(10));
+		HabitBitmap.record(habit, TODAY, true, TODAY);
+		HabitBitmap.record(habit, TODAY.minusDays(2), true, TODAY);
+		assertEquals(new HabitBitmap.Streaks(1, 1), HabitBitmap.of(habit, TODAY).streaks());
+
+		HabitBitmap.record(habit, TODAY.minusDays(1), true, TODAY);
+
+		assertEquals(new HabitBitmap.Streaks(3, 3), HabitBitmap.of(habit, TODAY).streaks());
+		assertEquals(TODAY, habit.getBitmapAnchorDate());
+	}
+
+	@Test
+	void removalBreaksTheStreak() {
+		Habit habit = habit("DAILY", "ALL", TODAY.minusDays(10));
+		for (int i = 0; i < 5; i++) {
+			HabitBitmap.record(habit, TODAY.minusDays(i), true, TODAY);
+		}
+		assertEquals(new HabitBitmap.Streaks(5, 5), HabitBitmap.of(habit, TODAY).streaks());
+
+		HabitBitmap.record(habit, TODAY.minusDays(2), false, TODAY);
+
+		HabitBitmap bitmap = HabitBitmap.of(habit, TODAY);
+		assertEquals(new HabitBitmap.Streaks(2, 2), bitmap.streaks());
+		assertEquals(4, bitmap.completedDays());
+	}
+
+	@Test
+	void weeklyExpectsOneCompletionPerCalendarWeek() {
+		Habit habit = habit("WEEKLY", null, TODAY.minusDays(20));
+		HabitBitmap.record(habit, TODAY, true, TODAY);
+		// Last Wednesday and Tuesday: the same week, counted once
+		HabitBitmap.record(habit, TODAY.minusDays(7), true, TODAY);
+		HabitBitmap.record(habit, TODAY.minusDays(8), true, TODAY);
+
+		HabitBitmap bitmap = HabitBitmap.of(habit, TODAY);
+		assertEquals(200.0 / 3, bitmap.completionRate(21), 1e-9);
+		assertEquals(new HabitBitmap.Streaks(2, 2), bitmap.streaks());
+		assertEquals(3, bitmap.completedDays());
+	}
+
+	@Test
+	void weeklyCurrentWeekIsNotMissedWhileOpen() {
+		Habit habit = habit("WEEKLY", null, TODAY.minusDays(20));
+		HabitBitmap.record(habit, TODAY.minusDays(7), true, TODAY);
+
+		HabitBitmap bitmap = HabitBitmap.of(habit, TODAY);
+		assertEquals(50.0, bitmap.completionRate(21), 1e-9);
+		assertEquals(1, bitmap.streaks().current());
+	}
+
+	@Test
+	void targetDaysOnlyExpectThoseWeekdays() {
+		Habit habit = habit("DAILY", "MON,WED,FRI", TODAY.minusDays(13));
+		HabitBitmap.record(habit, TODAY, true, TODAY);
+		// Tuesday is not a target day: completed, but neither expected nor a break
+		HabitBitmap.record(habit, TODAY.minusDays(1), true, TODAY);
+		HabitBitmap.record(habit, TODAY.minusDays(2), true, TODAY);
+
+		HabitBitmap bitmap = HabitBitmap.of(habit, TODAY);
+		// 14 days expect two each of Monday, Wednesday and Friday
+		assertEquals(200.0 / 6, bitmap.completionRate(14), 1e-9);
+		assertEquals(new HabitBitmap.Streaks(2, 2), bitmap.streaks());
+		assertEquals(3, bitmap.completedDays());
+		// Thursday to today, oldest first: only Friday was expected and missed
+		List<Integer> heatmap = bitmap.heatmap(7);
+		assertEquals(List.of(0, 1, 0, 0, 2, 2, 2), heatmap);
+	}
+
+	@Test
+	void parsesTargetDays() {
+		assertEquals(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY),
+				HabitBitmap.targetDays("mon, wed,FRI"));
+		assertEquals(EnumSet.allOf(DayOfWeek.class), HabitBitmap.targetDays("ALL"));
+		assertEquals(EnumSet.allOf(DayOfWeek.class), HabitBitmap.targetDays(null));
+	}
+
+	@Test
+	void anchorRollsForwardWithTheDate() {
+		Habit habit = habit("DAILY", "ALL", TODAY.minusDays(10));
+		HabitBitmap.record(habit, TODAY, true, TODAY);
+
+		LocalDate tomorrow = TODAY.plusDays(1);
+		// Read before anything is recorded tomorrow: today is still open
+		assertEquals(1, HabitBitmap.of(habit, tomorrow).streaks().current());
+
+		HabitBitmap.record(habit, tomorrow, true, tomorrow);
+		assertEquals(tomorrow, habit.getBitmapAnchorDate());
+		assertEquals(new HabitBitmap.Streaks(2, 2), HabitBitmap.of(habit, tomorrow).streaks());
+
+		// Two days later with nothing recorded: the run is broken but remembered
+		assertEquals(new HabitBitmap.Streaks(0, 2), HabitBitmap.of(habit, tomorrow.plusDays(2)).streaks());
+	}
+
+	@Test
+	void completionAheadOfTodayIsNotCountedYet() {
+		Habit habit = habit("DAILY", "ALL", TODAY.minusDays(10));
+		HabitBitmap.record(habit, TODAY, true, TODAY);
+		HabitBitmap.record(habit, TODAY.plusDays(1), true, TODAY);
+
+		assertEquals(TODAY.plusDays(1), habit.getBitmapAnchorDate());
+		assertEquals(1, HabitBitmap.of(habit, TODAY).completedDays());
+		assertEquals(2, HabitBitmap.of(habit, TODAY.plusDays(1)).completedDays());
+	}
+
+	@Test
+	void daysOlderThanTheWindowAreNotRecorded() {
+		Habit habit = habit("DAILY", "ALL", TODAY.minusDays(10));
+
+		assertFalse(HabitBitmap.record(habit, TODAY.minusDays(HabitBitmap.DAYS), true, TODAY));
+		assertTrue(HabitBitmap.record(habit, TODAY.minusDays(HabitBitmap.DAYS - 1), true, TODAY));
+	}
+
+	@Test
+	void rebuildMatchesRecordingOneByOne() {
+		List<LocalDate> dates = List.of(TODAY, TODAY.minusDays(3), TODAY.minusDays(40), TODAY.minusDays(400));
+		Habit recorded = habit("DAILY", "ALL", TODAY.minusDays(500));
+		for (LocalDate date : dates) {
+			HabitBitmap.record(recorded, date, true, TODAY);
+		}
+
+		Habit rebuilt = habit("DAILY", "ALL", TODAY.minusDays(500));
+		HabitBitmap.rebuild(rebuilt, dates, TODAY);
+
+		assertArrayEquals(recorded.getCompletionBitmap(), rebuilt.getCompletionBitmap());
+		assertEquals(recorded.getBitmapAnchorDate(), rebuilt.getBitmapAnchorDate());
+	}
+
+	private static Habit habit(String frequency, String targetDays, LocalDate createdOn) {
+		Habit habit = new Habit();
+		habit.setFrequency(frequency);
+		habit.setTargetDays(targetDays);
+		habit.setCreatedAt(createdOn.atStartOfDay());
+		return habit;
+	}
+}
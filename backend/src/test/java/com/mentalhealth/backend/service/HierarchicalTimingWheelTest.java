@@ -0,0 +1,67 @@
+package com.mentalhealth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+	private static final long TICK = 1000;
+	private static final long START = 1_700_000_000_000L;
+
+	@Test
+	void itemsComeDueOnTheirTick() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, START);
+		wheel.schedule("b", START + 5 * TICK);
+		wheel.schedule("a", START + 2 * TICK);
+		// Rounded up to the next tick
+		wheel.schedule("c", START + 5 * TICK + 1);
+
+		assertTrue(wheel.advanceTo(START + TICK).isEmpty());
+		assertEquals(List.of("a"), wheel.advanceTo(START + 4 * TICK));
+		assertEquals(List.of("b"), wheel.advanceTo(START + 5 * TICK));
+		assertEquals(List.of("c"), wheel.advanceTo(START + 6 * TICK));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void pastDeadlineComesDueOnTheNextAdvance() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, START);
+		wheel.schedule("late", START - 10 * TICK);
+
+		assertEquals(1, wheel.size());
+		assertEquals(List.of("late"), wheel.advanceTo(START));
+	}
+
+	@Test
+	void higherLevelsCascadeToTheExactTick() {
+		HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, START);
+		long w = HierarchicalTimingWheel.WHEEL_SIZE;
+		// One timer per level, each just off a slot boundary
+		long[] ticks = {w - 1, w * w + 3, w * w * w + w + 7, 5 * w * w * w + 11};
+		for (long tick : ticks) {
+			wheel.schedule(tick, START + tick * TICK);
+		}
+
+		List<Long> fired = new ArrayList<>();
+		for (long tick : ticks) {
+			assertTrue(wheel.advanceTo(START + (tick - 1) * TICK).isEmpty(), "early at " + tick);
+			fired.addAll(wheel.advanceTo(START + tick * TICK));
+		}
+		assertEquals(List.of(ticks[0], ticks[1], ticks[2], ticks[3]), fired);
+	}
+
+	@Test
+	void timersBeyondTheWheelWaitInOverflow() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, START);
+		long span = (long) Math.pow(HierarchicalTimingWheel.WHEEL_SIZE, 4);
+		wheel.schedule("far", START + (span + 100) * TICK);
+
+		assertTrue(wheel.advanceTo(START + (span + 99) * TICK).isEmpty());
+		assertEquals(List.of("far"), wheel.advanceTo(START + (span + 100) * TICK));
+	}
+}
@@ -0,0 +1,93 @@
+package com.mentalhealth.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StressSeriesTest {
+
+	private static final LocalDate START = LocalDate.of(2026, 9, 1);
+
+	@Test
+	void appendedRejectsOldIdsAndBackDatedAssessments() {
+		StressSeries series = series(5);
+
+		assertNull(series.appended(5, START.plusDays(10), levels(1)));
+		assertNull(series.appended(6, START.plusDays(1), levels(1)));
+
+		StressSeries longer = series.appended(6, START.plusDays(10), levels(1));
+		assertNotNull(longer);
+		assertEquals(6, longer.size());
+		assertEquals(START.plusDays(10), longer.lastDate());
+		// The original is unchanged
+		assertEquals(5, series.size());
+	}
+
+	@Test
+	void appendingMatchesBuilding() {
+		StressSeries appended = StressSeries.empty();
+		for (int i = 0; i < 6; i++) {
+			appended = appended.appended(i + 1, START.plusDays(i), levels(i + 1));
+		}
+
+		assertEquals(series(6).analyze(START, 7), appended.analyze(START, 7));
+	}
+
+	@Test
+	void scoreTrendComparesRecentHalfWithOlderHalf() {
+		assertEquals("WORSENING", series(6).scoreTrend());
+
+		StressSeries.Builder builder = new StressSeries.Builder(4);
+		for (int i = 0; i < 4; i++) {
+			builder.add(i + 1, START.plusDays(i), levels(4 - i));
+		}
+		assertEquals("IMPROVING", builder.build().scoreTrend());
+		assertEquals("STABLE", StressSeries.empty().scoreTrend());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void analyzeFindsTheDimensionDrivingTheScore() {
+		// Anxiety moves with the score, every other dimension is constant
+		StressSeries.Builder builder = new StressSeries.Builder(5);
+		for (int i = 0; i < 5; i++) {
+			short[] values = {3, 3, (short) (1 + i), 3, 3, 3, 3};
+			builder.add(i + 1, START.plusDays(i), values);
+		}
+
+		Map<String, Object> result = builder.build().analyze(START.plusDays(1), 2);
+
+		assertEquals(4, result.get("assessmentCount"));
+		assertEquals("anxiety", result.get("primaryDriver"));
+		List<Map<String, Object>> dimensions = (List<Map<String, Object>>) result.get("dimensions");
+		assertEquals(1.0, dimensions.get(2).get("correlationWithScore"));
+		assertNull(dimensions.get(0).get("correlationWithScore"));
+		assertEquals(7.0, dimensions.get(2).get("trendPerWeek"));
+
+		// Trailing two-day average of the score: 20, then (20 + 21) / 2
+		List<Map<String, Object>> rolling = (List<Map<String, Object>>) result.get("rollingScore");
+		assertEquals(20.0, rolling.get(0).get("averageScore"));
+		assertEquals(20.5, rolling.get(1).get("averageScore"));
+	}
+
+	private static StressSeries series(int size) {
+		StressSeries.Builder builder = new StressSeries.Builder(size);
+		for (int i = 0; i < size; i++) {
+			builder.add(i + 1, START.plusDays(i), levels(i + 1));
+		}
+		return builder.build();
+	}
+
+	private static short[] levels(int level) {
+		short[] values = new short[StressSeries.DIMENSIONS.size()];
+		Arrays.fill(values, (short) level);
+		return values;
+	}
+}